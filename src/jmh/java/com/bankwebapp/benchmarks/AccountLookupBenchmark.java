@@ -0,0 +1,48 @@
+package com.bankwebapp.benchmarks;
+
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.KeysetPageDto;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtered account lookups; with the (filter, id) indexes the time per page should not grow with {@code rows}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AccountLookupBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Benchmark
+    public KeysetPageDto<AccountDto> byCustomerId(SeededBank bank) {
+        return bank.accountService.getAccountsByCustomerId(bank.randomCustomerId(), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public KeysetPageDto<AccountDto> byCity(SeededBank bank) {
+        City[] cities = City.values();
+        City city = cities[ThreadLocalRandom.current().nextInt(cities.length)];
+        return bank.accountService.getAccountsByCity(city, bank.randomAccountId(), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public KeysetPageDto<AccountDto> byCurrency(SeededBank bank) {
+        Currency[] currencies = Currency.values();
+        Currency currency = currencies[ThreadLocalRandom.current().nextInt(currencies.length)];
+        return bank.accountService.getAccountsByCurrency(currency, bank.randomAccountId(), PAGE_SIZE);
+    }
+}
@@ -0,0 +1,36 @@
+package com.bankwebapp.benchmarks;
+
+import com.bankwebapp.dtos.AccountDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AccountServiceBenchmark {
+
+    @Benchmark
+    public AccountDto withdrawMoney(SeededBank bank) {
+        return bank.accountService.withdrawMoney(bank.randomAccountId(), 100);
+    }
+
+    @Benchmark
+    public AccountDto depositMoney(SeededBank bank) {
+        return bank.accountService.depositMoney(bank.randomAccountId(), 100);
+    }
+
+    @Benchmark
+    public List<AccountDto> getAllAccounts(SeededBank bank) {
+        return bank.accountService.getAllAccounts();
+    }
+}
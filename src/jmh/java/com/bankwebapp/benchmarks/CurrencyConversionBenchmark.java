@@ -0,0 +1,50 @@
+package com.bankwebapp.benchmarks;
+
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.services.CurrencyConversionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one conversion against the live rate table. Run with {@code -prof gc} to confirm the lookup
+ * allocates nothing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CurrencyConversionBenchmark {
+
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private final CurrencyConversionService conversionService =
+            new CurrencyConversionService(new DefaultResourceLoader(), "classpath:rates.properties");
+
+    private long amount = 125075;
+    private int pair;
+
+    @Benchmark
+    public long convert() {
+        pair++;
+        Currency from = CURRENCIES[pair % CURRENCIES.length];
+        Currency to = CURRENCIES[(pair / CURRENCIES.length) % CURRENCIES.length];
+        return conversionService.convert(amount++, from, to);
+    }
+
+    @Benchmark
+    public long convertSameCurrency() {
+        return conversionService.convert(amount++, Currency.TRY, Currency.TRY);
+    }
+}
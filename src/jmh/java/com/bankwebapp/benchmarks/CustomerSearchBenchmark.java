@@ -0,0 +1,59 @@
+package com.bankwebapp.benchmarks;
+
+import com.bankwebapp.dtos.CustomerDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-20 customer search through the trigram index, against listing every customer and filtering them
+ * the way support staff did before. The seeded names are {@code Customer <i>} and the addresses
+ * {@code <i> Main St}, so the queries cover a selective number, a number matching many names, a word in
+ * every name and a word in every address.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CustomerSearchBenchmark {
+
+    @Param({"customer 123456", "4242", "ustomer", "main st"})
+    public String query;
+
+    @Benchmark
+    public List<CustomerDto> searchCustomers(SeededBank bank) {
+        return bank.customerService.searchCustomers(query, 20);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<CustomerDto> getAllCustomersAndFilter(SeededBank bank) {
+        String[] words = query.toLowerCase(Locale.ROOT).split(" ");
+        return bank.customerService.getAllCustomers().stream()
+                .filter(customer -> {
+                    String text = (customer.getName() + " " + customer.getAddres()).toLowerCase(Locale.ROOT);
+                    for (String word : words) {
+                        if (!text.contains(word)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                })
+                .limit(20)
+                .toList();
+    }
+}
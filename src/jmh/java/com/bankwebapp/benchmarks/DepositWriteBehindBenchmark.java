@@ -0,0 +1,33 @@
+package com.bankwebapp.benchmarks;
+
+import com.bankwebapp.dtos.AccountDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposits per second committed one transaction each versus through the write-behind buffer. Run with
+ * {@code -p writeBehind=false,true}; the buffered numbers include the group commits of the background flusher.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+public class DepositWriteBehindBenchmark {
+
+    @Benchmark
+    public AccountDto depositMoney(SeededBank bank) {
+        return bank.writeBehind
+                ? bank.accountService.bufferDeposit(bank.randomAccountId(), 100)
+                : bank.accountService.depositMoney(bank.randomAccountId(), 100);
+    }
+}
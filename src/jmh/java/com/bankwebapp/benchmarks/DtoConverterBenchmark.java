@@ -0,0 +1,59 @@
+package com.bankwebapp.benchmarks;
+
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.AccountDtoConverter;
+import com.bankwebapp.dtos.CustomerDto;
+import com.bankwebapp.dtos.CustomerDtoConverter;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.models.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DtoConverterBenchmark {
+
+    private final AccountDtoConverter accountDtoConverter = new AccountDtoConverter();
+    private final CustomerDtoConverter customerDtoConverter = new CustomerDtoConverter();
+
+    private final Account account = Account.builder()
+            .id("acc-00000001")
+            .customerId("cus-00000001")
+            .balance(125075)
+            .city(City.ISTANBUL)
+            .currency(Currency.TRY)
+            .build();
+
+    private final Customer customer = Customer.builder()
+            .id("cus-00000001")
+            .name("Customer 1")
+            .dateofBirth(1990)
+            .addres("1 Main St")
+            .city(City.ISTANBUL)
+            .build();
+
+    @Benchmark
+    public AccountDto convertAccount() {
+        return accountDtoConverter.convert(account);
+    }
+
+    @Benchmark
+    public CustomerDto convertCustomer() {
+        return customerDtoConverter.getCustomerDto(customer);
+    }
+}
@@ -0,0 +1,108 @@
+package com.bankwebapp.benchmarks;
+
+import com.bankwebapp.BankwebappApplication;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.services.AccountService;
+import com.bankwebapp.services.CustomerSearchIndex;
+import com.bankwebapp.services.CustomerService;
+import com.bankwebapp.services.ShardedCommandProcessor;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Boots the application without the web layer against a private in-memory H2 seeded with
+ * {@code rows} customers and {@code rows} accounts.
+ */
+@State(Scope.Benchmark)
+public class SeededBank {
+
+    private static final int INSERT_BATCH = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    // Buffers deposits in memory and group-commits them, see DepositWriteBehindBenchmark
+    @Param({"false"})
+    public boolean writeBehind;
+
+    // Runs withdrawals and deposits on single-writer account shards, see ShardedCommandBenchmark
+    @Param({"false"})
+    public boolean sharded;
+
+    public AccountService accountService;
+    public CustomerService customerService;
+    public ShardedCommandProcessor commandProcessor;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BankwebappApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.devtools.restart.enabled=false",
+                        "bankwebapp.cache.enabled=false",
+                        "logging.level.root=WARN")
+                // Builder properties are only defaults, so a setting application.properties also has goes on the command line
+                .run("--bankwebapp.write-behind.enabled=" + writeBehind, "--bankwebapp.shards.enabled=" + sharded);
+        seed(context.getBean(JdbcTemplate.class));
+        // The index was built on startup, before the rows were seeded behind the application's back
+        context.getBean(CustomerSearchIndex.class).rebuild();
+        accountService = context.getBean(AccountService.class);
+        customerService = context.getBean(CustomerService.class);
+        commandProcessor = context.getBean(ShardedCommandProcessor.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public String randomAccountId() {
+        return accountId(ThreadLocalRandom.current().nextInt(rows));
+    }
+
+    public String randomCustomerId() {
+        return customerId(ThreadLocalRandom.current().nextInt(rows));
+    }
+
+    static String accountId(int i) {
+        return String.format("acc-%08d", i);
+    }
+
+    static String customerId(int i) {
+        return String.format("cus-%08d", i);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        City[] cities = City.values();
+        Currency[] currencies = Currency.values();
+        List<Object[]> customers = new ArrayList<>(INSERT_BATCH);
+        List<Object[]> accounts = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < rows; i++) {
+            customers.add(new Object[]{customerId(i), "Customer " + i, 1950 + i % 60, i + " Main St", cities[i % cities.length].ordinal()});
+            accounts.add(new Object[]{accountId(i), customerId(i), 100_000_000_000L, cities[i % cities.length].ordinal(), currencies[i % currencies.length].ordinal()});
+            if (customers.size() == INSERT_BATCH || i == rows - 1) {
+                jdbcTemplate.batchUpdate("insert into customer (id, name, dateof_birth, addres, city) values (?, ?, ?, ?, ?)", customers);
+                jdbcTemplate.batchUpdate("insert into account (id, customer_id, balance, city, currency) values (?, ?, ?, ?, ?)", accounts);
+                customers.clear();
+                accounts.clear();
+            }
+        }
+    }
+}
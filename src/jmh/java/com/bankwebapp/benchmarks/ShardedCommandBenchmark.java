@@ -0,0 +1,36 @@
+package com.bankwebapp.benchmarks;
+
+import com.bankwebapp.dtos.AccountDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Withdrawals and deposits through the synchronous {@code AccountService} path versus the single-writer
+ * account shards. Run with {@code -p sharded=false,true} and {@code -t 1}, {@code -t 8} or {@code -t 64};
+ * the sample time mode reports the p99 latency a client sees, including the wait for its shard.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ShardedCommandBenchmark {
+
+    @Benchmark
+    public AccountDto withdrawOrDeposit(SeededBank bank) {
+        String accountId = bank.randomAccountId();
+        boolean withdraw = ThreadLocalRandom.current().nextBoolean();
+        if (bank.sharded) {
+            return (withdraw ? bank.commandProcessor.withdraw(accountId, 100) : bank.commandProcessor.deposit(accountId, 100)).join();
+        }
+        return withdraw ? bank.accountService.withdrawMoney(accountId, 100) : bank.accountService.depositMoney(accountId, 100);
+    }
+}
@@ -0,0 +1,33 @@
+package com.bankwebapp.cache;
+
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.CustomerDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public ReadThroughCache<String, AccountDto> accountCache(@Value("${bankwebapp.cache.enabled:true}") boolean enabled,
+                                                             @Value("${bankwebapp.cache.max-size:10000}") int maxSize,
+                                                             @Value("${bankwebapp.cache.ttl:30s}") Duration ttl) {
+        return new ReadThroughCache<>(enabled, maxSize, ttl);
+    }
+
+    @Bean
+    public ReadThroughCache<String, CustomerDto> customerCache(@Value("${bankwebapp.cache.enabled:true}") boolean enabled,
+                                                               @Value("${bankwebapp.cache.max-size:10000}") int maxSize,
+                                                               @Value("${bankwebapp.cache.ttl:30s}") Duration ttl) {
+        return new ReadThroughCache<>(enabled, maxSize, ttl);
+    }
+
+    @Bean
+    public IdempotencyStore<AccountDto> accountIdempotencyStore(@Value("${bankwebapp.idempotency.max-keys:100000}") int maxKeys,
+                                                                @Value("${bankwebapp.idempotency.ttl:10m}") Duration ttl) {
+        return new IdempotencyStore<>(maxKeys, ttl);
+    }
+}
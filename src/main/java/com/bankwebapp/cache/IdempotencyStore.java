@@ -0,0 +1,145 @@
+package com.bankwebapp.cache;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the result of an operation per client-supplied idempotency key, so retries replay the first
+ * result instead of repeating the operation.
+ * <p>
+ * Keys live in a concurrent map and, in insertion order, in a queue. All keys share one TTL, so the head
+ * of the queue is always the next to expire; it is trimmed on every call, which keeps the store bounded
+ * by {@code maxKeys} and by the keys seen within one TTL. A key that is still executing holds a pending
+ * future, so concurrent duplicates wait for the one execution instead of running the operation again.
+ * Pending keys are never evicted to make room, since a retry would then run the operation a second time;
+ * the oldest completed keys go instead, and a new key is turned away while all of them are in flight.
+ */
+public class IdempotencyStore<V> {
+
+    private final int maxKeys;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ArrayDeque<Entry<V>> insertionOrder = new ArrayDeque<>();
+
+    public IdempotencyStore(int maxKeys, Duration ttl) {
+        this(maxKeys, ttl, System::nanoTime);
+    }
+
+    IdempotencyStore(int maxKeys, Duration ttl, LongSupplier nanoClock) {
+        this.maxKeys = maxKeys;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Runs the operation once per key and returns its result to every later call with the same key.
+     * A failed operation is forgotten so it can be retried.
+     *
+     * @param fingerprint identifies the request the key was first used for
+     * @throws IdempotencyKeyReusedException if the key was already used for a different request
+     * @throws IdempotencyStoreFullException if the key is new and all {@code maxKeys} keys are still executing
+     */
+    public V execute(String key, String fingerprint, Supplier<V> operation) {
+        long now = nanoClock.getAsLong();
+        trim(now);
+        Entry<V> entry = new Entry<>(key, fingerprint, now + ttlNanos);
+        Entry<V> existing = entries.putIfAbsent(key, entry);
+        while (existing != null && existing.isExpired(now)) {
+            existing = entries.replace(key, existing, entry) ? null : entries.putIfAbsent(key, entry);
+        }
+        if (existing != null) {
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            return await(existing.result);
+        }
+        synchronized (insertionOrder) {
+            if (insertionOrder.size() >= maxKeys && !evictOldestCompleted()) {
+                IdempotencyStoreFullException full = new IdempotencyStoreFullException(maxKeys);
+                // Duplicates that found the entry meanwhile are turned away too
+                entries.remove(key, entry);
+                entry.result.completeExceptionally(full);
+                throw full;
+            }
+            insertionOrder.addLast(entry);
+        }
+        try {
+            V value = operation.get();
+            entry.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void trim(long now) {
+        synchronized (insertionOrder) {
+            Entry<V> oldest;
+            while ((oldest = insertionOrder.peekFirst()) != null && oldest.isExpired(now)) {
+                insertionOrder.pollFirst();
+                entries.remove(oldest.key, oldest);
+            }
+        }
+    }
+
+    /**
+     * Must be called holding the {@code insertionOrder} lock. Only the keys in flight are skipped, and
+     * there are at most as many of them as request threads.
+     *
+     * @return whether a completed key was found and evicted
+     */
+    private boolean evictOldestCompleted() {
+        Iterator<Entry<V>> iterator = insertionOrder.iterator();
+        while (iterator.hasNext()) {
+            Entry<V> entry = iterator.next();
+            if (entry.result.isDone()) {
+                iterator.remove();
+                entries.remove(entry.key, entry);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <V> V await(CompletableFuture<V> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry<V> {
+
+        final String key;
+        final String fingerprint;
+        final long expiresAt;
+        final CompletableFuture<V> result = new CompletableFuture<>();
+
+        Entry(String key, String fingerprint, long expiresAt) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt - now <= 0;
+        }
+    }
+}
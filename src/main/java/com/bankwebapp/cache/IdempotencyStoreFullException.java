@@ -0,0 +1,12 @@
+package com.bankwebapp.cache;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class IdempotencyStoreFullException extends RuntimeException {
+
+    public IdempotencyStoreFullException(int maxKeys) {
+        super("All " + maxKeys + " idempotency keys are still in flight, retry later");
+    }
+}
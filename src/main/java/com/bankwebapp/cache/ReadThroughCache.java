@@ -0,0 +1,179 @@
+package com.bankwebapp.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-process read-through cache with size (LRU) and TTL eviction.
+ * <p>
+ * Keys are spread over independently locked segments. Every eviction bumps its segment's version and a
+ * value is only stored if no eviction happened in its segment while it was being loaded, so a reader
+ * racing with a writer can never put a stale value back after the writer evicted it.
+ */
+public class ReadThroughCache<K, V> {
+
+    private static final int SEGMENTS = 16;
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Segment<K, V>[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ReadThroughCache(boolean enabled, int maxSize, Duration ttl) {
+        this(enabled, maxSize, ttl, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    ReadThroughCache(boolean enabled, int maxSize, Duration ttl, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.segments = new Segment[SEGMENTS];
+        int segmentSize = Math.max(1, maxSize / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(segmentSize, evictions);
+        }
+    }
+
+    public static <K, V> ReadThroughCache<K, V> disabled() {
+        return new ReadThroughCache<>(false, 1, Duration.ZERO);
+    }
+
+    /**
+     * Returns the cached value or loads it. Null results are passed through and never cached.
+     */
+    public V get(K key, Function<K, V> loader) {
+        if (!enabled) {
+            return loader.apply(key);
+        }
+        Segment<K, V> segment = segmentFor(key);
+        long now = nanoClock.getAsLong();
+        V cached = segment.get(key, now);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long version = segment.version();
+        V value = loader.apply(key);
+        if (value != null) {
+            segment.putIfUnchanged(key, value, version, now + ttlNanos);
+        }
+        return value;
+    }
+
+    /**
+     * Evicts the key now and, when called inside a transaction, once more after it completes, so readers
+     * that loaded the pre-commit state in between cannot leave it behind.
+     */
+    public void evict(K key) {
+        if (!enabled) {
+            return;
+        }
+        segmentFor(key).evict(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    segmentFor(key).evict(key);
+                }
+            });
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static final class Segment<K, V> {
+
+        private final LinkedHashMap<K, Entry<V>> entries;
+        private final LongAdder evictions;
+        private long version;
+
+        Segment(int maxSize, LongAdder evictions) {
+            this.evictions = evictions;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() > maxSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized V get(K key, long now) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt - now <= 0) {
+                entries.remove(key);
+                evictions.increment();
+                return null;
+            }
+            return entry.value;
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized void putIfUnchanged(K key, V value, long expectedVersion, long expiresAt) {
+            if (version == expectedVersion) {
+                entries.put(key, new Entry<>(value, expiresAt));
+            }
+        }
+
+        synchronized void evict(K key) {
+            version++;
+            entries.remove(key);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -1,24 +1,60 @@
 package com.bankwebapp.controllers;
 
 
+import com.bankwebapp.cache.IdempotencyStore;
 import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.AccountStatsDto;
 import com.bankwebapp.dtos.CreateAccountRequest;
+import com.bankwebapp.dtos.KeysetPageDto;
+import com.bankwebapp.dtos.LedgerEntryDto;
+import com.bankwebapp.dtos.PatchAccountRequest;
+import com.bankwebapp.dtos.TransactionRequest;
+import com.bankwebapp.dtos.TransactionResultDto;
+import com.bankwebapp.dtos.TransferRequest;
+import com.bankwebapp.dtos.TransferResultDto;
 import com.bankwebapp.dtos.UpdateAccountRequest;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.models.Money;
 import com.bankwebapp.services.AccountService;
+import com.bankwebapp.services.InvalidTransactionException;
+import com.bankwebapp.services.LedgerService;
+import com.bankwebapp.services.ShardedCommandProcessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 @RestController
 @RequestMapping("/account")
 public class AccountController {
 
+    private static final String DEFAULT_PAGE_SIZE = "100";
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final List<String> CSV_HEADER = List.of("id", "customerId", "balance", "currency");
+
     private final AccountService accountService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyStore<AccountDto> idempotencyStore;
+    private final LedgerService ledgerService;
+    private final ShardedCommandProcessor commandProcessor;
 
 
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, ObjectMapper objectMapper, IdempotencyStore<AccountDto> idempotencyStore,
+                             LedgerService ledgerService, ShardedCommandProcessor commandProcessor) {
         this.accountService = accountService;
+        this.objectMapper = objectMapper;
+        this.idempotencyStore = idempotencyStore;
+        this.ledgerService = ledgerService;
+        this.commandProcessor = commandProcessor;
     }
 
 
@@ -27,12 +63,73 @@ public class AccountController {
         return ResponseEntity.ok(accountService.getAllAccounts());
     }
 
+    @GetMapping(params = {"limit", "!customerId", "!city", "!currency"})
+    public ResponseEntity<KeysetPageDto<AccountDto>> getAccountsPage(@RequestParam(required = false) String after, @RequestParam int limit){
+        return ResponseEntity.ok(accountService.getAccountsPage(after, limit));
+    }
+
+    @GetMapping(params = "customerId")
+    public ResponseEntity<KeysetPageDto<AccountDto>> getAccountsByCustomerId(@RequestParam String customerId, @RequestParam(required = false) String after,
+                                                                             @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit){
+        return ResponseEntity.ok(accountService.getAccountsByCustomerId(customerId, after, limit));
+    }
+
+    @GetMapping(params = {"city", "!customerId"})
+    public ResponseEntity<KeysetPageDto<AccountDto>> getAccountsByCity(@RequestParam City city, @RequestParam(required = false) String after,
+                                                                       @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit){
+        return ResponseEntity.ok(accountService.getAccountsByCity(city, after, limit));
+    }
+
+    @GetMapping(params = {"currency", "!customerId", "!city"})
+    public ResponseEntity<KeysetPageDto<AccountDto>> getAccountsByCurrency(@RequestParam Currency currency, @RequestParam(required = false) String after,
+                                                                           @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit){
+        return ResponseEntity.ok(accountService.getAccountsByCurrency(currency, after, limit));
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAccounts(){
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonArrayStreams.jsonArray(objectMapper, accountService::streamAllAccounts));
+    }
+
+
+    /**
+     * Every account, streamed from a database cursor as NDJSON or CSV; gzipped when the client accepts it.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAccounts(@RequestParam(defaultValue = "NDJSON") ExportStreams.Format format,
+                                                                @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+        boolean gzip = ExportStreams.acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = format == ExportStreams.Format.CSV
+                ? ExportStreams.<AccountDto>csv(CSV_HEADER,
+                        account -> Arrays.asList(account.getId(), account.getCustomerId(), Money.format(account.getBalance()), account.getCurrency()),
+                        accountService::streamAllAccounts, gzip)
+                : ExportStreams.<AccountDto>ndjson(objectMapper, accountService::streamAllAccounts, gzip);
+        return ExportStreams.response("accounts", format, gzip, body);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<AccountStatsDto> getStatistics() {
+        return ResponseEntity.ok(accountService.getStatistics());
+    }
 
     @GetMapping("/{id}")
     public ResponseEntity<AccountDto> getAccountById(@PathVariable String id) {
         return ResponseEntity.ok(accountService.getAccountById(id));
     }
 
+    @GetMapping(value = "/{id}", params = "in")
+    public ResponseEntity<AccountDto> getAccountById(@PathVariable String id, @RequestParam("in") Currency currency) {
+        return ResponseEntity.ok(accountService.getAccountById(id, currency));
+    }
+
+    @GetMapping("/{id}/transactions")
+    public ResponseEntity<KeysetPageDto<LedgerEntryDto>> getTransactions(@PathVariable String id, @RequestParam(required = false) Long after,
+                                                                         @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(ledgerService.getHistory(id, after, limit));
+    }
+
     @PostMapping
     public ResponseEntity<AccountDto> createAccount(@RequestBody CreateAccountRequest createAccountRequest) {
         return ResponseEntity.ok(accountService.createAccount(createAccountRequest));
@@ -41,6 +138,10 @@ public class AccountController {
     public ResponseEntity<AccountDto> updateAccount(@PathVariable String id, @RequestBody UpdateAccountRequest updateAccountRequest) {
         return ResponseEntity.ok(accountService.updateAccount(id, updateAccountRequest));
     }
+    @PatchMapping("/{id}")
+    public ResponseEntity<AccountDto> patchAccount(@PathVariable String id, @RequestBody PatchAccountRequest patchAccountRequest) {
+        return ResponseEntity.ok(accountService.patchAccount(id, patchAccountRequest));
+    }
 
 
     @DeleteMapping("/{id}")
@@ -51,14 +152,102 @@ public class AccountController {
 
 
     @PutMapping ("/withdraw/{id}/{amount}")
-    public ResponseEntity<AccountDto> withdrawMoney(@PathVariable String id, @PathVariable Double amount) {
-        return ResponseEntity.ok(accountService.withdrawMoney(id, amount));
+    public ResponseEntity<AccountDto> withdrawMoney(@PathVariable String id, @PathVariable BigDecimal amount,
+                                                    @RequestParam(required = false) Currency currency,
+                                                    @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        long minorUnits = positiveMinorUnits(amount);
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(withdraw(id, minorUnits, currency));
+        }
+        return ResponseEntity.ok(idempotencyStore.execute(idempotencyKey, "withdraw:" + id + ":" + minorUnits + ":" + currency,
+                () -> withdraw(id, minorUnits, currency)));
 
     }
 
     @PutMapping ("/deposit/{id}/{amount}")
-    public ResponseEntity<AccountDto> depositMoney(@PathVariable String id, @PathVariable Double amount) {
-        return ResponseEntity.ok(accountService.depositMoney(id, amount));
+    public ResponseEntity<AccountDto> depositMoney(@PathVariable String id, @PathVariable BigDecimal amount,
+                                                   @RequestParam(required = false) Currency currency,
+                                                   @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        long minorUnits = positiveMinorUnits(amount);
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(deposit(id, minorUnits, currency));
+        }
+        return ResponseEntity.ok(idempotencyStore.execute(idempotencyKey, "deposit:" + id + ":" + minorUnits + ":" + currency,
+                () -> deposit(id, minorUnits, currency)));
+    }
+
+    /**
+     * Returns once every deposit accepted so far is committed; a no-op unless write-behind is enabled.
+     */
+    @PostMapping("/deposits/flush")
+    public ResponseEntity<Void> flushDeposits() {
+        accountService.flushDeposits();
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/transfer")
+    public ResponseEntity<TransferResultDto> transfer(@RequestBody TransferRequest transferRequest) {
+        if (commandProcessor.isEnabled()) {
+            return ResponseEntity.ok(await(commandProcessor.transfer(transferRequest)));
+        }
+        return ResponseEntity.ok(accountService.transfer(transferRequest));
+    }
+
+    @PostMapping("/transactions/batch")
+    public ResponseEntity<List<TransactionResultDto>> applyTransactions(@RequestBody List<TransactionRequest> transactions) {
+        return ResponseEntity.ok(accountService.applyTransactions(transactions));
+    }
+
+    /**
+     * Rejects zero, negative and inexact amounts before they are dispatched, so every path answers them
+     * with a 400, as {@code MoneyJson} does for amounts in a body.
+     */
+    private static long positiveMinorUnits(BigDecimal amount) {
+        long minorUnits;
+        try {
+            minorUnits = Money.fromDecimal(amount);
+        } catch (ArithmeticException e) {
+            throw new InvalidTransactionException("Not an exact money amount: " + amount);
+        }
+        if (minorUnits <= 0) {
+            throw new InvalidTransactionException("The amount must be positive");
+        }
+        return minorUnits;
+    }
+
+    private AccountDto withdraw(String id, long amount, Currency currency) {
+        if (commandProcessor.isEnabled()) {
+            return await(currency == null ? commandProcessor.withdraw(id, amount) : commandProcessor.withdraw(id, amount, currency));
+        }
+        return currency == null ? accountService.withdrawMoney(id, amount) : accountService.withdrawMoney(id, amount, currency);
+    }
+
+    private AccountDto deposit(String id, long amount, Currency currency) {
+        if (commandProcessor.isEnabled()) {
+            return await(currency == null ? commandProcessor.deposit(id, amount) : commandProcessor.deposit(id, amount, currency));
+        }
+        if (currency != null) {
+            return accountService.depositMoney(id, amount, currency);
+        }
+        return accountService.isWriteBehindEnabled() ? accountService.bufferDeposit(id, amount) : accountService.depositMoney(id, amount);
+    }
+
+    /**
+     * Waits for a command run on its account's shard and rethrows what it failed with, so the usual
+     * exception handling applies.
+     */
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the account shard", e);
+        }
     }
 
 }
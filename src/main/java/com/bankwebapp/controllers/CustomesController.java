@@ -3,21 +3,39 @@ package com.bankwebapp.controllers;
 
 import com.bankwebapp.dtos.CreateCustomerRequest;
 import com.bankwebapp.dtos.CustomerDto;
+import com.bankwebapp.dtos.CustomerWithAccountsDto;
+import com.bankwebapp.dtos.ImportResultDto;
+import com.bankwebapp.dtos.KeysetPageDto;
+import com.bankwebapp.dtos.PatchCustomerRequest;
 import com.bankwebapp.dtos.UpdateCustomerRequest;
+import com.bankwebapp.services.CustomerImportService;
 import com.bankwebapp.services.CustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
 @RequestMapping ("/customer")
 public class CustomesController {
 
+    // Same columns as the CSV import takes, so an export can be imported again
+    private static final List<String> CSV_HEADER = List.of("id", "name", "dateofBirth", "addres", "city");
+
     private final CustomerService customerService;
+    private final ObjectMapper objectMapper;
+    private final CustomerImportService customerImportService;
 
-    public CustomesController(CustomerService customerSercive) {
+    public CustomesController(CustomerService customerSercive, ObjectMapper objectMapper, CustomerImportService customerImportService) {
         this.customerService = customerSercive;
+        this.objectMapper = objectMapper;
+        this.customerImportService = customerImportService;
     }
 
 
@@ -34,11 +52,62 @@ public class CustomesController {
     return ResponseEntity.ok(customerService.createCustomer(customerRequest));
     }
 
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<ImportResultDto> importCustomersNdjson(InputStream body){
+        return ResponseEntity.ok(customerImportService.importNdjson(body));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportResultDto> importCustomersCsv(InputStream body){
+        return ResponseEntity.ok(customerImportService.importCsv(body));
+    }
+
     @GetMapping
     public ResponseEntity <List<CustomerDto>> getAllCustomers(){
         return ResponseEntity.ok( customerService.getAllCustomers());
     }
 
+    @GetMapping(params = {"limit", "!include"})
+    public ResponseEntity <KeysetPageDto<CustomerDto>> getCustomersPage(@RequestParam(required = false) String after, @RequestParam int limit){
+        return ResponseEntity.ok(customerService.getCustomersPage(after, limit));
+    }
+
+    @GetMapping(params = "include=accounts")
+    public ResponseEntity <KeysetPageDto<CustomerWithAccountsDto>> getCustomersPageWithAccounts(@RequestParam(required = false) String after,
+                                                                                           @RequestParam(defaultValue = "100") int limit){
+        return ResponseEntity.ok(customerService.getCustomersPageWithAccounts(after, limit));
+    }
+
+    /**
+     * Customers whose name or address contains every word of {@code q}, best matches first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<CustomerDto>> searchCustomers(@RequestParam String q, @RequestParam(defaultValue = "20") int limit){
+        return ResponseEntity.ok(customerService.searchCustomers(q, limit));
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamCustomers(){
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonArrayStreams.jsonArray(objectMapper, customerService::streamAllCustomers));
+    }
+
+    /**
+     * Every customer, streamed from a database cursor as NDJSON or CSV; gzipped when the client accepts it.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(@RequestParam(defaultValue = "NDJSON") ExportStreams.Format format,
+                                                                 @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+        boolean gzip = ExportStreams.acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = format == ExportStreams.Format.CSV
+                ? ExportStreams.<CustomerDto>csv(CSV_HEADER,
+                        customer -> Arrays.asList(customer.getId(), customer.getName(), customer.getDateofBirth(), customer.getAddres(), customer.getCity()),
+                        customerService::streamAllCustomers, gzip)
+                : ExportStreams.<CustomerDto>ndjson(objectMapper, customerService::streamAllCustomers, gzip);
+        return ExportStreams.response("customers", format, gzip, body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity <CustomerDto> getCustomer(@PathVariable String id){
 
@@ -47,6 +116,11 @@ public class CustomesController {
 
     }
 
+    @GetMapping("/{id}/accounts")
+    public ResponseEntity<CustomerWithAccountsDto> getCustomerWithAccounts(@PathVariable String id){
+        return ResponseEntity.ok(customerService.getCustomerWithAccounts(id));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity deleteCustomer(@PathVariable String id){
         customerService.deleteCustomerById(id);
@@ -59,4 +133,9 @@ public class CustomesController {
 
         return ResponseEntity.ok(customerService.updateCustomer(id,updateCustomerRequest));
     }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<CustomerDto> patchCustomer(@RequestBody PatchCustomerRequest patchCustomerRequest, @PathVariable String id){
+        return ResponseEntity.ok(customerService.patchCustomer(id, patchCustomerRequest));
+    }
 }
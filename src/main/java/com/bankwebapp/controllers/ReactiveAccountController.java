@@ -0,0 +1,53 @@
+package com.bankwebapp.controllers;
+
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.KeysetPageDto;
+import com.bankwebapp.services.ReactiveAccountService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The account reads of {@link AccountController} as non-blocking calls: the request thread is handed back
+ * as soon as the query is started, and the response is completed when it emits. Withdrawals, deposits and
+ * transfers stay on {@code /account}: they lock rows and update the ledger, statistics and cache in one JPA
+ * transaction, which would block the event loop. A read by id includes deposits that {@code /account}
+ * has buffered but not yet written.
+ */
+@RestController
+@RequestMapping("/rx/account")
+public class ReactiveAccountController {
+
+    private static final String DEFAULT_PAGE_SIZE = "100";
+
+    private final ReactiveAccountService accountService;
+
+    public ReactiveAccountController(ReactiveAccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    /**
+     * Every account as NDJSON, written as it is read; the reads follow the pace of the client.
+     */
+    @GetMapping(params = {"!limit", "!customerId"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<AccountDto> getAccounts(){
+        return accountService.streamAllAccounts();
+    }
+
+    @GetMapping(params = {"limit", "!customerId"})
+    public Mono<KeysetPageDto<AccountDto>> getAccountsPage(@RequestParam(required = false) String after, @RequestParam int limit){
+        return accountService.getAccountsPage(after, limit);
+    }
+
+    @GetMapping(params = "customerId")
+    public Mono<KeysetPageDto<AccountDto>> getAccountsByCustomerId(@RequestParam String customerId, @RequestParam(required = false) String after,
+                                                                  @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit){
+        return accountService.getAccountsByCustomerId(customerId, after, limit);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<AccountDto> getAccount(@PathVariable String id){
+        return accountService.getAccountById(id);
+    }
+}
@@ -0,0 +1,54 @@
+package com.bankwebapp.controllers;
+
+import com.bankwebapp.dtos.CreateCustomerRequest;
+import com.bankwebapp.dtos.CustomerDto;
+import com.bankwebapp.dtos.CustomerWithAccountsDto;
+import com.bankwebapp.dtos.KeysetPageDto;
+import com.bankwebapp.services.ReactiveCustomerService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The customer reads and creation of {@link CustomesController} as non-blocking calls, see
+ * {@link ReactiveAccountController}.
+ */
+@RestController
+@RequestMapping("/rx/customer")
+public class ReactiveCustomerController {
+
+    private final ReactiveCustomerService customerService;
+
+    public ReactiveCustomerController(ReactiveCustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    @PostMapping("/post")
+    public Mono<CustomerDto> createCustomer(@RequestBody CreateCustomerRequest customerRequest){
+        return customerService.createCustomer(customerRequest);
+    }
+
+    /**
+     * Every customer as NDJSON, written as it is read; the reads follow the pace of the client.
+     */
+    @GetMapping(params = "!limit", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CustomerDto> getAllCustomers(){
+        return customerService.streamAllCustomers();
+    }
+
+    @GetMapping(params = "limit")
+    public Mono<KeysetPageDto<CustomerDto>> getCustomersPage(@RequestParam(required = false) String after, @RequestParam int limit){
+        return customerService.getCustomersPage(after, limit);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<CustomerDto> getCustomer(@PathVariable String id){
+        return customerService.getCustomerById(id);
+    }
+
+    @GetMapping("/{id}/accounts")
+    public Mono<CustomerWithAccountsDto> getCustomerWithAccounts(@PathVariable String id){
+        return customerService.getCustomerWithAccounts(id);
+    }
+}
@@ -1,5 +1,7 @@
 package com.bankwebapp.dtos;
 import com.bankwebapp.models.Currency;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.*;
 
 
@@ -13,7 +15,9 @@ public class AccountDto {
 
     private String id;
     private String customerId;
-    private double balance;
+    @JsonSerialize(using = MoneyJson.Serializer.class)
+    @JsonDeserialize(using = MoneyJson.Deserializer.class)
+    private long balance;
     private Currency currency;
 
 
@@ -0,0 +1,20 @@
+package com.bankwebapp.dtos;
+
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import lombok.*;
+
+import java.util.Map;
+
+@EqualsAndHashCode
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AccountStatsDto {
+
+    private Map<City, CityStatsDto> cities;
+    private Map<Currency, CurrencyStatsDto> currencies;
+
+}
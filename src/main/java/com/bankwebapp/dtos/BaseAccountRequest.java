@@ -3,6 +3,8 @@ package com.bankwebapp.dtos;
 
 import com.bankwebapp.models.City;
 import com.bankwebapp.models.Currency;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.*;
 
 
@@ -15,7 +17,9 @@ public class BaseAccountRequest {
 
     private String id;
     private String customerId;
-    private double balance;
+    @JsonSerialize(using = MoneyJson.Serializer.class)
+    @JsonDeserialize(using = MoneyJson.Deserializer.class)
+    private long balance;
     private City city;
     private Currency currency;
 
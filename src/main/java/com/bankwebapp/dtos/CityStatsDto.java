@@ -0,0 +1,26 @@
+package com.bankwebapp.dtos;
+
+import com.bankwebapp.models.Currency;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.*;
+
+import java.util.Map;
+
+/**
+ * Accounts in one city. Balances are kept per currency, since amounts in different currencies do not add up.
+ */
+@EqualsAndHashCode
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CityStatsDto {
+
+    private long accounts;
+    @JsonSerialize(contentUsing = MoneyJson.Serializer.class)
+    @JsonDeserialize(contentUsing = MoneyJson.Deserializer.class)
+    private Map<Currency, Long> balances;
+
+}
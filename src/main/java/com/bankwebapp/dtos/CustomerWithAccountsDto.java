@@ -0,0 +1,24 @@
+package com.bankwebapp.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * A customer together with all of its accounts, ordered by account id.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CustomerWithAccountsDto {
+
+    private String id;
+    private String name;
+    private Integer dateofBirth;
+    private String addres;
+    private CityDto city;
+    private List<AccountDto> accounts;
+
+}
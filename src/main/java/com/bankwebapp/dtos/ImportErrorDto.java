@@ -0,0 +1,16 @@
+package com.bankwebapp.dtos;
+
+import lombok.*;
+
+@EqualsAndHashCode
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportErrorDto {
+
+    private long line;
+    private String message;
+
+}
@@ -0,0 +1,23 @@
+package com.bankwebapp.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code errors} lists the first rejected lines only; {@code rejected} counts all of them.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportResultDto {
+
+    private long imported;
+    private long rejected;
+    private long durationMillis;
+    private double rowsPerSecond;
+    private List<ImportErrorDto> errors;
+
+}
@@ -0,0 +1,31 @@
+package com.bankwebapp.dtos;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@code nextAfter} back as the {@code after}
+ * parameter to fetch the following page; it is null once the listing is exhausted.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@EqualsAndHashCode
+public class KeysetPageDto<T> {
+
+    private List<T> items;
+    private String nextAfter;
+
+    /**
+     * Builds a page from at most {@code limit} items ordered by key; a full page means there may be more.
+     */
+    public static <T> KeysetPageDto<T> of(List<T> items, int limit, Function<T, String> keyOf) {
+        String nextAfter = items.size() < limit ? null : keyOf.apply(items.get(items.size() - 1));
+        return new KeysetPageDto<>(items, nextAfter);
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.bankwebapp.dtos;
+
+import com.bankwebapp.models.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+import java.io.IOException;
+
+/**
+ * Keeps the wire format of money fields decimal ({@code 12.50}) while the fields themselves hold
+ * minor units as a {@code long}.
+ */
+public final class MoneyJson {
+
+    private MoneyJson() {
+    }
+
+    public static class Serializer extends JsonSerializer<Long> {
+
+        @Override
+        public void serialize(Long minorUnits, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(Money.format(minorUnits));
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Long> {
+
+        @Override
+        public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            try {
+                if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    return Money.fromDecimal(parser.getDecimalValue());
+                }
+                if (token == JsonToken.VALUE_STRING) {
+                    return Money.parse(parser.getText().trim());
+                }
+            } catch (ArithmeticException | NumberFormatException e) {
+                throw InvalidFormatException.from(parser, "Not an exact money amount", parser.getText(), Long.class);
+            }
+            return (Long) context.handleUnexpectedToken(Long.class, parser);
+        }
+    }
+
+}
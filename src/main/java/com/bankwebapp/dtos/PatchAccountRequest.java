@@ -0,0 +1,22 @@
+package com.bankwebapp.dtos;
+
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import lombok.*;
+
+/**
+ * Fields to change on an account; absent or null fields keep their value. The balance is only changed
+ * through deposits, withdrawals and transfers, so it cannot be patched.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PatchAccountRequest {
+
+    private String customerId;
+    private City city;
+    private Currency currency;
+
+}
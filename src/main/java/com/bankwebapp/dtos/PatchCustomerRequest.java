@@ -0,0 +1,20 @@
+package com.bankwebapp.dtos;
+
+import lombok.*;
+
+/**
+ * Fields to change on a customer; absent or null fields keep their value.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PatchCustomerRequest {
+
+    private String name;
+    private Integer dateofBirth;
+    private String addres;
+    private CityDto city;
+
+}
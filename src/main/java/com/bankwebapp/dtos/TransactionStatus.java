@@ -0,0 +1,6 @@
+package com.bankwebapp.dtos;
+
+public enum TransactionStatus {
+
+    OK,INSUFFICIENT_FUNDS,NOT_FOUND
+}
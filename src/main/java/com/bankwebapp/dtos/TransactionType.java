@@ -0,0 +1,6 @@
+package com.bankwebapp.dtos;
+
+public enum TransactionType {
+
+    DEPOSIT,WITHDRAW
+}
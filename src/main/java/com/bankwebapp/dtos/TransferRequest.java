@@ -0,0 +1,27 @@
+package com.bankwebapp.dtos;
+
+import com.bankwebapp.models.Currency;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferRequest {
+
+    private String fromAccountId;
+    private String toAccountId;
+    @JsonSerialize(using = MoneyJson.Serializer.class)
+    @JsonDeserialize(using = MoneyJson.Deserializer.class)
+    private long amount;
+    // Currency of the amount; the source account's currency when absent
+    private Currency currency;
+
+    public TransferRequest(String fromAccountId, String toAccountId, long amount) {
+        this(fromAccountId, toAccountId, amount, null);
+    }
+
+}
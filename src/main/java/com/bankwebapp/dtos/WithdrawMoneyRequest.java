@@ -1,5 +1,7 @@
 package com.bankwebapp.dtos;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.*;
 
 @Getter
@@ -12,6 +14,8 @@ import lombok.*;
 public class WithdrawMoneyRequest {
 
     String id;
-    Double amount;
+    @JsonSerialize(using = MoneyJson.Serializer.class)
+    @JsonDeserialize(using = MoneyJson.Deserializer.class)
+    long amount;
 
 }
@@ -0,0 +1,68 @@
+package com.bankwebapp.metrics;
+
+/**
+ * Every timed service method. The ordinal indexes the pre-registered timer in {@link ServiceMetrics}.
+ */
+public enum ServiceOperation {
+
+    ACCOUNT_CREATE("account", "createAccount"),
+    ACCOUNT_UPDATE("account", "updateAccount"),
+    ACCOUNT_PATCH("account", "patchAccount"),
+    ACCOUNT_GET_ALL("account", "getAllAccounts"),
+    ACCOUNT_GET_PAGE("account", "getAccountsPage"),
+    ACCOUNT_GET_BY_CUSTOMER_ID("account", "getAccountsByCustomerId"),
+    ACCOUNT_GET_BY_CITY("account", "getAccountsByCity"),
+    ACCOUNT_GET_BY_CURRENCY("account", "getAccountsByCurrency"),
+    ACCOUNT_STREAM_ALL("account", "streamAllAccounts"),
+    ACCOUNT_GET_BY_ID("account", "getAccountById"),
+    ACCOUNT_DELETE("account", "deleteAccountById"),
+    ACCOUNT_WITHDRAW("account", "withdrawMoney"),
+    ACCOUNT_DEPOSIT("account", "depositMoney"),
+    ACCOUNT_DEPOSIT_BUFFERED("account", "bufferDeposit"),
+    ACCOUNT_FLUSH_DEPOSITS("account", "flushDeposits"),
+    ACCOUNT_APPLY_TRANSACTIONS("account", "applyTransactions"),
+    ACCOUNT_APPLY_OPERATIONS("account", "applyOperations"),
+    ACCOUNT_TRANSFER("account", "transfer"),
+    ACCOUNT_GET_STATS("account", "getStatistics"),
+
+    CUSTOMER_CREATE("customer", "createCustomer"),
+    CUSTOMER_GET_ALL("customer", "getAllCustomers"),
+    CUSTOMER_GET_PAGE("customer", "getCustomersPage"),
+    CUSTOMER_GET_PAGE_WITH_ACCOUNTS("customer", "getCustomersPageWithAccounts"),
+    CUSTOMER_SEARCH("customer", "searchCustomers"),
+    CUSTOMER_STREAM_ALL("customer", "streamAllCustomers"),
+    CUSTOMER_GET_BY_ID("customer", "getCustomerById"),
+    CUSTOMER_GET_WITH_ACCOUNTS("customer", "getCustomerWithAccounts"),
+    CUSTOMER_EXISTS("customer", "existsCustomerById"),
+    CUSTOMER_DELETE("customer", "deleteCustomerById"),
+    CUSTOMER_UPDATE("customer", "updateCustomer"),
+    CUSTOMER_PATCH("customer", "patchCustomer"),
+    CUSTOMER_IMPORT("customer", "importCustomers"),
+
+    ACCOUNT_RX_GET_BY_ID("account-rx", "getAccountById"),
+    ACCOUNT_RX_GET_PAGE("account-rx", "getAccountsPage"),
+    ACCOUNT_RX_GET_BY_CUSTOMER_ID("account-rx", "getAccountsByCustomerId"),
+    ACCOUNT_RX_STREAM_ALL("account-rx", "streamAllAccounts"),
+
+    CUSTOMER_RX_CREATE("customer-rx", "createCustomer"),
+    CUSTOMER_RX_GET_BY_ID("customer-rx", "getCustomerById"),
+    CUSTOMER_RX_GET_WITH_ACCOUNTS("customer-rx", "getCustomerWithAccounts"),
+    CUSTOMER_RX_GET_PAGE("customer-rx", "getCustomersPage"),
+    CUSTOMER_RX_STREAM_ALL("customer-rx", "streamAllCustomers");
+
+    private final String service;
+    private final String method;
+
+    ServiceOperation(String service, String method) {
+        this.service = service;
+        this.method = method;
+    }
+
+    public String service() {
+        return service;
+    }
+
+    public String method() {
+        return method;
+    }
+}
@@ -1,11 +1,20 @@
 package com.bankwebapp.models;
 
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.*;
 
 @Entity
+// Each filter index ends with the id, so keyset pages (filter = ? and id > ? order by id) are plain range scans
+@Table(indexes = {
+        @Index(name = "idx_account_customer_id", columnList = "customer_id, id"),
+        @Index(name = "idx_account_city", columnList = "city, id"),
+        @Index(name = "idx_account_currency", columnList = "currency, id")
+})
 @Builder
 @Getter
 @Setter
@@ -15,8 +24,10 @@ import lombok.*;
 public class Account {
     @Id
     private String id;
+    @Column(name = "customer_id")
     private String customerId;
-    private double balance;
+    /** Minor units of {@link #currency}, see {@link Money}. */
+    private long balance;
     private City city;
     private Currency currency;
 
@@ -0,0 +1,30 @@
+package com.bankwebapp.models;
+
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * The balance of an account after applying every ledger entry up to and including {@code lastEntryId}.
+ */
+@Entity
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSnapshot {
+
+    @Id
+    @Column(name = "account_id")
+    private String accountId;
+    private long balance;
+    @Column(name = "last_entry_id")
+    private long lastEntryId;
+    @Column(name = "taken_at")
+    private Instant takenAt;
+}
@@ -0,0 +1,43 @@
+package com.bankwebapp.models;
+
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * One balance change of an account. Entries are only ever inserted; the sequence orders them.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_ledger_entry_account_id", columnList = "account_id, id"),
+        @Index(name = "idx_ledger_entry_created_at", columnList = "created_at")
+})
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntry {
+
+    // Ids are handed out in blocks of 50, so inserts need no sequence round trip each and can be batched
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_seq")
+    @SequenceGenerator(name = "ledger_entry_seq", allocationSize = 50)
+    private Long id;
+    @Column(name = "account_id", nullable = false, updatable = false)
+    private String accountId;
+    /** Signed change in minor units, see {@link Money}. */
+    @Column(nullable = false, updatable = false)
+    private long delta;
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,69 @@
+package com.bankwebapp.models;
+
+import java.math.BigDecimal;
+
+/**
+ * Exact fixed-point money arithmetic on primitive {@code long} amounts of minor units (cents).
+ * <p>
+ * Every supported {@link Currency} has two fraction digits, so one scale covers them all. Conversions
+ * to and from decimals only happen at the edges (JSON, path variables); the arithmetic in between never
+ * allocates and fails loudly instead of overflowing.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private static final long MINOR_UNITS_PER_MAJOR = 100;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a decimal amount to minor units.
+     *
+     * @throws ArithmeticException if the amount has more fraction digits than {@link #SCALE} or does not fit a long
+     */
+    public static long fromDecimal(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Parses a plain or scientific decimal string such as {@code "12.50"} to minor units.
+     *
+     * @throws NumberFormatException if the text is not a number
+     * @throws ArithmeticException if the amount cannot be represented exactly
+     */
+    public static long parse(String amount) {
+        return fromDecimal(new BigDecimal(amount));
+    }
+
+    /**
+     * Formats minor units as a plain decimal string with exactly {@link #SCALE} fraction digits.
+     */
+    public static String format(long minorUnits) {
+        long major = minorUnits / MINOR_UNITS_PER_MAJOR;
+        long fraction = Math.abs(minorUnits % MINOR_UNITS_PER_MAJOR);
+        StringBuilder text = new StringBuilder(24);
+        if (minorUnits < 0 && major == 0) {
+            text.append('-');
+        }
+        text.append(major).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        return text.append(fraction).toString();
+    }
+
+    public static long add(long minorUnits, long amount) {
+        return Math.addExact(minorUnits, amount);
+    }
+
+    public static long subtract(long minorUnits, long amount) {
+        return Math.subtractExact(minorUnits, amount);
+    }
+
+}
@@ -1,9 +1,126 @@
 package com.bankwebapp.repositories;
 
 import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface AccountRepository extends JpaRepository<Account, String> {
 
+    List<Account> findByIdGreaterThanOrderByIdAsc(String after, Limit limit);
+
+    /*
+     * The filters below order by the full (filter, id) index although the filter column is constant,
+     * because H2 only reads the index in order, and stops after the limit, when ORDER BY names its prefix.
+     */
+    List<Account> findByCustomerIdAndIdGreaterThanOrderByCustomerIdAscIdAsc(String customerId, String after, Limit limit);
+
+    List<Account> findByCityAndIdGreaterThanOrderByCityAscIdAsc(City city, String after, Limit limit);
+
+    List<Account> findByCurrencyAndIdGreaterThanOrderByCurrencyAscIdAsc(Currency currency, String after, Limit limit);
+
+    List<Account> findByCustomerIdOrderByCustomerIdAscIdAsc(String customerId);
+
+    /**
+     * Every account of the given customers in one query, grouped by customer.
+     */
+    List<Account> findByCustomerIdInOrderByCustomerIdAscIdAsc(Collection<String> customerIds);
+
+    /**
+     * Loads and row-locks the given accounts in id order, so concurrent callers always lock in the same order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Account> findByIdInOrderByIdAsc(Collection<String> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Account> findLockedById(String id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Account> streamAllByOrderByIdAsc();
+
+    /**
+     * Applies the non-null fields in one statement and returns the row as it was before, so callers can
+     * tell what moved. Nothing is updated when a new customer id does not exist, or when a new currency
+     * is given for an account whose balance is not zero.
+     */
+    default Optional<Account> patchReturningPrevious(String id, String customerId, City city, Currency currency) {
+        return patchOrdinalsReturningPrevious(id, customerId, city == null ? null : city.ordinal(), currency == null ? null : currency.ordinal());
+    }
+
+    @Query(value = "select * from old table (update account set "
+            + "customer_id = coalesce(cast(:customerId as varchar), customer_id), "
+            + "city = coalesce(cast(:city as tinyint), city), "
+            + "currency = coalesce(cast(:currency as tinyint), currency) "
+            + "where id = :id and (cast(:customerId as varchar) is null or exists (select 1 from customer c where c.id = :customerId)) "
+            + "and (cast(:currency as tinyint) is null or currency = cast(:currency as tinyint) or balance = 0))",
+            nativeQuery = true)
+    Optional<Account> patchOrdinalsReturningPrevious(@Param("id") String id, @Param("customerId") String customerId,
+                                                     @Param("city") Integer city, @Param("currency") Integer currency);
+
+    /**
+     * Deletes every account of the customer in one statement and returns the deleted rows.
+     */
+    @Query(value = "select * from old table (delete from account where customer_id = :customerId)", nativeQuery = true)
+    List<Account> deleteAllByCustomerIdReturningDeleted(@Param("customerId") String customerId);
+
+    /**
+     * Deletes those of the given accounts whose customer no longer exists and returns the deleted rows.
+     */
+    @Query(value = "select * from old table (delete from account a where a.id in (:ids) "
+            + "and not exists (select 1 from customer c where c.id = a.customer_id))", nativeQuery = true)
+    List<Account> deleteOrphansReturningDeleted(@Param("ids") Collection<String> ids);
+
+    @Query("select a.id from Account a where a.id > :after order by a.id")
+    List<String> findIdsAfter(@Param("after") String after, Limit limit);
+
+    @Query("select a.city as city, a.currency as currency, count(a) as accounts, sum(a.balance) as balance from Account a group by a.city, a.currency")
+    List<AccountTotals> sumBalancesByCityAndCurrency();
+
+    /**
+     * Debits the account in a single conditional statement, so concurrent withdrawals can never
+     * overdraw the balance or lose each other's updates.
+     *
+     * @return the number of updated rows, 0 when the account is missing or the funds are insufficient
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Account a set a.balance = a.balance - :amount where a.id = :id and a.balance >= :amount")
+    int withdraw(@Param("id") String id, @Param("amount") long amount);
+
+    /**
+     * Credits the account in a single statement.
+     *
+     * @return the number of updated rows, 0 when the account is missing
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Account a set a.balance = a.balance + :amount where a.id = :id")
+    int deposit(@Param("id") String id, @Param("amount") long amount);
+
+    interface AccountTotals {
+
+        City getCity();
+
+        Currency getCurrency();
+
+        long getAccounts();
+
+        long getBalance();
+    }
 
 }
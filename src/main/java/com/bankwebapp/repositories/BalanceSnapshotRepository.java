@@ -0,0 +1,32 @@
+package com.bankwebapp.repositories;
+
+import com.bankwebapp.models.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, String> {
+
+    /**
+     * The last ledger entry covered by the snapshots. Every snapshot run covers all accounts up to the
+     * same entry, so this is where the next run starts.
+     */
+    @Query("select coalesce(max(s.lastEntryId), 0) from BalanceSnapshot s")
+    long findWatermark();
+
+    /**
+     * Folds the ledger entries in {@code (from, to]} into the snapshots with a single set-based statement.
+     *
+     * @return the number of snapshots written
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            merge into balance_snapshot s
+            using (select account_id, sum(delta) as delta from ledger_entry where id > :from and id <= :to group by account_id) d
+            on s.account_id = d.account_id
+            when matched then update set balance = s.balance + d.delta, last_entry_id = :to, taken_at = current_timestamp
+            when not matched then insert (account_id, balance, last_entry_id, taken_at) values (d.account_id, d.delta, :to, current_timestamp)
+            """, nativeQuery = true)
+    int advance(@Param("from") long from, @Param("to") long to);
+}
@@ -0,0 +1,17 @@
+package com.bankwebapp.repositories;
+
+import com.bankwebapp.models.Customer;
+
+import java.util.List;
+import java.util.Set;
+
+public interface CustomerBatchRepository {
+
+    /**
+     * Inserts the customers whose id is not taken yet in one transaction, as JDBC batches, and leaves the
+     * persistence context empty afterwards. The ids must be distinct.
+     *
+     * @return the ids that already existed; those customers were skipped
+     */
+    Set<String> insertNew(List<Customer> customers);
+}
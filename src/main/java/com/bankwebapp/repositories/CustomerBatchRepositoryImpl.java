@@ -0,0 +1,42 @@
+package com.bankwebapp.repositories;
+
+import com.bankwebapp.models.Customer;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+class CustomerBatchRepositoryImpl implements CustomerBatchRepository {
+
+    private final EntityManager entityManager;
+
+    CustomerBatchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Uses {@code persist} rather than {@code save}: with an assigned id, {@code save} takes every customer
+     * for an existing one and merges it, which costs a select per row. One query checks the whole batch instead.
+     */
+    @Override
+    @Transactional
+    public Set<String> insertNew(List<Customer> customers) {
+        if (customers.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> existing = new HashSet<>(entityManager.createQuery("select c.id from Customer c where c.id in :ids", String.class)
+                .setParameter("ids", customers.stream().map(Customer::getId).collect(Collectors.toList()))
+                .getResultList());
+        for (Customer customer : customers) {
+            if (!existing.contains(customer.getId())) {
+                entityManager.persist(customer);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return existing;
+    }
+}
@@ -1,7 +1,43 @@
 package com.bankwebapp.repositories;
 
+import com.bankwebapp.models.City;
 import com.bankwebapp.models.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface CustomerRepository extends JpaRepository<Customer,String> {
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface CustomerRepository extends JpaRepository<Customer,String>, CustomerBatchRepository {
+
+    List<Customer> findByIdGreaterThanOrderByIdAsc(String after, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Customer> streamAllByOrderByIdAsc();
+
+    /**
+     * Applies the non-null fields in one statement and returns the updated row.
+     */
+    default Optional<Customer> patch(String id, String name, Integer dateofBirth, String addres, City city) {
+        return patchOrdinals(id, name, dateofBirth, addres, city == null ? null : city.ordinal());
+    }
+
+    @Query(value = "select * from final table (update customer set "
+            + "name = coalesce(cast(:name as varchar), name), "
+            + "dateof_birth = coalesce(cast(:dateofBirth as integer), dateof_birth), "
+            + "addres = coalesce(cast(:addres as varchar), addres), "
+            + "city = coalesce(cast(:city as tinyint), city) "
+            + "where id = :id)",
+            nativeQuery = true)
+    Optional<Customer> patchOrdinals(@Param("id") String id, @Param("name") String name, @Param("dateofBirth") Integer dateofBirth,
+                                     @Param("addres") String addres, @Param("city") Integer city);
 }
@@ -0,0 +1,23 @@
+package com.bankwebapp.repositories;
+
+import com.bankwebapp.models.LedgerEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    boolean existsByAccountId(String accountId);
+
+    List<LedgerEntry> findByAccountIdAndIdGreaterThanOrderByAccountIdAscIdAsc(String accountId, long after, Limit limit);
+
+    @Query("select coalesce(sum(e.delta), 0) from LedgerEntry e where e.accountId = :accountId and e.id > :after")
+    long sumDeltasAfter(@Param("accountId") String accountId, @Param("after") long after);
+
+    @Query("select coalesce(max(e.id), 0) from LedgerEntry e where e.createdAt <= :cutoff")
+    long findLastIdCreatedUpTo(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,47 @@
+package com.bankwebapp.repositories;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * R2DBC access for the reactive {@code /rx} API. The connection factory opens the database the JPA
+ * {@link DataSource} points at, so both APIs read and write the same tables, including an in-memory
+ * database with a generated name.
+ */
+@Configuration
+public class R2dbcConfig {
+
+    private static final String H2_PREFIX = "jdbc:h2:";
+
+    @Bean
+    public DatabaseClient databaseClient(DataSource dataSource, DataSourceProperties dataSourceProperties) throws SQLException {
+        return DatabaseClient.create(connectionFactory(dataSource, dataSourceProperties));
+    }
+
+    // Deliberately not a bean: the JDBC auto-configuration backs off as soon as a ConnectionFactory bean exists
+    private static ConnectionFactory connectionFactory(DataSource dataSource, DataSourceProperties dataSourceProperties) throws SQLException {
+        String url;
+        String username;
+        try (Connection connection = dataSource.getConnection()) {
+            url = connection.getMetaData().getURL();
+            username = connection.getMetaData().getUserName();
+        }
+        if (!url.startsWith(H2_PREFIX)) {
+            throw new IllegalStateException("The reactive API needs an H2 database, the data source is " + url);
+        }
+        return new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .url(url.substring(H2_PREFIX.length()))
+                .username(username)
+                .password(dataSourceProperties.determinePassword())
+                .build());
+    }
+}
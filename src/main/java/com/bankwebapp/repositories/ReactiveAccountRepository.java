@@ -0,0 +1,83 @@
+package com.bankwebapp.repositories;
+
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Account reads for the reactive {@code /rx} API, over R2DBC. H2's driver runs a statement on the thread
+ * that subscribes to it, so every query is subscribed on the bounded elastic scheduler and never ties up
+ * the request thread.
+ */
+@Repository
+public class ReactiveAccountRepository {
+
+    private static final String SELECT = "select id, customer_id, balance, city, currency from account ";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveAccountRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Account> findById(String id) {
+        return databaseClient.sql(SELECT + "where id = :id")
+                .bind("id", id)
+                .map(ReactiveAccountRepository::toAccount)
+                .one()
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Flux<Account> findByIdGreaterThanOrderByIdAsc(String after, int limit) {
+        return databaseClient.sql(SELECT + "where id > :after order by id limit :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveAccountRepository::toAccount)
+                .all()
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Flux<Account> findByCustomerIdAndIdGreaterThanOrderByIdAsc(String customerId, String after, int limit) {
+        return databaseClient.sql(SELECT + "where customer_id = :customerId and id > :after order by id limit :limit")
+                .bind("customerId", customerId)
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveAccountRepository::toAccount)
+                .all()
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Flux<Account> findByCustomerIdOrderByIdAsc(String customerId) {
+        return databaseClient.sql(SELECT + "where customer_id = :customerId order by id")
+                .bind("customerId", customerId)
+                .map(ReactiveAccountRepository::toAccount)
+                .all()
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static Account toAccount(Readable row) {
+        Integer city = ordinal(row, "city");
+        Integer currency = ordinal(row, "currency");
+        return Account.builder()
+                .id(row.get("id", String.class))
+                .customerId(row.get("customer_id", String.class))
+                .balance(row.get("balance", Long.class))
+                .city(city == null ? null : City.values()[city])
+                .currency(currency == null ? null : Currency.values()[currency])
+                .build();
+    }
+
+    /**
+     * Enum columns hold the ordinal, which the driver decodes as whatever integer type the column has.
+     */
+    static Integer ordinal(Readable row, String column) {
+        Number ordinal = (Number) row.get(column);
+        return ordinal == null ? null : ordinal.intValue();
+    }
+}
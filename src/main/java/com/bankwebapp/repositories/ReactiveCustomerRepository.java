@@ -0,0 +1,74 @@
+package com.bankwebapp.repositories;
+
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Customer;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Customer reads and writes for the reactive {@code /rx} API, over R2DBC; see {@link ReactiveAccountRepository}.
+ */
+@Repository
+public class ReactiveCustomerRepository {
+
+    private static final String SELECT = "select id, name, dateof_birth, addres, city from customer ";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveCustomerRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Inserts the customer or overwrites the one with its id, like {@code CustomerRepository.save}.
+     */
+    public Mono<Customer> save(Customer customer) {
+        DatabaseClient.GenericExecuteSpec statement = databaseClient
+                .sql("merge into customer (id, name, dateof_birth, addres, city) key (id) values (:id, :name, :dateofBirth, :addres, :city)")
+                .bind("id", customer.getId());
+        statement = bindNullable(statement, "name", customer.getName(), String.class);
+        statement = bindNullable(statement, "dateofBirth", customer.getDateofBirth(), Integer.class);
+        statement = bindNullable(statement, "addres", customer.getAddres(), String.class);
+        statement = bindNullable(statement, "city", customer.getCity() == null ? null : customer.getCity().ordinal(), Integer.class);
+        return statement.then()
+                .thenReturn(customer)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Customer> findById(String id) {
+        return databaseClient.sql(SELECT + "where id = :id")
+                .bind("id", id)
+                .map(ReactiveCustomerRepository::toCustomer)
+                .one()
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Flux<Customer> findByIdGreaterThanOrderByIdAsc(String after, int limit) {
+        return databaseClient.sql(SELECT + "where id > :after order by id limit :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveCustomerRepository::toCustomer)
+                .all()
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec statement, String name,
+                                                                      T value, Class<T> type) {
+        return value == null ? statement.bindNull(name, type) : statement.bind(name, value);
+    }
+
+    private static Customer toCustomer(Readable row) {
+        Integer city = ReactiveAccountRepository.ordinal(row, "city");
+        return Customer.builder()
+                .id(row.get("id", String.class))
+                .name(row.get("name", String.class))
+                .dateofBirth(row.get("dateof_birth", Integer.class))
+                .addres(row.get("addres", String.class))
+                .city(city == null ? null : City.values()[city])
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.cache.ReadThroughCache;
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.repositories.AccountRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk removal of accounts whose customer is gone. Each call is one DELETE that hands back the deleted
+ * rows, which are then taken out of the statistics and the account cache. Ledger entries of the deleted
+ * accounts are kept as history. Buffered deposits are flushed first, so none is left for a deleted account.
+ */
+@Service
+public class AccountCleanupService {
+
+    private final AccountRepository accountRepository;
+    private final AccountStatistics statistics;
+    private final ReadThroughCache<String, AccountDto> accountCache;
+    private final EntityManager entityManager;
+    private final DepositBuffer depositBuffer;
+
+    public AccountCleanupService(AccountRepository accountRepository, AccountStatistics statistics,
+                                 ReadThroughCache<String, AccountDto> accountCache, EntityManager entityManager,
+                                 DepositBuffer depositBuffer) {
+        this.accountRepository = accountRepository;
+        this.statistics = statistics;
+        this.accountCache = accountCache;
+        this.entityManager = entityManager;
+        this.depositBuffer = depositBuffer;
+    }
+
+    /**
+     * Deletes all accounts of the customer, in the caller's transaction when there is one.
+     *
+     * @return the number of accounts deleted
+     */
+    @Transactional
+    public int deleteAccountsOfCustomer(String customerId) {
+        depositBuffer.flush();
+        return forget(accountRepository.deleteAllByCustomerIdReturningDeleted(customerId));
+    }
+
+    /**
+     * Deletes those of the given accounts that have no customer.
+     *
+     * @return the number of accounts deleted
+     */
+    @Transactional
+    public int deleteOrphans(Collection<String> accountIds) {
+        if (accountIds.isEmpty()) {
+            return 0;
+        }
+        depositBuffer.flush();
+        return forget(accountRepository.deleteOrphansReturningDeleted(accountIds));
+    }
+
+    private int forget(List<Account> deleted) {
+        for (Account account : deleted) {
+            // The rows are already gone; keep Hibernate from treating them as live entities
+            entityManager.detach(account);
+            statistics.removed(account);
+            accountCache.evict(account.getId());
+        }
+        return deleted.size();
+    }
+}
@@ -1,119 +1,643 @@
 package com.bankwebapp.services;
 
 
+import com.bankwebapp.cache.ReadThroughCache;
 import com.bankwebapp.dtos.*;
 
+import com.bankwebapp.metrics.ServiceMetrics;
+import com.bankwebapp.metrics.ServiceOperation;
+
 import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.models.Money;
 import com.bankwebapp.repositories.AccountRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class AccountService {
+    static final int MAX_PAGE_SIZE = 1000;
+
     private final AccountRepository accountRepository;
     private final CustomerService customerService;
     private final AccountDtoConverter accountDtoConverter;
-
-    public AccountService(AccountRepository accountRepository, CustomerService customerService, AccountDtoConverter accountDtoConverter) {
+    private final EntityManager entityManager;
+    private final ReadThroughCache<String, AccountDto> accountCache;
+    private final ServiceMetrics metrics;
+    private final LedgerService ledgerService;
+    private final CurrencyConversionService currencyConversionService;
+    private final AccountStatistics statistics;
+    private final DepositBuffer depositBuffer;
+
+    public AccountService(AccountRepository accountRepository, CustomerService customerService, AccountDtoConverter accountDtoConverter, EntityManager entityManager,
+                          ReadThroughCache<String, AccountDto> accountCache, ServiceMetrics metrics, LedgerService ledgerService,
+                          CurrencyConversionService currencyConversionService, AccountStatistics statistics, DepositBuffer depositBuffer) {
         this.accountRepository = accountRepository;
         this.customerService = customerService;
         this.accountDtoConverter = accountDtoConverter;
+        this.entityManager = entityManager;
+        this.accountCache = accountCache;
+        this.metrics = metrics;
+        this.ledgerService = ledgerService;
+        this.currencyConversionService = currencyConversionService;
+        this.statistics = statistics;
+        this.depositBuffer = depositBuffer;
     }
 
 
+    /**
+     * Creates the account and records its opening balance in the ledger. An existing id is rejected rather
+     * than overwritten, since the overwritten balance would stay in the ledger and the statistics; PUT
+     * changes an existing account. So is the id of a deleted account: its ledger history is kept, and the
+     * new account would inherit it in its history and rebuilt balance.
+     */
+    @Transactional
     public AccountDto createAccount (CreateAccountRequest createAccountRequest){
-        CustomerDto customer =customerService.getCustomerById(createAccountRequest.getCustomerId());
-        if(customer.getId() == null||customer.getId().equals("")){
-            return AccountDto.builder().build();
-        }
-        Account account = Account.builder()
-                .id(createAccountRequest.getId())
-                .balance(createAccountRequest.getBalance())
-                .currency(createAccountRequest.getCurrency())
-                .customerId(createAccountRequest.getCustomerId())
-                .city(createAccountRequest.getCity())
-                .build();
+        long startedAt = metrics.start();
+        try {
+            if(!customerService.existsCustomerById(createAccountRequest.getCustomerId())){
+                return AccountDto.builder().build();
+            }
+            if (createAccountRequest.getId() != null && accountRepository.existsById(createAccountRequest.getId())) {
+                throw new AccountAlreadyExistsException("Account " + createAccountRequest.getId() + " already exists");
+            }
+            if (createAccountRequest.getId() != null && ledgerService.hasHistory(createAccountRequest.getId())) {
+                throw new AccountAlreadyExistsException("Account " + createAccountRequest.getId() + " was deleted and its ledger history is kept");
+            }
+            Account account = Account.builder()
+                    .id(createAccountRequest.getId())
+                    .balance(createAccountRequest.getBalance())
+                    .currency(createAccountRequest.getCurrency())
+                    .customerId(createAccountRequest.getCustomerId())
+                    .city(createAccountRequest.getCity())
+                    .build();
 
 
 
-        return accountDtoConverter.convert(accountRepository.save(account));
+            AccountDto accountDto = accountDtoConverter.convert(accountRepository.save(account));
+            if (account.getBalance() != 0) {
+                ledgerService.record(account.getId(), account.getBalance());
+            }
+            statistics.added(account);
+            accountCache.evict(account.getId());
+            return accountDto;
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_CREATE, startedAt);
+        }
     }
 
+    /**
+     * Replaces the account after flushing the buffered deposits, so none is added on top of the new balance
+     * or credited in a new currency.
+     *
+     * @throws CurrencyChangeNotAllowedException if a new currency is given for an account holding a balance
+     */
+    @Transactional
     public AccountDto updateAccount (String id, UpdateAccountRequest updateAccountRequest){
-        CustomerDto customer = customerService.getCustomerById(updateAccountRequest.getCustomerId());
-
-        if(customer.getId() == null){
-            return AccountDto.builder().build();}
-        Optional <Account> accountOptional = accountRepository.findById(id);
-        accountOptional.ifPresent(account -> {
-            account.setBalance(updateAccountRequest.getBalance());
-            account.setCity(updateAccountRequest.getCity());
-            account.setCurrency(updateAccountRequest.getCurrency());
-            account.setCustomerId(updateAccountRequest.getCustomerId());
+        long startedAt = metrics.start();
+        try {
+            depositBuffer.flush();
+            if(!customerService.existsCustomerById(updateAccountRequest.getCustomerId())){
+                return AccountDto.builder().build();}
+            // Locked like a withdrawal, so a balance change committed meanwhile is not overwritten or left out of the delta
+            Optional <Account> accountOptional = accountRepository.findLockedById(id);
+            accountOptional.ifPresent(account -> {
+                requireCurrencyChangeable(account, updateAccountRequest.getCurrency());
+                long delta = Money.subtract(updateAccountRequest.getBalance(), account.getBalance());
+                statistics.removed(account);
+                account.setBalance(updateAccountRequest.getBalance());
+                account.setCity(updateAccountRequest.getCity());
+                account.setCurrency(updateAccountRequest.getCurrency());
+                account.setCustomerId(updateAccountRequest.getCustomerId());
 
-            accountRepository.save(account);
-        });
-        return accountOptional.map(accountDtoConverter::convert).orElse(AccountDto.builder().build());
+                accountRepository.save(account);
+                if (delta != 0) {
+                    ledgerService.record(id, delta);
+                }
+                statistics.added(account);
+                accountCache.evict(id);
+            });
+            return accountOptional.map(accountDtoConverter::convert).orElse(AccountDto.builder().build());
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_UPDATE, startedAt);
+        }
+    }
 
+    /**
+     * Changes only the supplied fields with a single UPDATE, without loading the account first. The
+     * update also checks that a new customer exists, so nothing is changed when it does not. Buffered
+     * deposits are flushed first, so the balance checked before a currency change includes them.
+     *
+     * @throws CurrencyChangeNotAllowedException if a new currency is given for an account holding a balance
+     */
+    @Transactional
+    public AccountDto patchAccount(String id, PatchAccountRequest patchAccountRequest){
+        long startedAt = metrics.start();
+        try {
+            depositBuffer.flush();
+            Optional<Account> previous = accountRepository.patchReturningPrevious(id, patchAccountRequest.getCustomerId(),
+                    patchAccountRequest.getCity(), patchAccountRequest.getCurrency());
+            if (previous.isEmpty()) {
+                // Unknown account or customer, or a refused currency change; only the failure path pays for telling them apart
+                if (patchAccountRequest.getCurrency() != null) {
+                    accountRepository.findById(id).ifPresent(account -> requireCurrencyChangeable(account, patchAccountRequest.getCurrency()));
+                }
+                return AccountDto.builder().build();
+            }
+            // The returned row is the old state; detach it so applying the patch to it is never written back
+            Account account = previous.get();
+            entityManager.detach(account);
+            Account patched = Account.builder()
+                    .id(account.getId())
+                    .balance(account.getBalance())
+                    .customerId(Objects.requireNonNullElse(patchAccountRequest.getCustomerId(), account.getCustomerId()))
+                    .city(Objects.requireNonNullElse(patchAccountRequest.getCity(), account.getCity()))
+                    .currency(Objects.requireNonNullElse(patchAccountRequest.getCurrency(), account.getCurrency()))
+                    .build();
+            if (patched.getCity() != account.getCity() || patched.getCurrency() != account.getCurrency()) {
+                statistics.removed(account);
+                statistics.added(patched);
+            }
+            accountCache.evict(id);
+            return accountDtoConverter.convert(patched);
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_PATCH, startedAt);
+        }
+    }
 
+    public List<AccountDto> getAllAccounts(){
+        long startedAt = metrics.start();
+        try {
+            List<Account> accounts = accountRepository.findAll();
+            return accounts.stream().map(accountDtoConverter::convert).collect(Collectors.toList());
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_GET_ALL, startedAt);
+        }
+    }
 
+    public KeysetPageDto<AccountDto> getAccountsPage(String after, int limit){
+        long startedAt = metrics.start();
+        try {
+            return page(limit, pageLimit -> accountRepository.findByIdGreaterThanOrderByIdAsc(keyAfter(after), pageLimit));
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_GET_PAGE, startedAt);
+        }
     }
 
-    public List<AccountDto> getAllAccounts(){
-        List<Account> accounts = accountRepository.findAll();
-        return accounts.stream().map(accountDtoConverter::convert).collect(Collectors.toList());
+    public KeysetPageDto<AccountDto> getAccountsByCustomerId(String customerId, String after, int limit){
+        long startedAt = metrics.start();
+        try {
+            return page(limit, pageLimit -> accountRepository.findByCustomerIdAndIdGreaterThanOrderByCustomerIdAscIdAsc(customerId, keyAfter(after), pageLimit));
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_GET_BY_CUSTOMER_ID, startedAt);
+        }
+    }
 
+    public KeysetPageDto<AccountDto> getAccountsByCity(City city, String after, int limit){
+        long startedAt = metrics.start();
+        try {
+            return page(limit, pageLimit -> accountRepository.findByCityAndIdGreaterThanOrderByCityAscIdAsc(city, keyAfter(after), pageLimit));
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_GET_BY_CITY, startedAt);
+        }
+    }
 
+    public KeysetPageDto<AccountDto> getAccountsByCurrency(Currency currency, String after, int limit){
+        long startedAt = metrics.start();
+        try {
+            return page(limit, pageLimit -> accountRepository.findByCurrencyAndIdGreaterThanOrderByCurrencyAscIdAsc(currency, keyAfter(after), pageLimit));
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_GET_BY_CURRENCY, startedAt);
+        }
+    }
 
+    /**
+     * Feeds every account, in id order, to the consumer while holding at most one fetch batch in memory.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllAccounts(Consumer<AccountDto> consumer){
+        long startedAt = metrics.start();
+        try {
+            try (Stream<Account> accounts = accountRepository.streamAllByOrderByIdAsc()) {
+                accounts.forEach(account -> {
+                    consumer.accept(accountDtoConverter.convert(account));
+                    entityManager.detach(account);
+                });
+            }
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_STREAM_ALL, startedAt);
+        }
     }
 
     public AccountDto getAccountById(String id){
+        long startedAt = metrics.start();
+        try {
+            AccountDto account = depositBuffer.withPending(id, () -> accountCache.get(id, this::loadAccount));
+            if (account == null) {
+                metrics.accountNotFound();
+                return AccountDto.builder().build();
+            }
+            return account;
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_GET_BY_ID, startedAt);
+        }
+    }
+
+    /**
+     * Totals per city and currency, read from the in-memory counters in constant time.
+     */
+    public AccountStatsDto getStatistics(){
+        long startedAt = metrics.start();
+        try {
+            return statistics.snapshot();
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_GET_STATS, startedAt);
+        }
+    }
 
-        return accountRepository.findById(id)
-                .map(accountDtoConverter::convert)
-                .orElse(AccountDto.builder().build());
+    /**
+     * Returns the account with its balance converted into the given currency. The account itself is not changed.
+     */
+    public AccountDto getAccountById(String id, Currency currency){
+        AccountDto account = getAccountById(id);
+        if (account.getId() == null || account.getCurrency() == currency) {
+            return account;
+        }
+        return AccountDto.builder()
+                .id(account.getId())
+                .customerId(account.getCustomerId())
+                .balance(currencyConversionService.convert(account.getBalance(), account.getCurrency(), currency))
+                .currency(currency)
+                .build();
     }
 
+    /**
+     * Deletes the account after flushing the buffered deposits, which would otherwise find it gone.
+     */
+    @Transactional
     public void deleteAccountById(String id) {
-        accountRepository.deleteById(id);
+        long startedAt = metrics.start();
+        try {
+            depositBuffer.flush();
+            accountRepository.findById(id).ifPresent(statistics::removed);
+            accountRepository.deleteById(id);
+            accountCache.evict(id);
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_DELETE, startedAt);
+        }
     }
 
 
-    public AccountDto withdrawMoney(String id, double amount) {
-        Optional<Account> accountOptional = accountRepository.findById(id);
-        if (accountOptional.isPresent()) {
-            Account account = accountOptional.get();
-            if (account.getBalance() >= amount) {
-                account.setBalance(account.getBalance() - amount);
-                accountRepository.save(account);
-                return accountDtoConverter.convert(account);
-            } else {
-                // Handle insufficient funds
+    @Transactional
+    public AccountDto withdrawMoney(String id, long amount) {
+        long startedAt = metrics.start();
+        try {
+            requirePositive(amount);
+            if (accountRepository.withdraw(id, amount) == 0) {
+                // Unknown account or insufficient funds; only the failure path pays for telling them apart
+                if (accountRepository.existsById(id)) {
+                    metrics.insufficientFunds();
+                }
+                return AccountDto.builder().build();
+            }
+            ledgerService.record(id, -amount);
+            accountCache.evict(id);
+            return loadAccountAfterChange(id, -amount);
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_WITHDRAW, startedAt);
+        }
+    }
+
+    @Transactional
+    public AccountDto depositMoney(String id, long amount) {
+        long startedAt = metrics.start();
+        try {
+            requirePositive(amount);
+            if (accountRepository.deposit(id, amount) == 0) {
+                return AccountDto.builder().build();
+            }
+            ledgerService.record(id, amount);
+            accountCache.evict(id);
+            return loadAccountAfterChange(id, amount);
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_DEPOSIT, startedAt);
+        }
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return depositBuffer.isEnabled();
+    }
+
+    /**
+     * Deposits through the write-behind buffer: the deposit is acknowledged once it is in memory and
+     * committed with the next group flush. The returned balance includes every deposit still pending.
+     *
+     * @throws IllegalStateException if write-behind is not enabled
+     */
+    public AccountDto bufferDeposit(String id, long amount) {
+        long startedAt = metrics.start();
+        try {
+            requirePositive(amount);
+            if (!depositBuffer.isEnabled()) {
+                throw new IllegalStateException("Write-behind deposits are not enabled");
+            }
+            AccountDto account = depositBuffer.withPending(id, () -> accountCache.get(id, this::loadAccount));
+            if (account == null) {
                 return AccountDto.builder().build();
             }
+            depositBuffer.add(id, amount);
+            return AccountDto.builder()
+                    .id(account.getId())
+                    .customerId(account.getCustomerId())
+                    .balance(Money.add(account.getBalance(), amount))
+                    .currency(account.getCurrency())
+                    .build();
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_DEPOSIT_BUFFERED, startedAt);
         }
-        return AccountDto.builder().build();
+    }
 
+    /**
+     * Durability barrier for {@link #bufferDeposit}: returns once every deposit buffered before the call is committed.
+     */
+    public void flushDeposits() {
+        long startedAt = metrics.start();
+        try {
+            depositBuffer.flush();
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_FLUSH_DEPOSITS, startedAt);
+        }
     }
 
-    public AccountDto depositMoney(String id, double amount) {
-        Optional<Account> accountOptional = accountRepository.findById(id);
-        if (accountOptional.isPresent()) {
-            Account account = accountOptional.get();
-            account.setBalance(account.getBalance() + amount);
-            accountRepository.save(account);
+    /**
+     * Withdraws an amount given in another currency. The row is locked so the conversion uses the currency
+     * the account has when the balance changes; same-currency withdrawals keep the single conditional update.
+     */
+    @Transactional
+    public AccountDto withdrawMoney(String id, long amount, Currency currency) {
+        long startedAt = metrics.start();
+        try {
+            requirePositive(amount);
+            Account account = accountRepository.findLockedById(id).orElse(null);
+            if (account == null) {
+                return AccountDto.builder().build();
+            }
+            long converted = currencyConversionService.convert(amount, currency, account.getCurrency());
+            if (account.getBalance() < converted) {
+                metrics.insufficientFunds();
+                return AccountDto.builder().build();
+            }
+            account.setBalance(Money.subtract(account.getBalance(), converted));
+            ledgerService.record(id, -converted);
+            statistics.balanceChanged(account, -converted);
+            accountCache.evict(id);
             return accountDtoConverter.convert(account);
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_WITHDRAW, startedAt);
         }
-        return AccountDto.builder().build();
     }
 
+    /**
+     * Deposits an amount given in another currency, converted under the row lock like {@link #withdrawMoney(String, long, Currency)}.
+     */
+    @Transactional
+    public AccountDto depositMoney(String id, long amount, Currency currency) {
+        long startedAt = metrics.start();
+        try {
+            requirePositive(amount);
+            Account account = accountRepository.findLockedById(id).orElse(null);
+            if (account == null) {
+                return AccountDto.builder().build();
+            }
+            long converted = currencyConversionService.convert(amount, currency, account.getCurrency());
+            account.setBalance(Money.add(account.getBalance(), converted));
+            ledgerService.record(id, converted);
+            statistics.balanceChanged(account, converted);
+            accountCache.evict(id);
+            return accountDtoConverter.convert(account);
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_DEPOSIT, startedAt);
+        }
+    }
 
+    /**
+     * Applies the transactions in order within one transaction. All affected accounts are loaded and
+     * locked with a single query and written back as one JDBC batch on commit. The whole batch is
+     * rejected, before anything is applied, when an entry has no type or a non-positive amount.
+     */
+    @Transactional
+    public List<TransactionResultDto> applyTransactions(List<TransactionRequest> transactions) {
+        long startedAt = metrics.start();
+        try {
+            for (int i = 0; i < transactions.size(); i++) {
+                String problem = invalidReason(transactions.get(i));
+                if (problem != null) {
+                    throw new InvalidTransactionException("Transaction " + i + ": " + problem);
+                }
+            }
+            Map<String, Account> accounts = lockAccounts(transactions);
+            List<TransactionResultDto> results = new ArrayList<>(transactions.size());
+            for (TransactionRequest transaction : transactions) {
+                results.add(applyTransaction(accounts.get(transaction.getAccountId()), transaction));
+            }
+            return results;
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_APPLY_TRANSACTIONS, startedAt);
+        }
+    }
 
+    /**
+     * Runs withdrawals and deposits in order in one transaction, like {@link #applyTransactions}, and
+     * answers each one the way {@link #withdrawMoney(String, long)} and {@link #depositMoney(String, long)}
+     * do: the account as the operation left it, or an empty account when it failed.
+     */
+    @Transactional
+    public List<AccountDto> applyOperations(List<TransactionRequest> operations) {
+        long startedAt = metrics.start();
+        try {
+            Map<String, Account> accounts = lockAccounts(operations);
+            List<AccountDto> results = new ArrayList<>(operations.size());
+            for (TransactionRequest operation : operations) {
+                if (invalidReason(operation) != null) {
+                    results.add(AccountDto.builder().build());
+                    continue;
+                }
+                Account account = accounts.get(operation.getAccountId());
+                TransactionResultDto result = applyTransaction(account, operation);
+                results.add(result.getStatus() == TransactionStatus.OK ? accountDtoConverter.convert(account) : AccountDto.builder().build());
+            }
+            return results;
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_APPLY_OPERATIONS, startedAt);
+        }
+    }
 
+    /**
+     * Moves money between two accounts in one transaction. Both rows are locked in account id order,
+     * whatever the direction of the transfer, so two opposite transfers can never wait on each other.
+     * The amount is in the request's currency, or the source account's when none is given, and each side
+     * is debited or credited in its own currency.
+     */
+    @Transactional
+    public TransferResultDto transfer(TransferRequest transfer) {
+        long startedAt = metrics.start();
+        try {
+            String fromId = transfer.getFromAccountId();
+            String toId = transfer.getToAccountId();
+            if (fromId == null || toId == null || fromId.equals(toId) || transfer.getAmount() <= 0) {
+                throw new InvalidTransferException("A transfer needs two different accounts and a positive amount");
+            }
+            boolean fromFirst = fromId.compareTo(toId) < 0;
+            Optional<Account> first = accountRepository.findLockedById(fromFirst ? fromId : toId);
+            Optional<Account> second = accountRepository.findLockedById(fromFirst ? toId : fromId);
+            Account from = (fromFirst ? first : second).orElse(null);
+            Account to = (fromFirst ? second : first).orElse(null);
+
+            TransferResultDto result = TransferResultDto.builder()
+                    .fromAccountId(fromId)
+                    .toAccountId(toId)
+                    .build();
+            if (from == null || to == null) {
+                result.setStatus(TransactionStatus.NOT_FOUND);
+                return result;
+            }
+            Currency currency = transfer.getCurrency() == null ? from.getCurrency() : transfer.getCurrency();
+            long debit = currencyConversionService.convert(transfer.getAmount(), currency, from.getCurrency());
+            long credit = currencyConversionService.convert(transfer.getAmount(), currency, to.getCurrency());
+            if (from.getBalance() < debit) {
+                metrics.insufficientFunds();
+                result.setStatus(TransactionStatus.INSUFFICIENT_FUNDS);
+            } else {
+                from.setBalance(Money.subtract(from.getBalance(), debit));
+                to.setBalance(Money.add(to.getBalance(), credit));
+                ledgerService.record(fromId, -debit);
+                ledgerService.record(toId, credit);
+                statistics.balanceChanged(from, -debit);
+                statistics.balanceChanged(to, credit);
+                accountCache.evict(fromId);
+                accountCache.evict(toId);
+                result.setStatus(TransactionStatus.OK);
+            }
+            result.setFromBalance(from.getBalance());
+            result.setToBalance(to.getBalance());
+            return result;
+        } finally {
+            metrics.stop(ServiceOperation.ACCOUNT_TRANSFER, startedAt);
+        }
+    }
+
+    /**
+     * Reads the account straight from the repository, bypassing the cache, so write paths always
+     * return the state they produced.
+     */
+    private AccountDto loadAccount(String id) {
+        return accountRepository.findById(id).map(accountDtoConverter::convert).orElse(null);
+    }
+
+    /**
+     * Like {@link #loadAccount(String)}, for a balance changed by a bulk update; the reloaded row also tells
+     * which statistics cell the change belongs to.
+     */
+    private AccountDto loadAccountAfterChange(String id, long delta) {
+        return accountRepository.findById(id).map(account -> {
+            statistics.balanceChanged(account, delta);
+            return accountDtoConverter.convert(account);
+        }).orElse(null);
+    }
+
+    private KeysetPageDto<AccountDto> page(int limit, Function<Limit, List<Account>> query) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<AccountDto> accounts = query.apply(Limit.of(pageSize)).stream()
+                .map(accountDtoConverter::convert).collect(Collectors.toList());
+        return KeysetPageDto.of(accounts, pageSize, AccountDto::getId);
+    }
+
+    private static String keyAfter(String after) {
+        return after == null ? "" : after;
+    }
+
+    /**
+     * Loads and row-locks every account the transactions touch with a single query, in id order.
+     */
+    private Map<String, Account> lockAccounts(List<TransactionRequest> transactions) {
+        Set<String> accountIds = transactions.stream()
+                .map(TransactionRequest::getAccountId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Account> accounts = accountIds.isEmpty() ? Map.of() : accountRepository.findByIdInOrderByIdAsc(accountIds).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+        accounts.keySet().forEach(accountCache::evict);
+        return accounts;
+    }
+
+    /**
+     * A new currency would relabel the balance without converting it, so it is only taken on an empty account.
+     */
+    private static void requireCurrencyChangeable(Account account, Currency currency) {
+        if (currency != null && currency != account.getCurrency() && account.getBalance() != 0) {
+            throw new CurrencyChangeNotAllowedException("Account " + account.getId() + " holds a balance in "
+                    + account.getCurrency() + "; only an empty account can change its currency");
+        }
+    }
 
+    private static void requirePositive(long amount) {
+        // A negative withdrawal would credit the account and a negative deposit could overdraw it
+        if (amount <= 0) {
+            throw new InvalidTransactionException("The amount must be positive");
+        }
+    }
 
+    private static String invalidReason(TransactionRequest transaction) {
+        if (transaction.getType() == null) {
+            return "a type is required";
+        }
+        if (transaction.getAmount() <= 0) {
+            return "the amount must be positive";
+        }
+        return null;
+    }
+
+    private TransactionResultDto applyTransaction(Account account, TransactionRequest transaction) {
+        TransactionResultDto result = TransactionResultDto.builder()
+                .accountId(transaction.getAccountId())
+                .type(transaction.getType())
+                .build();
+        if (account == null) {
+            result.setStatus(TransactionStatus.NOT_FOUND);
+            return result;
+        }
+        if (transaction.getType() == TransactionType.WITHDRAW) {
+            if (account.getBalance() < transaction.getAmount()) {
+                result.setStatus(TransactionStatus.INSUFFICIENT_FUNDS);
+                metrics.insufficientFunds();
+                result.setBalance(account.getBalance());
+                return result;
+            }
+            account.setBalance(Money.subtract(account.getBalance(), transaction.getAmount()));
+            ledgerService.record(account.getId(), -transaction.getAmount());
+            statistics.balanceChanged(account, -transaction.getAmount());
+        } else {
+            account.setBalance(Money.add(account.getBalance(), transaction.getAmount()));
+            ledgerService.record(account.getId(), transaction.getAmount());
+            statistics.balanceChanged(account, transaction.getAmount());
+        }
+        result.setStatus(TransactionStatus.OK);
+        result.setBalance(account.getBalance());
+        return result;
+    }
 
 }
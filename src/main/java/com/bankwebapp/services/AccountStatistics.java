@@ -0,0 +1,199 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.AccountStatsDto;
+import com.bankwebapp.dtos.CityStatsDto;
+import com.bankwebapp.dtos.CurrencyStatsDto;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.repositories.AccountRepository;
+import com.bankwebapp.repositories.AccountRepository.AccountTotals;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Account count and total balance per city and currency, kept up to date by the write paths instead of
+ * being summed from the table on every read.
+ * <p>
+ * Each (city, currency) pair has its own pair of {@link LongAdder}s, indexed by the enum ordinals.
+ * Changes made in a transaction are applied once it commits, so a rollback never shows up here.
+ * {@link #reconcile()} periodically corrects any drift against a group-by over the table. A cell is only
+ * corrected when none of its changes was in flight or applied while the query ran; busy cells are retried
+ * a few times and otherwise left alone until the next run, so writes to one cell never hold up the rest.
+ */
+@Component
+public class AccountStatistics {
+
+    private static final City[] CITIES = City.values();
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final int CELLS = CITIES.length * CURRENCIES.length;
+    private static final int RECONCILE_ATTEMPTS = 3;
+    private static final Logger log = LoggerFactory.getLogger(AccountStatistics.class);
+
+    private final AccountRepository accountRepository;
+    private final LongAdder[] accounts = new LongAdder[CELLS];
+    private final LongAdder[] balances = new LongAdder[CELLS];
+    // Changes started and completed per cell; both only grow, so equal sums mean nothing was in flight
+    private final LongAdder[] begun = new LongAdder[CELLS];
+    private final LongAdder[] completed = new LongAdder[CELLS];
+    private final LongAdder skippedCells = new LongAdder();
+
+    public AccountStatistics(AccountRepository accountRepository) {
+        this.accountRepository = accountRepository;
+        for (int i = 0; i < CELLS; i++) {
+            accounts[i] = new LongAdder();
+            balances[i] = new LongAdder();
+            begun[i] = new LongAdder();
+            completed[i] = new LongAdder();
+        }
+    }
+
+    public void added(Account account) {
+        record(account.getCity(), account.getCurrency(), 1, account.getBalance());
+    }
+
+    public void removed(Account account) {
+        record(account.getCity(), account.getCurrency(), -1, -account.getBalance());
+    }
+
+    public void balanceChanged(Account account, long delta) {
+        record(account.getCity(), account.getCurrency(), 0, delta);
+    }
+
+    public AccountStatsDto snapshot() {
+        Map<City, CityStatsDto> cities = new EnumMap<>(City.class);
+        Map<Currency, CurrencyStatsDto> currencies = new EnumMap<>(Currency.class);
+        for (Currency currency : CURRENCIES) {
+            currencies.put(currency, new CurrencyStatsDto(0, 0));
+        }
+        for (City city : CITIES) {
+            CityStatsDto cityStats = new CityStatsDto(0, new EnumMap<>(Currency.class));
+            for (Currency currency : CURRENCIES) {
+                int cell = cell(city, currency);
+                long count = accounts[cell].sum();
+                long balance = balances[cell].sum();
+                cityStats.setAccounts(cityStats.getAccounts() + count);
+                cityStats.getBalances().put(currency, balance);
+                CurrencyStatsDto currencyStats = currencies.get(currency);
+                currencyStats.setAccounts(currencyStats.getAccounts() + count);
+                currencyStats.setBalance(currencyStats.getBalance() + balance);
+            }
+            cities.put(city, cityStats);
+        }
+        return new AccountStatsDto(cities, currencies);
+    }
+
+    /**
+     * Moves the counters to the totals in the table. The correction is added as a difference, so a change
+     * applied right after the check is kept rather than overwritten. Cells that changed while the query ran
+     * are retried up to {@value #RECONCILE_ATTEMPTS} times.
+     *
+     * @return whether every cell was reconciled, false when writes kept overlapping the query on some cell
+     */
+    @Scheduled(fixedDelayString = "${bankwebapp.stats.reconcile-interval:PT5M}")
+    public boolean reconcile() {
+        boolean[] done = new boolean[CELLS];
+        int remaining = CELLS;
+        for (int attempt = 0; attempt < RECONCILE_ATTEMPTS && remaining > 0; attempt++) {
+            remaining -= reconcileOnce(done);
+        }
+        if (remaining > 0) {
+            skippedCells.add(remaining);
+            log.warn("Left {} statistics cells unreconciled after {} attempts, writes kept overlapping the query",
+                    remaining, RECONCILE_ATTEMPTS);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return how many cells have been left unreconciled by past runs
+     */
+    public long getSkippedCells() {
+        return skippedCells.sum();
+    }
+
+    private int reconcileOnce(boolean[] done) {
+        long[] version = new long[CELLS];
+        boolean[] quiet = new boolean[CELLS];
+        long[] counted = new long[CELLS];
+        long[] summed = new long[CELLS];
+        boolean anyQuiet = false;
+        for (int i = 0; i < CELLS; i++) {
+            if (done[i]) {
+                continue;
+            }
+            version[i] = completed[i].sum();
+            quiet[i] = begun[i].sum() == version[i];
+            counted[i] = accounts[i].sum();
+            summed[i] = balances[i].sum();
+            anyQuiet |= quiet[i];
+        }
+        if (!anyQuiet) {
+            return 0;
+        }
+        List<AccountTotals> totals = accountRepository.sumBalancesByCityAndCurrency();
+        long[] actualCounts = new long[CELLS];
+        long[] actualBalances = new long[CELLS];
+        for (AccountTotals total : totals) {
+            if (total.getCity() != null && total.getCurrency() != null) {
+                int cell = cell(total.getCity(), total.getCurrency());
+                actualCounts[cell] = total.getAccounts();
+                actualBalances[cell] = total.getBalance();
+            }
+        }
+        int reconciled = 0;
+        for (int i = 0; i < CELLS; i++) {
+            // Completed is read before begun, so equal sums mean the cell was idle at that point
+            if (!quiet[i] || completed[i].sum() != version[i] || begun[i].sum() != version[i]) {
+                continue;
+            }
+            accounts[i].add(actualCounts[i] - counted[i]);
+            balances[i].add(actualBalances[i] - summed[i]);
+            done[i] = true;
+            reconciled++;
+        }
+        return reconciled;
+    }
+
+    private void record(City city, Currency currency, long accountDelta, long balanceDelta) {
+        // Accounts without a city or currency have no cell and are left out of the statistics
+        if (city == null || currency == null) {
+            return;
+        }
+        int cell = cell(city, currency);
+        begun[cell].increment();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(cell, accountDelta, balanceDelta);
+            completed[cell].increment();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    apply(cell, accountDelta, balanceDelta);
+                }
+                completed[cell].increment();
+            }
+        });
+    }
+
+    private void apply(int cell, long accountDelta, long balanceDelta) {
+        accounts[cell].add(accountDelta);
+        balances[cell].add(balanceDelta);
+    }
+
+    private static int cell(City city, Currency currency) {
+        return city.ordinal() * CURRENCIES.length + currency.ordinal();
+    }
+}
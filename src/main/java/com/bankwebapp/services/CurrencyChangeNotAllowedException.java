@@ -0,0 +1,12 @@
+package com.bankwebapp.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class CurrencyChangeNotAllowedException extends RuntimeException {
+
+    public CurrencyChangeNotAllowedException(String message) {
+        super(message);
+    }
+}
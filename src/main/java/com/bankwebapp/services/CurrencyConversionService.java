@@ -0,0 +1,129 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.models.Currency;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Properties;
+
+/**
+ * Converts minor-unit amounts between currencies using a rate table loaded from a properties file.
+ * <p>
+ * The table holds each currency's rate from the file as an exact scaled long, all at the same scale,
+ * indexed by {@code Currency.ordinal()} in an array published through a volatile field. Readers take one
+ * volatile read and never lock or allocate; a reload builds a new array and swaps it in, so a conversion
+ * always sees one consistent table. A conversion multiplies by the source rate and divides by the target
+ * rate, where the common scale cancels out, so the result is rounded once and exactly. Only a product
+ * beyond the range of a long is computed in {@link BigDecimal}.
+ */
+@Service
+public class CurrencyConversionService {
+
+    private static final Logger log = LoggerFactory.getLogger(CurrencyConversionService.class);
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private volatile long[] rates;
+
+    public CurrencyConversionService(ResourceLoader resourceLoader,
+                                     @Value("${bankwebapp.rates.location:classpath:rates.properties}") String location) {
+        this.resourceLoader = resourceLoader;
+        this.location = location;
+        this.rates = load(resourceLoader.getResource(location));
+    }
+
+    /**
+     * Converts an amount in minor units, rounding half-even to the nearest minor unit of the target currency.
+     *
+     * @throws ArithmeticException if the converted amount does not fit in a long
+     */
+    public long convert(long amount, Currency from, Currency to) {
+        if (from == to) {
+            return amount;
+        }
+        long[] table = rates;
+        long rate = table[from.ordinal()];
+        long divisor = table[to.ordinal()];
+        long product = amount * rate;
+        if (Math.multiplyHigh(amount, rate) != product >> 63) {
+            return BigDecimal.valueOf(amount).multiply(BigDecimal.valueOf(rate))
+                    .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_EVEN)
+                    .longValueExact();
+        }
+        return divideHalfEven(product, divisor);
+    }
+
+    /**
+     * Re-reads the rate file and swaps the new table in. A file that cannot be read or is incomplete is
+     * rejected and the current table stays in place.
+     */
+    @Scheduled(initialDelayString = "${bankwebapp.rates.refresh-interval:PT1M}", fixedDelayString = "${bankwebapp.rates.refresh-interval:PT1M}")
+    public void reload() {
+        try {
+            rates = load(resourceLoader.getResource(location));
+        } catch (RuntimeException e) {
+            log.warn("Keeping the current exchange rates, could not reload {}: {}", location, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads one rate per currency, each the value of one unit of that currency in a common base, and
+     * scales them all to the largest scale among them.
+     */
+    static long[] load(Resource resource) {
+        Properties properties = new Properties();
+        try (InputStream in = resource.getInputStream()) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read exchange rates from " + resource, e);
+        }
+        BigDecimal[] values = new BigDecimal[CURRENCIES.length];
+        for (Currency currency : CURRENCIES) {
+            String value = properties.getProperty(currency.name());
+            if (value == null) {
+                throw new IllegalStateException("No exchange rate for " + currency + " in " + resource);
+            }
+            values[currency.ordinal()] = new BigDecimal(value.trim());
+            if (values[currency.ordinal()].signum() <= 0) {
+                throw new IllegalStateException("Exchange rate for " + currency + " must be positive");
+            }
+        }
+        int scale = 0;
+        for (BigDecimal value : values) {
+            scale = Math.max(scale, value.scale());
+        }
+        long[] scaled = new long[CURRENCIES.length];
+        for (int i = 0; i < CURRENCIES.length; i++) {
+            try {
+                scaled[i] = values[i].setScale(scale).unscaledValue().longValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalStateException("Exchange rate for " + CURRENCIES[i] + " has too many digits", e);
+            }
+        }
+        return scaled;
+    }
+
+    /**
+     * {@code dividend / divisor} rounded like {@link RoundingMode#HALF_EVEN}, for a positive divisor.
+     */
+    static long divideHalfEven(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        long beyondHalf = remainder - (divisor - remainder);
+        if (beyondHalf > 0 || (beyondHalf == 0 && (quotient & 1) != 0)) {
+            return quotient + (dividend < 0 ? -1 : 1);
+        }
+        return quotient;
+    }
+}
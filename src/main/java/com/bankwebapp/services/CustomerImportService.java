@@ -0,0 +1,298 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.CityDto;
+import com.bankwebapp.dtos.CreateCustomerRequest;
+import com.bankwebapp.dtos.CustomerDtoConverter;
+import com.bankwebapp.dtos.ImportErrorDto;
+import com.bankwebapp.dtos.ImportResultDto;
+import com.bankwebapp.metrics.ServiceMetrics;
+import com.bankwebapp.metrics.ServiceOperation;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.CustomerRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports customers from an NDJSON or CSV body. The body is read line by line and written in batches of
+ * {@code bankwebapp.import.batch-size} customers, each in its own transaction, so memory stays flat
+ * whatever the size of the upload. Invalid lines and ids that are already taken are reported and
+ * skipped; the rest of the file is still imported.
+ */
+@Service
+public class CustomerImportService {
+    static final int MAX_REPORTED_ERRORS = 100;
+    static final List<String> CSV_COLUMNS = List.of("id", "name", "dateofBirth", "addres", "city");
+
+    private final CustomerRepository customerRepository;
+    private final ObjectReader customerReader;
+    private final ServiceMetrics metrics;
+    private final int batchSize;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final CustomerDtoConverter customerDtoConverter;
+
+    public CustomerImportService(CustomerRepository customerRepository, ObjectMapper objectMapper, ServiceMetrics metrics,
+                                 @Value("${bankwebapp.import.batch-size:1000}") int batchSize,
+                                 CustomerSearchIndex customerSearchIndex, CustomerDtoConverter customerDtoConverter) {
+        this.customerRepository = customerRepository;
+        this.customerSearchIndex = customerSearchIndex;
+        this.customerDtoConverter = customerDtoConverter;
+        this.customerReader = objectMapper.readerFor(CreateCustomerRequest.class);
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * One JSON object per line, with the fields of {@code POST /customer/post}.
+     */
+    public ImportResultDto importNdjson(InputStream body) {
+        return importCustomers(body, false);
+    }
+
+    /**
+     * A header line naming the columns, in any order, then one customer per line. {@code id} and
+     * {@code city} are required; fields may be quoted.
+     */
+    public ImportResultDto importCsv(InputStream body) {
+        return importCustomers(body, true);
+    }
+
+    private ImportResultDto importCustomers(InputStream body, boolean csv) {
+        long startedAt = metrics.start();
+        try {
+            Import run = new Import();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                LineParser parser = csv ? csvParser(reader.readLine()) : this::parseJson;
+                long lineNumber = csv ? 1 : 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        run.add(lineNumber, toCustomer(parser.parse(line)));
+                    } catch (IllegalArgumentException e) {
+                        run.reject(lineNumber, e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            run.flush();
+            return run.result(System.nanoTime() - startedAt);
+        } finally {
+            metrics.stop(ServiceOperation.CUSTOMER_IMPORT, startedAt);
+        }
+    }
+
+    private CreateCustomerRequest parseJson(String line) {
+        try {
+            return customerReader.readValue(line);
+        } catch (InvalidFormatException e) {
+            if (e.getTargetType() == CityDto.class) {
+                throw new IllegalArgumentException("Unknown city '" + e.getValue() + "'");
+            }
+            throw new IllegalArgumentException(e.getOriginalMessage());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getOriginalMessage());
+        }
+    }
+
+    private static LineParser csvParser(String header) {
+        if (header == null) {
+            throw new InvalidImportException("The CSV body needs a header line");
+        }
+        List<String> names = splitCsv(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim();
+            if (!CSV_COLUMNS.contains(name)) {
+                throw new InvalidImportException("Unknown CSV column '" + name + "', expected some of " + CSV_COLUMNS);
+            }
+            columns.put(name, i);
+        }
+        if (!columns.containsKey("id") || !columns.containsKey("city")) {
+            throw new InvalidImportException("The CSV header needs an id and a city column");
+        }
+        return line -> {
+            List<String> fields = splitCsv(line);
+            if (fields.size() != names.size()) {
+                throw new IllegalArgumentException("Expected " + names.size() + " fields, found " + fields.size());
+            }
+            CreateCustomerRequest request = new CreateCustomerRequest();
+            request.setId(field(fields, columns, "id"));
+            request.setName(field(fields, columns, "name"));
+            request.setAddres(field(fields, columns, "addres"));
+            String dateofBirth = field(fields, columns, "dateofBirth");
+            if (dateofBirth != null) {
+                try {
+                    request.setDateofBirth(Integer.valueOf(dateofBirth.trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid dateofBirth '" + dateofBirth + "'");
+                }
+            }
+            String city = field(fields, columns, "city");
+            if (city != null) {
+                try {
+                    request.setCity(CityDto.valueOf(city.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown city '" + city + "'");
+                }
+            }
+            return request;
+        };
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits one CSV record. Fields may be wrapped in double quotes, with {@code ""} for a quote inside them;
+     * records spanning several lines are not supported.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static Customer toCustomer(CreateCustomerRequest request) {
+        if (request.getId() == null || request.getId().isBlank()) {
+            throw new IllegalArgumentException("Missing id");
+        }
+        if (request.getCity() == null) {
+            throw new IllegalArgumentException("Missing city");
+        }
+        return Customer.builder()
+                .id(request.getId())
+                .name(request.getName())
+                .addres(request.getAddres())
+                .dateofBirth(request.getDateofBirth())
+                .city(City.valueOf(request.getCity().name()))
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface LineParser {
+        CreateCustomerRequest parse(String line);
+    }
+
+    /**
+     * State of one import: the pending batch, with the line each customer came from, and the running totals.
+     */
+    private final class Import {
+
+        private final List<Customer> batch = new ArrayList<>(batchSize);
+        private final List<Long> batchLines = new ArrayList<>(batchSize);
+        private final Set<String> batchIds = new HashSet<>();
+        private final List<ImportErrorDto> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        void add(long line, Customer customer) {
+            if (!batchIds.add(customer.getId())) {
+                reject(line, "Duplicate id '" + customer.getId() + "'");
+                return;
+            }
+            batch.add(customer);
+            batchLines.add(line);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportErrorDto(line, message));
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                Set<String> existing = customerRepository.insertNew(batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    if (existing.contains(batch.get(i).getId())) {
+                        reject(batchLines.get(i), "Duplicate id '" + batch.get(i).getId() + "'");
+                    } else {
+                        customerSearchIndex.put(customerDtoConverter.getCustomerDto(batch.get(i)));
+                    }
+                }
+                imported += batch.size() - existing.size();
+            } catch (DataAccessException e) {
+                // A concurrent insert of one of the ids fails the whole batch; report every line of it
+                for (Long line : batchLines) {
+                    reject(line, "Batch rejected: " + e.getMostSpecificCause().getMessage());
+                }
+            }
+            batch.clear();
+            batchLines.clear();
+            batchIds.clear();
+        }
+
+        ImportResultDto result(long elapsedNanos) {
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            return ImportResultDto.builder()
+                    .imported(imported)
+                    .rejected(rejected)
+                    .durationMillis(elapsedNanos / 1_000_000)
+                    .rowsPerSecond(seconds > 0 ? (imported + rejected) / seconds : 0)
+                    .errors(errors)
+                    .build();
+        }
+    }
+}
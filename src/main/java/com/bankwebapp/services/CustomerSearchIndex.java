@@ -0,0 +1,543 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.CustomerDto;
+import com.bankwebapp.dtos.CustomerDtoConverter;
+import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over customer names and addresses for {@code GET /customer/search}.
+ * <p>
+ * Text is lower-cased and split into words, and every three-character window of {@code " " + words} is a
+ * trigram, so a word start is a trigram with a leading space. Each trigram maps to the ascending ids of
+ * the customers containing it, once for the name alone and once for name and address together. A query
+ * word of three or more characters matches anywhere inside a word, a two-character word only at the
+ * start of one; every word of the query has to match. Candidates come from intersecting the posting
+ * lists and are then checked against the text, since sharing all trigrams does not make a substring.
+ * <p>
+ * Results are ranked by where they matched: names starting with every query word first, then names
+ * containing them, then matches involving the address, each group in insertion order. The groups are
+ * looked up in that order, so a query stops reading postings as soon as the page is full.
+ * <p>
+ * The write paths keep the index current, after their transaction commits. A customer that changes or
+ * goes away leaves a dead entry behind until dead entries outnumber live ones and the index is
+ * compacted. {@link #rebuild()} reloads it from the table on startup, building the postings on all
+ * cores while the old index keeps serving; changes made meanwhile are replayed onto the new one.
+ * <p>
+ * Every customer stays on the heap, so {@code bankwebapp.search.enabled=false} turns the index off for
+ * deployments that cannot afford it: nothing is indexed or loaded, and a search is refused.
+ */
+@Component
+public class CustomerSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerSearchIndex.class);
+    private static final int COMPACT_MIN_DEAD = 1024;
+
+    private final CustomerRepository customerRepository;
+    private final CustomerDtoConverter customerDtoConverter;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; changes is non-null while a rebuild is loading the table
+    private Index index = new Index();
+    private List<Consumer<Index>> changes;
+
+    public CustomerSearchIndex(CustomerRepository customerRepository, CustomerDtoConverter customerDtoConverter,
+                               EntityManager entityManager, PlatformTransactionManager transactionManager,
+                               @Value("${bankwebapp.search.enabled:true}") boolean enabled) {
+        this.customerRepository = customerRepository;
+        this.customerDtoConverter = customerDtoConverter;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds the customer, or replaces the entry with its id.
+     */
+    public void put(CustomerDto customer) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(index -> index.put(customer));
+    }
+
+    public void remove(String id) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(index -> index.remove(id));
+    }
+
+    /**
+     * Up to {@code limit} customers matching every word of the query, best matches first.
+     *
+     * @throws CustomerSearchDisabledException if the index is turned off
+     */
+    public List<CustomerDto> search(String query, int limit) {
+        if (!enabled) {
+            throw new CustomerSearchDisabledException();
+        }
+        List<String> words = words(query);
+        words.removeIf(word -> word.length() < 2);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(words, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the index with one built from the table.
+     *
+     * @return the number of customers indexed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized int rebuild() {
+        if (!enabled) {
+            return 0;
+        }
+        long startedAt = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            changes = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Index rebuilt;
+        try {
+            rebuilt = Index.build(load());
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changes = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            changes.forEach(change -> change.accept(rebuilt));
+            changes = null;
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} customers for search in {} ms", rebuilt.live, (System.nanoTime() - startedAt) / 1_000_000);
+        return rebuilt.live;
+    }
+
+    private List<CustomerDto> load() {
+        return transactionTemplate.execute(status -> {
+            List<CustomerDto> customers = new ArrayList<>();
+            try (Stream<Customer> stream = customerRepository.streamAllByOrderByIdAsc()) {
+                stream.forEach(customer -> {
+                    customers.add(customerDtoConverter.getCustomerDto(customer));
+                    entityManager.detach(customer);
+                });
+            }
+            return customers;
+        });
+    }
+
+    private void afterCommit(Consumer<Index> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+        });
+    }
+
+    private void apply(Consumer<Index> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (changes != null) {
+                changes.add(change);
+            }
+            if (index.dead >= COMPACT_MIN_DEAD && index.dead > index.live) {
+                index = index.compacted();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-cased words of the text; anything but letters and digits separates words.
+     */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        StringBuilder word = new StringBuilder();
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (!word.isEmpty()) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (!word.isEmpty()) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    /**
+     * The text as matched against query words: each word preceded by a space.
+     */
+    static String searchable(String text) {
+        StringBuilder searchable = new StringBuilder();
+        for (String word : words(text)) {
+            searchable.append(' ').append(word);
+        }
+        return searchable.toString();
+    }
+
+    private static long trigram(CharSequence text, int at) {
+        return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+    }
+
+    /**
+     * Distinct trigrams of the searchable texts, sorted.
+     */
+    private static long[] trigrams(String... texts) {
+        int count = 0;
+        for (String text : texts) {
+            count += Math.max(0, text.length() - 2);
+        }
+        long[] trigrams = new long[count];
+        int next = 0;
+        for (String text : texts) {
+            for (int i = 0; i + 2 < text.length(); i++) {
+                trigrams[next++] = trigram(text, i);
+            }
+        }
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    /**
+     * Trigrams a matching text must contain: those of a long word anywhere, or with {@code atWordStart} and for
+     * a two-character word, those of the word at the start of one.
+     */
+    private static long[] queryTrigrams(List<String> words, boolean atWordStart) {
+        String[] patterns = new String[words.size()];
+        for (int i = 0; i < patterns.length; i++) {
+            String word = words.get(i);
+            patterns[i] = atWordStart || word.length() < 3 ? " " + word : word;
+        }
+        return trigrams(patterns);
+    }
+
+    /**
+     * Ascending document ids, appended to as documents are added.
+     */
+    private static final class Postings {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void addAll(Postings other) {
+            if (size + other.size > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(size + other.size, size * 2));
+            }
+            System.arraycopy(other.ids, 0, ids, size, other.size);
+            size += other.size;
+        }
+
+        /**
+         * Index of the first id not below {@code id}, searching from {@code from} with exponential steps.
+         */
+        int seek(int id, int from) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && ids[high] < id) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (ids[middle] < id) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * The documents and their postings. Document ids are positions in {@code customers}; a replaced or
+     * removed customer leaves a null there.
+     */
+    private static final class Index {
+
+        private CustomerDto[] customers = new CustomerDto[16];
+        private String[] names = new String[16];
+        private String[] addresses = new String[16];
+        private int documents;
+        private int live;
+        private int dead;
+        private final Map<String, Integer> documentsById = new HashMap<>();
+        private final Map<Long, Postings> namePostings = new HashMap<>();
+        private final Map<Long, Postings> textPostings = new HashMap<>();
+
+        static Index build(List<CustomerDto> customers) {
+            Index index = new Index();
+            int count = customers.size();
+            index.customers = customers.toArray(new CustomerDto[Math.max(16, count)]);
+            index.names = new String[index.customers.length];
+            index.addresses = new String[index.customers.length];
+            int parts = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), count / 10_000));
+            // Each part indexes a contiguous range of documents; appending the parts in order keeps the postings ascending
+            List<Index> built = IntStream.range(0, parts).parallel()
+                    .mapToObj(part -> index.partial((int) ((long) count * part / parts), (int) ((long) count * (part + 1) / parts)))
+                    .toList();
+            for (Index part : built) {
+                part.namePostings.forEach((trigram, postings) -> index.namePostings.computeIfAbsent(trigram, t -> new Postings()).addAll(postings));
+                part.textPostings.forEach((trigram, postings) -> index.textPostings.computeIfAbsent(trigram, t -> new Postings()).addAll(postings));
+            }
+            for (int id = 0; id < count; id++) {
+                CustomerDto customer = index.customers[id];
+                Integer previous = index.documentsById.put(customer.getId(), id);
+                if (previous != null) {
+                    index.kill(previous);
+                }
+            }
+            index.documents = count;
+            index.live += count;
+            return index;
+        }
+
+        /**
+         * Postings of the documents in {@code [from, to)}; also fills in their searchable texts, which no other part touches.
+         */
+        private Index partial(int from, int to) {
+            Index part = new Index();
+            for (int id = from; id < to; id++) {
+                CustomerDto customer = customers[id];
+                names[id] = searchable(customer.getName());
+                addresses[id] = searchable(customer.getAddres());
+                part.post(id, names[id], addresses[id]);
+            }
+            return part;
+        }
+
+        Index compacted() {
+            List<CustomerDto> remaining = new ArrayList<>(live);
+            for (int id = 0; id < documents; id++) {
+                if (customers[id] != null) {
+                    remaining.add(customers[id]);
+                }
+            }
+            return build(remaining);
+        }
+
+        void put(CustomerDto customer) {
+            remove(customer.getId());
+            if (documents == customers.length) {
+                customers = Arrays.copyOf(customers, documents * 2);
+                names = Arrays.copyOf(names, documents * 2);
+                addresses = Arrays.copyOf(addresses, documents * 2);
+            }
+            int id = documents++;
+            customers[id] = customer;
+            names[id] = searchable(customer.getName());
+            addresses[id] = searchable(customer.getAddres());
+            post(id, names[id], addresses[id]);
+            documentsById.put(customer.getId(), id);
+            live++;
+        }
+
+        void remove(String customerId) {
+            Integer id = documentsById.remove(customerId);
+            if (id != null) {
+                kill(id);
+            }
+        }
+
+        private void kill(int id) {
+            customers[id] = null;
+            names[id] = null;
+            addresses[id] = null;
+            live--;
+            dead++;
+        }
+
+        private void post(int id, String name, String address) {
+            for (long trigram : trigrams(name)) {
+                namePostings.computeIfAbsent(trigram, t -> new Postings()).add(id);
+            }
+            for (long trigram : trigrams(name, address)) {
+                textPostings.computeIfAbsent(trigram, t -> new Postings()).add(id);
+            }
+        }
+
+        /**
+         * Three passes, each ending as soon as the page is full: names starting with every word, names containing
+         * them, then matches involving the address. A later pass skips what an earlier one found.
+         */
+        List<CustomerDto> search(List<String> words, int limit) {
+            List<CustomerDto> results = new ArrayList<>(limit);
+            intersect(namePostings, queryTrigrams(words, true), id -> {
+                if (contains(names[id], words, true)) {
+                    results.add(customers[id]);
+                }
+                return results.size() < limit;
+            });
+            long[] trigrams = queryTrigrams(words, false);
+            if (results.size() < limit) {
+                intersect(namePostings, trigrams, id -> {
+                    if (!contains(names[id], words, true) && contains(names[id], words, false)) {
+                        results.add(customers[id]);
+                    }
+                    return results.size() < limit;
+                });
+            }
+            if (results.size() < limit) {
+                intersect(textPostings, trigrams, id -> {
+                    if (!contains(names[id], words, false) && matches(id, words)) {
+                        results.add(customers[id]);
+                    }
+                    return results.size() < limit;
+                });
+            }
+            return results;
+        }
+
+        /**
+         * Every query word occurs in the name or the address.
+         */
+        private boolean matches(int id, List<String> words) {
+            for (String word : words) {
+                String pattern = word.length() < 3 ? " " + word : word;
+                if (!names[id].contains(pattern) && !addresses[id].contains(pattern)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Every query word occurs in the text, or with {@code atWordStart} starts one of its words.
+         */
+        private static boolean contains(String text, List<String> words, boolean atWordStart) {
+            for (String word : words) {
+                String pattern = atWordStart || word.length() < 3 ? " " + word : word;
+                if (!text.contains(pattern)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Feeds the live documents holding every trigram to the visitor, in id order, until it returns false.
+         */
+        private void intersect(Map<Long, Postings> postings, long[] trigrams, IdVisitor visitor) {
+            Postings[] lists = new Postings[trigrams.length];
+            for (int i = 0; i < trigrams.length; i++) {
+                lists[i] = postings.get(trigrams[i]);
+                if (lists[i] == null) {
+                    return;
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            int[] positions = new int[lists.length];
+            Postings shortest = lists[0];
+            candidates:
+            for (int i = 0; i < shortest.size; i++) {
+                int id = shortest.ids[i];
+                for (int l = 1; l < lists.length; l++) {
+                    positions[l] = lists[l].seek(id, positions[l]);
+                    if (positions[l] == lists[l].size) {
+                        return;
+                    }
+                    if (lists[l].ids[positions[l]] != id) {
+                        continue candidates;
+                    }
+                }
+                if (customers[id] != null && !visitor.visit(id)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface IdVisitor {
+        boolean visit(int id);
+    }
+}
@@ -1,79 +1,291 @@
 package com.bankwebapp.services;
 
 
+import com.bankwebapp.cache.ReadThroughCache;
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.AccountDtoConverter;
 import com.bankwebapp.dtos.CreateCustomerRequest;
 import com.bankwebapp.dtos.CustomerDto;
 import com.bankwebapp.dtos.CustomerDtoConverter;
+import com.bankwebapp.dtos.CustomerWithAccountsDto;
+import com.bankwebapp.dtos.KeysetPageDto;
+import com.bankwebapp.dtos.PatchCustomerRequest;
 import com.bankwebapp.dtos.UpdateCustomerRequest;
+import com.bankwebapp.metrics.ServiceMetrics;
+import com.bankwebapp.metrics.ServiceOperation;
+import com.bankwebapp.models.Account;
 import com.bankwebapp.models.City;
 import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.AccountRepository;
 import com.bankwebapp.repositories.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class CustomerService {
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_SEARCH_RESULTS = 100;
+
     private final CustomerRepository customerRepository;
     private final CustomerDtoConverter customerDtoConverter;
-    public CustomerService(CustomerRepository customerRepository, CustomerDtoConverter customerDtoConverter) {
+    private final EntityManager entityManager;
+    private final ReadThroughCache<String, CustomerDto> customerCache;
+    private final ServiceMetrics metrics;
+    private final AccountRepository accountRepository;
+    private final AccountDtoConverter accountDtoConverter;
+    private final AccountCleanupService accountCleanupService;
+    private final CustomerSearchIndex customerSearchIndex;
+    public CustomerService(CustomerRepository customerRepository, CustomerDtoConverter customerDtoConverter, EntityManager entityManager,
+                           ReadThroughCache<String, CustomerDto> customerCache, ServiceMetrics metrics,
+                           AccountRepository accountRepository, AccountDtoConverter accountDtoConverter, AccountCleanupService accountCleanupService,
+                           CustomerSearchIndex customerSearchIndex) {
         this.customerRepository = customerRepository;
         this.customerDtoConverter = customerDtoConverter;
+        this.entityManager = entityManager;
+        this.customerCache = customerCache;
+        this.metrics = metrics;
+        this.accountRepository = accountRepository;
+        this.accountDtoConverter = accountDtoConverter;
+        this.accountCleanupService = accountCleanupService;
+        this.customerSearchIndex = customerSearchIndex;
     }
 
 
     public CustomerDto createCustomer (CreateCustomerRequest customerRequest){
-
-        Customer customer = new Customer();
-        customer.setId(customerRequest.getId());
-        customer.setName(customerRequest.getName());
-        customer.setAddres(customerRequest.getAddres());
-        customer.setDateofBirth(customerRequest.getDateofBirth());
-        customer.setCity(City.valueOf(customerRequest.getCity().name()));
-
-        Customer savedCustomer = customerRepository.save(customer);
-
-        return customerDtoConverter.getCustomerDto(savedCustomer);
+        long startedAt = metrics.start();
+        try {
+            Customer customer = new Customer();
+            customer.setId(customerRequest.getId());
+            customer.setName(customerRequest.getName());
+            customer.setAddres(customerRequest.getAddres());
+            customer.setDateofBirth(customerRequest.getDateofBirth());
+            customer.setCity(City.valueOf(customerRequest.getCity().name()));
+
+            Customer savedCustomer = customerRepository.save(customer);
+            customerCache.evict(savedCustomer.getId());
+
+            CustomerDto customerDto = customerDtoConverter.getCustomerDto(savedCustomer);
+            customerSearchIndex.put(customerDto);
+            return customerDto;
+        } finally {
+            metrics.stop(ServiceOperation.CUSTOMER_CREATE, startedAt);
+        }
     }
 
     public List<CustomerDto> getAllCustomers(){
+        long startedAt = metrics.start();
+        try {
+            List<Customer> customers = customerRepository.findAll();
+            List <CustomerDto> customerDtos = new ArrayList<>();
+            for (Customer customer : customers){
+                customerDtos.add(customerDtoConverter.getCustomerDto(customer));
+            }
+            return customerDtos;
+        } finally {
+            metrics.stop(ServiceOperation.CUSTOMER_GET_ALL, startedAt);
+        }
+    }
 
-        List<Customer> customers = customerRepository.findAll();
-        List <CustomerDto> customerDtos = new ArrayList<>();
-        for (Customer customer : customers){
-            customerDtos.add(customerDtoConverter.getCustomerDto(customer));
+    public KeysetPageDto<CustomerDto> getCustomersPage(String after, int limit){
+        long startedAt = metrics.start();
+        try {
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            List<CustomerDto> customerDtos = new ArrayList<>();
+            for (Customer customer : customerRepository.findByIdGreaterThanOrderByIdAsc(after == null ? "" : after, Limit.of(pageSize))){
+                customerDtos.add(customerDtoConverter.getCustomerDto(customer));
+            }
+            return KeysetPageDto.of(customerDtos, pageSize, CustomerDto::getId);
+        } finally {
+            metrics.stop(ServiceOperation.CUSTOMER_GET_PAGE, startedAt);
         }
-        return customerDtos;
     }
 
-    public CustomerDto getCustomerById(String id){
+    /**
+     * Customers whose name or address contains every word of the query, from the in-memory search index;
+     * see {@link CustomerSearchIndex} for the matching rules and ranking.
+     */
+    public boolean isSearchEnabled() {
+        return customerSearchIndex.isEnabled();
+    }
+
+    public List<CustomerDto> searchCustomers(String query, int limit){
+        long startedAt = metrics.start();
+        try {
+            return customerSearchIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+        } finally {
+            metrics.stop(ServiceOperation.CUSTOMER_SEARCH, startedAt);
+        }
+    }
 
-        Optional<Customer> customerOptional = customerRepository.findById(id);
-        return customerOptional.map( customerDtoConverter::getCustomerDto).orElse(new CustomerDto());
+    /**
+     * One page of customers with their accounts, read in two queries however many customers the page holds:
+     * the page itself, then the accounts of all of its customers at once.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDto<CustomerWithAccountsDto> getCustomersPageWithAccounts(String after, int limit){
+        long startedAt = metrics.start();
+        try {
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            List<Customer> customers = customerRepository.findByIdGreaterThanOrderByIdAsc(after == null ? "" : after, Limit.of(pageSize));
+            Map<String, List<AccountDto>> accountsByCustomer = new HashMap<>();
+            if (!customers.isEmpty()) {
+                List<String> ids = customers.stream().map(Customer::getId).toList();
+                for (Account account : accountRepository.findByCustomerIdInOrderByCustomerIdAscIdAsc(ids)) {
+                    accountsByCustomer.computeIfAbsent(account.getCustomerId(), id -> new ArrayList<>()).add(accountDtoConverter.convert(account));
+                }
+            }
+            List<CustomerWithAccountsDto> items = new ArrayList<>(customers.size());
+            for (Customer customer : customers) {
+                items.add(withAccounts(customerDtoConverter.getCustomerDto(customer), accountsByCustomer.getOrDefault(customer.getId(), List.of())));
+            }
+            return KeysetPageDto.of(items, pageSize, CustomerWithAccountsDto::getId);
+        } finally {
+            metrics.stop(ServiceOperation.CUSTOMER_GET_PAGE_WITH_ACCOUNTS, startedAt);
+        }
+    }
 
+    /**
+     * Feeds every customer, in id order, to the consumer while holding at most one fetch batch in memory.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllCustomers(Consumer<CustomerDto> consumer){
+        long startedAt = metrics.start();
+        try {
+            try (Stream<Customer> customers = customerRepository.streamAllByOrderByIdAsc()) {
+                customers.forEach(customer -> {
+                    consumer.accept(customerDtoConverter.getCustomerDto(customer));
+                    entityManager.detach(customer);
+                });
+            }
+        } finally {
+            metrics.stop(ServiceOperation.CUSTOMER_STREAM_ALL, startedAt);
+        }
     }
 
-    public void deleteCustomerById(String id) {
-        customerRepository.deleteById(id);
+    public CustomerDto getCustomerById(String id){
+        long startedAt = metrics.start();
+        try {
+            CustomerDto customer = customerCache.get(id, this::loadCustomer);
+            return customer != null ? customer : new CustomerDto();
+        } finally {
+            metrics.stop(ServiceOperation.CUSTOMER_GET_BY_ID, startedAt);
+        }
+    }
 
+    /**
+     * The customer and all of its accounts; the customer comes from the cache when it is there. Returns an
+     * empty customer when there is no such id.
+     */
+    public CustomerWithAccountsDto getCustomerWithAccounts(String id){
+        long startedAt = metrics.start();
+        try {
+            CustomerDto customer = customerCache.get(id, this::loadCustomer);
+            if (customer == null) {
+                return new CustomerWithAccountsDto();
+            }
+            List<AccountDto> accounts = new ArrayList<>();
+            for (Account account : accountRepository.findByCustomerIdOrderByCustomerIdAscIdAsc(id)) {
+                accounts.add(accountDtoConverter.convert(account));
+            }
+            return withAccounts(customer, accounts);
+        } finally {
+            metrics.stop(ServiceOperation.CUSTOMER_GET_WITH_ACCOUNTS, startedAt);
+        }
     }
 
-    public CustomerDto updateCustomer(String id, UpdateCustomerRequest updateCustomerRequest) {
+    static CustomerWithAccountsDto withAccounts(CustomerDto customer, List<AccountDto> accounts){
+        return CustomerWithAccountsDto.builder()
+                .id(customer.getId())
+                .name(customer.getName())
+                .dateofBirth(customer.getDateofBirth())
+                .addres(customer.getAddres())
+                .city(customer.getCity())
+                .accounts(accounts)
+                .build();
+    }
 
+    private CustomerDto loadCustomer(String id){
+        return customerRepository.findById(id).map( customerDtoConverter::getCustomerDto).orElse(null);
+    }
 
-        Optional<Customer> customerOptional = customerRepository.findById(id);
+    /**
+     * Cheap existence check for write paths that only need to know the customer is there.
+     */
+    public boolean existsCustomerById(String id){
+        long startedAt = metrics.start();
+        try {
+            return id != null && !id.isEmpty() && customerRepository.existsById(id);
+        } finally {
+            metrics.stop(ServiceOperation.CUSTOMER_EXISTS, startedAt);
+        }
+    }
 
-        customerOptional.ifPresent(customer -> {customer.setName( updateCustomerRequest.getName() );
-            customer.setCity(City.valueOf(updateCustomerRequest.getCity().name()));
-            customer.setAddres( updateCustomerRequest.getAddres() );
-            customer.setDateofBirth(updateCustomerRequest.getDateofBirth());
-            customerRepository.save(customer);
-        });
+    /**
+     * Deletes the customer together with all of its accounts, the accounts in a single bulk statement.
+     */
+    @Transactional
+    public void deleteCustomerById(String id) {
+        long startedAt = metrics.start();
+        try {
+            accountCleanupService.deleteAccountsOfCustomer(id);
+            customerRepository.deleteById(id);
+            customerCache.evict(id);
+            customerSearchIndex.remove(id);
+        } finally {
+            metrics.stop(ServiceOperation.CUSTOMER_DELETE, startedAt);
+        }
+    }
 
+    public CustomerDto updateCustomer(String id, UpdateCustomerRequest updateCustomerRequest) {
+        long startedAt = metrics.start();
+        try {
+            Optional<Customer> customerOptional = customerRepository.findById(id);
+
+            customerOptional.ifPresent(customer -> {customer.setName( updateCustomerRequest.getName() );
+                customer.setCity(City.valueOf(updateCustomerRequest.getCity().name()));
+                customer.setAddres( updateCustomerRequest.getAddres() );
+                customer.setDateofBirth(updateCustomerRequest.getDateofBirth());
+                customerRepository.save(customer);
+                customerCache.evict(id);
+            });
+
+
+            Optional<CustomerDto> customerDto = customerOptional.map(customerDtoConverter::getCustomerDto);
+            customerDto.ifPresent(customerSearchIndex::put);
+            return customerDto.orElse(new CustomerDto());
+        } finally {
+            metrics.stop(ServiceOperation.CUSTOMER_UPDATE, startedAt);
+        }
+    }
 
-        return customerOptional.map( customerDtoConverter::getCustomerDto).orElse(new CustomerDto());
+    /**
+     * Changes only the supplied fields with a single UPDATE that also returns the new row, so the customer
+     * is never loaded first.
+     */
+    @Transactional
+    public CustomerDto patchCustomer(String id, PatchCustomerRequest patchCustomerRequest) {
+        long startedAt = metrics.start();
+        try {
+            City city = patchCustomerRequest.getCity() == null ? null : City.valueOf(patchCustomerRequest.getCity().name());
+            Optional<Customer> customerOptional = customerRepository.patch(id, patchCustomerRequest.getName(),
+                    patchCustomerRequest.getDateofBirth(), patchCustomerRequest.getAddres(), city);
+            customerCache.evict(id);
+            Optional<CustomerDto> customerDto = customerOptional.map(customerDtoConverter::getCustomerDto);
+            customerDto.ifPresent(customerSearchIndex::put);
+            return customerDto.orElse(new CustomerDto());
+        } finally {
+            metrics.stop(ServiceOperation.CUSTOMER_PATCH, startedAt);
+        }
     }
 
     protected Customer getCustomerDtoById  (String id){
@@ -0,0 +1,297 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.cache.ReadThroughCache;
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.Money;
+import com.bankwebapp.repositories.AccountRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind buffer for deposits, enabled with {@code bankwebapp.write-behind.enabled}.
+ * <p>
+ * Deposits are summed per account in memory and acknowledged straight away. A background thread writes
+ * them every {@code bankwebapp.write-behind.flush-interval}, or as soon as
+ * {@code bankwebapp.write-behind.max-pending} deposits are waiting, in one transaction per flush: the
+ * accounts are locked in id order, updated as one JDBC batch and get one ledger entry each for the sum
+ * of their deposits. A failed flush puts its deltas back for the next one. Flushes commit in a transaction
+ * of their own even when called from within one, such as before an account is deleted. Once the buffer is
+ * stopped, deposits are written straight away in the caller's thread.
+ * <p>
+ * Acknowledged deposits are lost if the process dies before they are flushed; callers that need them
+ * on disk call {@link #flush()}. {@link #withPending} adds the deltas not yet committed to a balance read
+ * from the table, under a lock the flusher holds while it commits, so a delta is never counted twice
+ * or missed; its non-blocking variant instead reads again when a commit overlapped the read. Other reads,
+ * and withdrawals, only see deposits once they are flushed.
+ */
+@Component
+public class DepositBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(DepositBuffer.class);
+
+    private final AccountRepository accountRepository;
+    private final LedgerService ledgerService;
+    private final AccountStatistics statistics;
+    private final ReadThroughCache<String, AccountDto> accountCache;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration flushInterval;
+    private final int maxPending;
+
+    // Deltas accepted since the last flush started, and those of the flush being written; guarded by this
+    private Map<String, Long> pending = new HashMap<>();
+    private Map<String, Long> flushing = Map.of();
+    private int pendingDeposits;
+    private boolean stopped;
+
+    private final Object flushLock = new Object();
+    private final ReadWriteLock commitLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    // Odd while a flush commits, so non-blocking reads can tell a commit overlapped them
+    private final AtomicLong commitVersion = new AtomicLong();
+    private ScheduledExecutorService flusher;
+
+    public DepositBuffer(AccountRepository accountRepository, LedgerService ledgerService, AccountStatistics statistics,
+                         ReadThroughCache<String, AccountDto> accountCache, PlatformTransactionManager transactionManager,
+                         @Value("${bankwebapp.write-behind.enabled:false}") boolean enabled,
+                         @Value("${bankwebapp.write-behind.flush-interval:50ms}") Duration flushInterval,
+                         @Value("${bankwebapp.write-behind.max-pending:1000}") int maxPending) {
+        this.accountRepository = accountRepository;
+        this.ledgerService = ledgerService;
+        this.statistics = statistics;
+        this.accountCache = accountCache;
+        this.transactionTemplate = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        if (transactionTemplate != null) {
+            transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        }
+        this.enabled = enabled;
+        this.flushInterval = flushInterval;
+        this.maxPending = maxPending;
+    }
+
+    public static DepositBuffer disabled() {
+        return new DepositBuffer(null, null, null, null, null, false, Duration.ZERO, 0);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "deposit-group-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = flushInterval.toNanos();
+        flusher.scheduleWithFixedDelay(this::flushInBackground, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops the background flushes and writes what is still pending; later deposits are written as they come.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        synchronized (this) {
+            stopped = true;
+        }
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds a deposit to the buffer. The caller has checked that the account exists.
+     */
+    public void add(String accountId, long amount) {
+        boolean direct;
+        boolean full = false;
+        synchronized (this) {
+            direct = stopped;
+            if (!direct) {
+                pending.merge(accountId, amount, Money::add);
+                full = ++pendingDeposits >= maxPending;
+            }
+        }
+        if (direct) {
+            writeNow(accountId, amount);
+            return;
+        }
+        if (full && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushInBackground);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the final flush in stop() writes the deposit
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Reads an account through {@code loader} and adds the deposits not yet committed to its balance.
+     */
+    public AccountDto withPending(String accountId, Supplier<AccountDto> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        commitLock.readLock().lock();
+        try {
+            AccountDto account = loader.get();
+            if (account == null) {
+                return null;
+            }
+            return plusPending(account);
+        } finally {
+            commitLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Like {@link #withPending(String, Supplier)} for a non-blocking read, which cannot hold the commit lock
+     * across the query: the read is repeated if a flush committed while it ran.
+     */
+    public Mono<AccountDto> withPending(String accountId, Mono<AccountDto> loader) {
+        if (!enabled) {
+            return loader;
+        }
+        return Mono.defer(() -> {
+                    long version = commitVersion.get();
+                    if ((version & 1) != 0) {
+                        return Mono.error(new CommitOverlapped());
+                    }
+                    return loader.flatMap(account -> {
+                        AccountDto result = account.getId() == null ? account : plusPending(account);
+                        return commitVersion.get() == version ? Mono.just(result) : Mono.error(new CommitOverlapped());
+                    });
+                })
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, Duration.ofMillis(1)).filter(CommitOverlapped.class::isInstance));
+    }
+
+    /**
+     * Durability barrier: returns once every deposit accepted before the call is committed, writing them
+     * now rather than waiting for the next background flush.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<String, Long> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                flushing = batch;
+                pending = new HashMap<>();
+                pendingDeposits = 0;
+            }
+            commitLock.writeLock().lock();
+            commitVersion.incrementAndGet();
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(batch));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    batch.forEach((accountId, delta) -> pending.merge(accountId, delta, Money::add));
+                }
+                throw e;
+            } finally {
+                synchronized (this) {
+                    flushing = Map.of();
+                }
+                commitVersion.incrementAndGet();
+                batch.keySet().forEach(accountCache::evict);
+                commitLock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes a deposit that arrived after {@link #stop()}, when no flush would come for it any more.
+     * A failure reaches the caller, who has not been acknowledged yet.
+     */
+    private void writeNow(String accountId, long amount) {
+        synchronized (flushLock) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(Map.of(accountId, amount)));
+            } finally {
+                accountCache.evict(accountId);
+            }
+        }
+    }
+
+    private AccountDto plusPending(AccountDto account) {
+        long delta;
+        synchronized (this) {
+            delta = Money.add(flushing.getOrDefault(account.getId(), 0L), pending.getOrDefault(account.getId(), 0L));
+        }
+        if (delta == 0) {
+            return account;
+        }
+        return AccountDto.builder()
+                .id(account.getId())
+                .customerId(account.getCustomerId())
+                .balance(Money.add(account.getBalance(), delta))
+                .currency(account.getCurrency())
+                .build();
+    }
+
+    private void flushInBackground() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Buffered deposits could not be written, retrying with the next flush: {}", e.getMessage());
+        }
+    }
+
+    private void write(Map<String, Long> batch) {
+        Set<String> missing = new HashSet<>(batch.keySet());
+        for (Account account : accountRepository.findByIdInOrderByIdAsc(batch.keySet())) {
+            long delta = batch.get(account.getId());
+            account.setBalance(Money.add(account.getBalance(), delta));
+            ledgerService.record(account.getId(), delta);
+            statistics.balanceChanged(account, delta);
+            missing.remove(account.getId());
+        }
+        if (!missing.isEmpty()) {
+            log.warn("Dropped buffered deposits to accounts deleted before the flush: {}", missing);
+        }
+    }
+
+    private static final class CommitOverlapped extends RuntimeException {
+
+        CommitOverlapped() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.bankwebapp.services;
+
+
+import com.bankwebapp.dtos.KeysetPageDto;
+import com.bankwebapp.dtos.LedgerEntryDto;
+import com.bankwebapp.models.BalanceSnapshot;
+import com.bankwebapp.models.LedgerEntry;
+import com.bankwebapp.repositories.BalanceSnapshotRepository;
+import com.bankwebapp.repositories.LedgerEntryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only history of balance changes. {@code Account.balance} stays the materialized value the hot
+ * paths update; the ledger can rebuild it from the latest snapshot plus the entries after it.
+ */
+@Service
+public class LedgerService {
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final Duration settleLag;
+
+    public LedgerService(LedgerEntryRepository ledgerEntryRepository, BalanceSnapshotRepository balanceSnapshotRepository,
+                         @Value("${bankwebapp.ledger.settle-lag:60s}") Duration settleLag) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.settleLag = settleLag;
+    }
+
+    /**
+     * Appends an entry in the caller's transaction. The insert is only flushed on commit, together with
+     * the other entries of that transaction, as one JDBC batch.
+     */
+    public void record(String accountId, long delta) {
+        ledgerEntryRepository.save(LedgerEntry.builder()
+                .accountId(accountId)
+                .delta(delta)
+                .createdAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Whether the account id has any entries or a snapshot; they stay behind when the account is deleted.
+     */
+    @Transactional(readOnly = true)
+    public boolean hasHistory(String accountId) {
+        return balanceSnapshotRepository.existsById(accountId) || ledgerEntryRepository.existsByAccountId(accountId);
+    }
+
+    public KeysetPageDto<LedgerEntryDto> getHistory(String accountId, Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<LedgerEntryDto> entries = ledgerEntryRepository.findByAccountIdAndIdGreaterThanOrderByAccountIdAscIdAsc(accountId, after == null ? 0 : after, Limit.of(pageSize))
+                .stream().map(LedgerService::toDto).collect(Collectors.toList());
+        return KeysetPageDto.of(entries, pageSize, entry -> String.valueOf(entry.getSequence()));
+    }
+
+    /**
+     * Recomputes the balance from the ledger alone: the account's snapshot plus every entry after it.
+     */
+    @Transactional(readOnly = true)
+    public long rebuildBalance(String accountId) {
+        Optional<BalanceSnapshot> snapshot = balanceSnapshotRepository.findById(accountId);
+        long base = snapshot.map(BalanceSnapshot::getBalance).orElse(0L);
+        long lastEntryId = snapshot.map(BalanceSnapshot::getLastEntryId).orElse(0L);
+        return base + ledgerEntryRepository.sumDeltasAfter(accountId, lastEntryId);
+    }
+
+    /**
+     * Folds every entry older than the settle lag into the snapshots. Entries younger than that are left
+     * for the next run, so a transaction that drew a lower sequence number but commits later is not skipped.
+     *
+     * @return the number of snapshots written
+     */
+    @Transactional
+    public int takeSnapshot() {
+        long from = balanceSnapshotRepository.findWatermark();
+        long to = ledgerEntryRepository.findLastIdCreatedUpTo(Instant.now().minus(settleLag));
+        if (to <= from) {
+            return 0;
+        }
+        return balanceSnapshotRepository.advance(from, to);
+    }
+
+    private static LedgerEntryDto toDto(LedgerEntry entry) {
+        return LedgerEntryDto.builder()
+                .sequence(entry.getId())
+                .accountId(entry.getAccountId())
+                .delta(entry.getDelta())
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,19 @@
+package com.bankwebapp.services;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LedgerSnapshotScheduler {
+
+    private final LedgerService ledgerService;
+
+    public LedgerSnapshotScheduler(LedgerService ledgerService) {
+        this.ledgerService = ledgerService;
+    }
+
+    @Scheduled(initialDelayString = "${bankwebapp.ledger.snapshot-interval:PT5M}", fixedDelayString = "${bankwebapp.ledger.snapshot-interval:PT5M}")
+    public void takeSnapshot() {
+        ledgerService.takeSnapshot();
+    }
+}
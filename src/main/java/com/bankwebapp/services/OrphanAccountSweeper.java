@@ -0,0 +1,128 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.repositories.AccountRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes accounts left without a customer, for instance by an account created while its customer was
+ * being deleted. The sweep walks the account ids in chunks of {@code bankwebapp.orphans.chunk-size},
+ * each checked and cleaned in its own short transaction, and sleeps between chunks so it never reads
+ * more than {@code bankwebapp.orphans.rows-per-second} accounts per second.
+ * <p>
+ * It runs every {@code bankwebapp.orphans.sweep-interval} on a thread of its own rather than through
+ * {@code @Scheduled}: Spring's scheduler has a single thread, and a paced sweep of a large table holds
+ * its thread for minutes, which would hold back the rate reloads, statistics reconciliation and ledger
+ * snapshots.
+ */
+@Component
+public class OrphanAccountSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(OrphanAccountSweeper.class);
+
+    private final AccountRepository accountRepository;
+    private final AccountCleanupService accountCleanupService;
+    private final int chunkSize;
+    private final long nanosPerRow;
+    private final Duration sweepInterval;
+    private ScheduledExecutorService sweeper;
+
+    public OrphanAccountSweeper(AccountRepository accountRepository, AccountCleanupService accountCleanupService,
+                                @Value("${bankwebapp.orphans.chunk-size:500}") int chunkSize,
+                                @Value("${bankwebapp.orphans.rows-per-second:5000}") int rowsPerSecond,
+                                @Value("${bankwebapp.orphans.sweep-interval:PT1H}") Duration sweepInterval) {
+        this.accountRepository = accountRepository;
+        this.accountCleanupService = accountCleanupService;
+        this.chunkSize = chunkSize;
+        // Zero or less turns the rate limit off
+        this.nanosPerRow = rowsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / rowsPerSecond : 0;
+        this.sweepInterval = sweepInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "orphan-account-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = sweepInterval.toNanos();
+        sweeper.scheduleWithFixedDelay(this::sweepInBackground, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Interrupts a sweep in progress, which stops after its current chunk.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (sweeper == null) {
+            return;
+        }
+        sweeper.shutdownNow();
+        sweeper.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return the number of orphaned accounts deleted
+     */
+    public int sweep() {
+        int deleted = 0;
+        String after = "";
+        List<String> ids;
+        do {
+            long chunkStartedAt = System.nanoTime();
+            ids = accountRepository.findIdsAfter(after, Limit.of(chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            deleted += accountCleanupService.deleteOrphans(ids);
+            after = ids.get(ids.size() - 1);
+            if (!pace(chunkStartedAt, ids.size())) {
+                break;
+            }
+        } while (ids.size() == chunkSize);
+        if (deleted > 0) {
+            log.info("Deleted {} accounts without a customer", deleted);
+        }
+        return deleted;
+    }
+
+    private void sweepInBackground() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            // A failed run would otherwise cancel every later one
+            log.warn("Orphaned account sweep failed, retrying at the next interval: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sleeps out the rest of the time the chunk is allowed to take.
+     *
+     * @return false when interrupted, so the sweep stops and resumes on the next run
+     */
+    private boolean pace(long chunkStartedAt, int rows) {
+        long remaining = chunkStartedAt + rows * nanosPerRow - System.nanoTime();
+        if (remaining <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
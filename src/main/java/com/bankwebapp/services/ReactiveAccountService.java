@@ -0,0 +1,79 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.AccountDtoConverter;
+import com.bankwebapp.dtos.KeysetPageDto;
+import com.bankwebapp.metrics.ServiceMetrics;
+import com.bankwebapp.metrics.ServiceOperation;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.repositories.ReactiveAccountRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking account reads behind {@code /rx/account}, with the same results as {@link AccountService}.
+ * They go to the table directly, bypassing the blocking read-through cache; like the servlet API, a read
+ * by id adds the deposits still pending in the write-behind buffer.
+ */
+@Service
+public class ReactiveAccountService {
+    static final int STREAM_CHUNK_SIZE = 500;
+
+    private final ReactiveAccountRepository accountRepository;
+    private final AccountDtoConverter accountDtoConverter;
+    private final ServiceMetrics metrics;
+    private final DepositBuffer depositBuffer;
+
+    public ReactiveAccountService(ReactiveAccountRepository accountRepository, AccountDtoConverter accountDtoConverter, ServiceMetrics metrics,
+                                  DepositBuffer depositBuffer) {
+        this.accountRepository = accountRepository;
+        this.accountDtoConverter = accountDtoConverter;
+        this.metrics = metrics;
+        this.depositBuffer = depositBuffer;
+    }
+
+    public Mono<AccountDto> getAccountById(String id) {
+        return metrics.timed(ServiceOperation.ACCOUNT_RX_GET_BY_ID, depositBuffer.withPending(id, accountRepository.findById(id)
+                .map(accountDtoConverter::convert))
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    metrics.accountNotFound();
+                    return AccountDto.builder().build();
+                })));
+    }
+
+    public Mono<KeysetPageDto<AccountDto>> getAccountsPage(String after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, AccountService.MAX_PAGE_SIZE));
+        return metrics.timed(ServiceOperation.ACCOUNT_RX_GET_PAGE,
+                page(accountRepository.findByIdGreaterThanOrderByIdAsc(after == null ? "" : after, pageSize), pageSize));
+    }
+
+    public Mono<KeysetPageDto<AccountDto>> getAccountsByCustomerId(String customerId, String after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, AccountService.MAX_PAGE_SIZE));
+        return metrics.timed(ServiceOperation.ACCOUNT_RX_GET_BY_CUSTOMER_ID,
+                page(accountRepository.findByCustomerIdAndIdGreaterThanOrderByIdAsc(customerId, after == null ? "" : after, pageSize), pageSize));
+    }
+
+    /**
+     * Every account in id order, read one keyset chunk at a time as the subscriber asks for more, so a slow
+     * client holds back the reads instead of letting rows pile up in memory.
+     */
+    public Flux<AccountDto> streamAllAccounts() {
+        return metrics.timed(ServiceOperation.ACCOUNT_RX_STREAM_ALL, chunk("")
+                .expand(chunk -> chunk.size() < STREAM_CHUNK_SIZE ? Mono.empty() : chunk(chunk.get(chunk.size() - 1).getId()))
+                .concatMapIterable(chunk -> chunk, 1)
+                .map(accountDtoConverter::convert));
+    }
+
+    private Mono<List<Account>> chunk(String after) {
+        return accountRepository.findByIdGreaterThanOrderByIdAsc(after, STREAM_CHUNK_SIZE).collectList();
+    }
+
+    private Mono<KeysetPageDto<AccountDto>> page(Flux<Account> accounts, int pageSize) {
+        return accounts.map(accountDtoConverter::convert)
+                .collectList()
+                .map(items -> KeysetPageDto.of(items, pageSize, AccountDto::getId));
+    }
+}
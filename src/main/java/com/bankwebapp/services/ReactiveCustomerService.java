@@ -0,0 +1,105 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.cache.ReadThroughCache;
+import com.bankwebapp.dtos.AccountDtoConverter;
+import com.bankwebapp.dtos.CreateCustomerRequest;
+import com.bankwebapp.dtos.CustomerDto;
+import com.bankwebapp.dtos.CustomerDtoConverter;
+import com.bankwebapp.dtos.CustomerWithAccountsDto;
+import com.bankwebapp.dtos.KeysetPageDto;
+import com.bankwebapp.metrics.ServiceMetrics;
+import com.bankwebapp.metrics.ServiceOperation;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.ReactiveAccountRepository;
+import com.bankwebapp.repositories.ReactiveCustomerRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking customer reads and creation behind {@code /rx/customer}, with the same results as
+ * {@link CustomerService}. Reads go to the table directly; creating a customer still evicts it from the
+ * servlet API's cache and updates the search index.
+ */
+@Service
+public class ReactiveCustomerService {
+
+    private final ReactiveCustomerRepository customerRepository;
+    private final ReactiveAccountRepository accountRepository;
+    private final CustomerDtoConverter customerDtoConverter;
+    private final AccountDtoConverter accountDtoConverter;
+    private final ReadThroughCache<String, CustomerDto> customerCache;
+    private final ServiceMetrics metrics;
+    private final CustomerSearchIndex customerSearchIndex;
+
+    public ReactiveCustomerService(ReactiveCustomerRepository customerRepository, ReactiveAccountRepository accountRepository,
+                                   CustomerDtoConverter customerDtoConverter, AccountDtoConverter accountDtoConverter,
+                                   ReadThroughCache<String, CustomerDto> customerCache, ServiceMetrics metrics,
+                                   CustomerSearchIndex customerSearchIndex) {
+        this.customerRepository = customerRepository;
+        this.accountRepository = accountRepository;
+        this.customerDtoConverter = customerDtoConverter;
+        this.accountDtoConverter = accountDtoConverter;
+        this.customerCache = customerCache;
+        this.metrics = metrics;
+        this.customerSearchIndex = customerSearchIndex;
+    }
+
+    public Mono<CustomerDto> createCustomer(CreateCustomerRequest customerRequest) {
+        Customer customer = Customer.builder()
+                .id(customerRequest.getId())
+                .name(customerRequest.getName())
+                .addres(customerRequest.getAddres())
+                .dateofBirth(customerRequest.getDateofBirth())
+                .city(City.valueOf(customerRequest.getCity().name()))
+                .build();
+        return metrics.timed(ServiceOperation.CUSTOMER_RX_CREATE, customerRepository.save(customer)
+                .doOnNext(saved -> customerCache.evict(saved.getId()))
+                .map(customerDtoConverter::getCustomerDto)
+                .doOnNext(customerSearchIndex::put));
+    }
+
+    public Mono<CustomerDto> getCustomerById(String id) {
+        return metrics.timed(ServiceOperation.CUSTOMER_RX_GET_BY_ID, customerRepository.findById(id)
+                .map(customerDtoConverter::getCustomerDto)
+                .defaultIfEmpty(new CustomerDto()));
+    }
+
+    /**
+     * The customer and all of its accounts, or an empty customer when there is no such id.
+     */
+    public Mono<CustomerWithAccountsDto> getCustomerWithAccounts(String id) {
+        return metrics.timed(ServiceOperation.CUSTOMER_RX_GET_WITH_ACCOUNTS, customerRepository.findById(id)
+                .flatMap(customer -> accountRepository.findByCustomerIdOrderByIdAsc(id)
+                        .map(accountDtoConverter::convert)
+                        .collectList()
+                        .map(accounts -> CustomerService.withAccounts(customerDtoConverter.getCustomerDto(customer), accounts)))
+                .defaultIfEmpty(new CustomerWithAccountsDto()));
+    }
+
+    public Mono<KeysetPageDto<CustomerDto>> getCustomersPage(String after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, CustomerService.MAX_PAGE_SIZE));
+        return metrics.timed(ServiceOperation.CUSTOMER_RX_GET_PAGE,
+                customerRepository.findByIdGreaterThanOrderByIdAsc(after == null ? "" : after, pageSize)
+                        .map(customerDtoConverter::getCustomerDto)
+                        .collectList()
+                        .map(items -> KeysetPageDto.of(items, pageSize, CustomerDto::getId)));
+    }
+
+    /**
+     * Every customer in id order, read one keyset chunk at a time as the subscriber asks for more.
+     */
+    public Flux<CustomerDto> streamAllCustomers() {
+        return metrics.timed(ServiceOperation.CUSTOMER_RX_STREAM_ALL, chunk("")
+                .expand(chunk -> chunk.size() < ReactiveAccountService.STREAM_CHUNK_SIZE ? Mono.empty() : chunk(chunk.get(chunk.size() - 1).getId()))
+                .concatMapIterable(chunk -> chunk, 1)
+                .map(customerDtoConverter::getCustomerDto));
+    }
+
+    private Mono<List<Customer>> chunk(String after) {
+        return customerRepository.findByIdGreaterThanOrderByIdAsc(after, ReactiveAccountService.STREAM_CHUNK_SIZE).collectList();
+    }
+}
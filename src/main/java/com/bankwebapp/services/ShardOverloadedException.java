@@ -0,0 +1,12 @@
+package com.bankwebapp.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ShardOverloadedException extends RuntimeException {
+
+    public ShardOverloadedException(String message) {
+        super(message);
+    }
+}
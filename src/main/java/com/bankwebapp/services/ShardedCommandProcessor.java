@@ -0,0 +1,246 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.TransactionRequest;
+import com.bankwebapp.dtos.TransactionType;
+import com.bankwebapp.dtos.TransferRequest;
+import com.bankwebapp.dtos.TransferResultDto;
+import com.bankwebapp.models.Currency;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Optional single-writer engine for withdrawals, deposits and transfers, enabled with
+ * {@code bankwebapp.shards.enabled}.
+ * <p>
+ * Commands are routed by a hash of the account id (the source account for a transfer) to one of
+ * {@code bankwebapp.shards.count} shards. Each shard is one thread draining a bounded queue of
+ * {@code bankwebapp.shards.queue-capacity} commands, so the commands of an account run one at a time and
+ * in arrival order, and request threads no longer wait on each other's row locks. A shard takes up to
+ * {@code bankwebapp.shards.max-batch} queued withdrawals and deposits at once and commits them in one
+ * transaction through {@link AccountService#applyOperations}. When such a batch fails, its operations
+ * are retried one per transaction, so only the one at fault fails. A transfer runs in a transaction of
+ * its own, since its second account may belong to another shard, and so does a withdrawal or deposit in
+ * another currency than the account's, which is converted under the row lock. The database stays the
+ * source of truth and rows are still locked, so the other write paths remain safe alongside the shards.
+ */
+@Component
+public class ShardedCommandProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedCommandProcessor.class);
+
+    private final AccountService accountService;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final List<BlockingQueue<Command>> queues = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean stopped;
+
+    public ShardedCommandProcessor(AccountService accountService,
+                                   @Value("${bankwebapp.shards.enabled:false}") boolean enabled,
+                                   @Value("${bankwebapp.shards.count:4}") int shards,
+                                   @Value("${bankwebapp.shards.queue-capacity:1024}") int queueCapacity,
+                                   @Value("${bankwebapp.shards.max-batch:64}") int maxBatch) {
+        this.accountService = accountService;
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        if (enabled) {
+            for (int i = 0; i < shards; i++) {
+                queues.add(new ArrayBlockingQueue<>(queueCapacity));
+            }
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        for (int i = 0; i < queues.size(); i++) {
+            BlockingQueue<Command> queue = queues.get(i);
+            Thread worker = new Thread(() -> run(queue), "account-shard-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Lets every shard finish the commands already queued, then stops it.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        stopped = true;
+        for (BlockingQueue<Command> queue : queues) {
+            queue.put(Command.STOP);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<AccountDto> withdraw(String accountId, long amount) {
+        return withdraw(accountId, amount, null);
+    }
+
+    /**
+     * @param currency the currency of the amount, or {@code null} for the account's own
+     */
+    public CompletableFuture<AccountDto> withdraw(String accountId, long amount, Currency currency) {
+        return submitOperation(new TransactionRequest(accountId, TransactionType.WITHDRAW, amount), currency);
+    }
+
+    public CompletableFuture<AccountDto> deposit(String accountId, long amount) {
+        return deposit(accountId, amount, null);
+    }
+
+    /**
+     * @param currency the currency of the amount, or {@code null} for the account's own
+     */
+    public CompletableFuture<AccountDto> deposit(String accountId, long amount, Currency currency) {
+        return submitOperation(new TransactionRequest(accountId, TransactionType.DEPOSIT, amount), currency);
+    }
+
+    public CompletableFuture<TransferResultDto> transfer(TransferRequest transfer) {
+        Command command = new Command(null, null, transfer);
+        submit(transfer.getFromAccountId(), command);
+        return command.transferResult;
+    }
+
+    private CompletableFuture<AccountDto> submitOperation(TransactionRequest operation, Currency currency) {
+        Command command = new Command(operation, currency, null);
+        submit(operation.getAccountId(), command);
+        return command.operationResult;
+    }
+
+    private void submit(String accountId, Command command) {
+        if (!enabled || stopped) {
+            throw new IllegalStateException("The sharded command processor is not running");
+        }
+        int shard = Math.floorMod(accountId == null ? 0 : accountId.hashCode(), queues.size());
+        if (!queues.get(shard).offer(command)) {
+            throw new ShardOverloadedException("Account shard " + shard + " is full, retry later");
+        }
+    }
+
+    private void run(BlockingQueue<Command> queue) {
+        List<Command> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            boolean stop = execute(batch);
+            batch.clear();
+            if (stop) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs a batch in queue order: each stretch of withdrawals and deposits in one transaction, each transfer
+     * and each withdrawal or deposit in another currency alone.
+     *
+     * @return whether the batch ended with the stop command
+     */
+    private boolean execute(List<Command> batch) {
+        List<Command> operations = new ArrayList<>();
+        for (Command command : batch) {
+            if (command == Command.STOP) {
+                applyOperations(operations);
+                return true;
+            }
+            if (command.operation != null && command.currency == null) {
+                operations.add(command);
+                continue;
+            }
+            applyOperations(operations);
+            operations.clear();
+            if (command.operation != null) {
+                applyConverted(command);
+                continue;
+            }
+            try {
+                command.transferResult.complete(accountService.transfer(command.transfer));
+            } catch (RuntimeException e) {
+                command.transferResult.completeExceptionally(e);
+            }
+        }
+        applyOperations(operations);
+        return false;
+    }
+
+    private void applyOperations(List<Command> commands) {
+        if (commands.isEmpty()) {
+            return;
+        }
+        List<TransactionRequest> operations = new ArrayList<>(commands.size());
+        for (Command command : commands) {
+            operations.add(command.operation);
+        }
+        try {
+            List<AccountDto> results = accountService.applyOperations(operations);
+            for (int i = 0; i < commands.size(); i++) {
+                commands.get(i).operationResult.complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (commands.size() == 1) {
+                commands.get(0).operationResult.completeExceptionally(e);
+                return;
+            }
+            // The whole transaction rolled back; one at a time, only the operation at fault fails
+            log.warn("Batch of {} account operations failed, retrying them one by one: {}", commands.size(), e.getMessage());
+            for (Command command : commands) {
+                applyOperations(List.of(command));
+            }
+        }
+    }
+
+    private void applyConverted(Command command) {
+        TransactionRequest operation = command.operation;
+        try {
+            command.operationResult.complete(operation.getType() == TransactionType.WITHDRAW
+                    ? accountService.withdrawMoney(operation.getAccountId(), operation.getAmount(), command.currency)
+                    : accountService.depositMoney(operation.getAccountId(), operation.getAmount(), command.currency));
+        } catch (RuntimeException e) {
+            command.operationResult.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * A withdrawal or deposit, in the account's currency when {@code currency} is {@code null}, or a
+     * transfer, with the future its caller waits on.
+     */
+    private static final class Command {
+
+        static final Command STOP = new Command(null, null, null);
+
+        final TransactionRequest operation;
+        final Currency currency;
+        final TransferRequest transfer;
+        final CompletableFuture<AccountDto> operationResult;
+        final CompletableFuture<TransferResultDto> transferResult;
+
+        Command(TransactionRequest operation, Currency currency, TransferRequest transfer) {
+            this.operation = operation;
+            this.currency = currency;
+            this.transfer = transfer;
+            this.operationResult = operation == null ? null : new CompletableFuture<>();
+            this.transferResult = transfer == null ? null : new CompletableFuture<>();
+        }
+    }
+}
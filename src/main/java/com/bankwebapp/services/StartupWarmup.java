@@ -0,0 +1,130 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.CustomerDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Runs the common account and customer service paths, enabled with {@code bankwebapp.warmup.enabled},
+ * before the readiness probe reports the application ready. Spring publishes the readiness change only
+ * once the {@link ApplicationReadyEvent} listeners have returned, so the first requests routed here find
+ * the connection pool open, the query plans cached and the hot code compiled.
+ * <p>
+ * Each of {@code bankwebapp.warmup.iterations} rounds reads pages of accounts and customers, one of each
+ * by id, the statistics and, when the search index is enabled, a customer search, and writes the results as JSON the way the controllers would.
+ * A deposit and a withdrawal of one minor unit run against a sampled account in a transaction that is
+ * flushed and then rolled back, so the statements and the ledger insert run without changing any data;
+ * the account statistics only count committed changes. The rounds stop early after
+ * {@code bankwebapp.warmup.max-duration}. The calls are timed like any others, so they show up in the
+ * service metrics.
+ */
+@Component
+public class StartupWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+    private static final int SAMPLE_SIZE = 20;
+    // Customer ids are never blank
+    private static final String MISSING_ID = " warmup";
+
+    private final AccountService accountService;
+    private final CustomerService customerService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate rollingBack;
+    private final boolean enabled;
+    private final int iterations;
+    private final Duration maxDuration;
+
+    public StartupWarmup(AccountService accountService, CustomerService customerService, ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${bankwebapp.warmup.enabled:false}") boolean enabled,
+                         @Value("${bankwebapp.warmup.iterations:500}") int iterations,
+                         @Value("${bankwebapp.warmup.max-duration:20s}") Duration maxDuration) {
+        this.accountService = accountService;
+        this.customerService = customerService;
+        this.objectMapper = objectMapper;
+        this.rollingBack = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * @return the number of rounds run
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int warmUp() {
+        if (!enabled) {
+            return 0;
+        }
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + maxDuration.toNanos();
+        int rounds = 0;
+        try {
+            List<AccountDto> accounts = accountService.getAccountsPage(null, SAMPLE_SIZE).getItems();
+            List<CustomerDto> customers = customerService.getCustomersPage(null, SAMPLE_SIZE).getItems();
+            List<String> accountIds = accounts.stream().map(AccountDto::getId).toList();
+            List<String> customerIds = customers.isEmpty() ? List.of(MISSING_ID) : customers.stream().map(CustomerDto::getId).toList();
+            List<String> queries = customers.stream().map(CustomerDto::getName).filter(name -> name != null && !name.isBlank()).toList();
+            while (rounds < iterations && System.nanoTime() < deadline) {
+                round(rounds, accountIds, customerIds, queries.isEmpty() ? List.of(MISSING_ID) : queries);
+                rounds++;
+            }
+        } catch (RuntimeException e) {
+            // A cold start is slower, not broken; readiness must not depend on the warmup
+            log.warn("Startup warmup stopped after {} rounds: {}", rounds, e.getMessage());
+            return rounds;
+        }
+        log.info("Startup warmup ran {} rounds in {} ms", rounds, (System.nanoTime() - startedAt) / 1_000_000);
+        return rounds;
+    }
+
+    private void round(int round, List<String> accountIds, List<String> customerIds, List<String> queries) {
+        String customerId = customerIds.get(round % customerIds.size());
+        write(accountService.getAccountsPage(round % 2 == 0 ? null : customerId, SAMPLE_SIZE));
+        write(accountService.getAccountsByCustomerId(customerId, null, SAMPLE_SIZE));
+        write(accountService.getStatistics());
+        write(customerService.getCustomerById(customerId));
+        write(customerService.getCustomerWithAccounts(customerId));
+        write(customerService.getCustomersPage(round % 2 == 0 ? null : customerId, SAMPLE_SIZE));
+        if (customerService.isSearchEnabled()) {
+            write(customerService.searchCustomers(queries.get(round % queries.size()), SAMPLE_SIZE));
+        }
+        if (round % SAMPLE_SIZE == 0) {
+            write(customerService.getCustomersPageWithAccounts(null, SAMPLE_SIZE));
+        }
+        // A missing account id would count as a not-found account in the metrics
+        if (accountIds.isEmpty()) {
+            return;
+        }
+        String accountId = accountIds.get(round % accountIds.size());
+        write(accountService.getAccountById(accountId));
+        rollingBack.executeWithoutResult(status -> {
+            write(accountService.depositMoney(accountId, 1));
+            write(accountService.withdrawMoney(accountId, 1));
+            status.flush();
+            status.setRollbackOnly();
+        });
+    }
+
+    private void write(Object value) {
+        try {
+            objectMapper.writeValue(OutputStream.nullOutputStream(), value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.bankwebapp;
+
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.AccountRepository;
+import com.bankwebapp.repositories.CustomerRepository;
+import com.bankwebapp.services.AccountService;
+import com.bankwebapp.services.CustomerService;
+import com.bankwebapp.services.LedgerService;
+import com.bankwebapp.services.ReactiveAccountService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the application twice with the {@code prod} profile on the same data directory.
+ */
+class ProductionProfileTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void whenRestarted_itShouldKeepCustomersAccountsAndCommittedDeposits() {
+        try (ConfigurableApplicationContext context = start()) {
+            context.getBean(CustomerRepository.class).save(Customer.builder().id("prod-customer").name("Jane Roe")
+                    .addres("1 Harbour St").city(City.IZMIR).build());
+            context.getBean(AccountRepository.class).save(Account.builder().id("prod-account").customerId("prod-customer")
+                    .balance(1_000).city(City.IZMIR).currency(Currency.TRY).build());
+            assertEquals(1_500, context.getBean(AccountService.class).depositMoney("prod-account", 500).getBalance());
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            // The warmup of the second start has run against these rows and left them as they were
+            assertEquals(1_500, context.getBean(AccountService.class).getAccountById("prod-account").getBalance());
+            assertEquals(1, context.getBean(LedgerService.class).getHistory("prod-account", null, 10).getItems().size());
+            assertEquals("Jane Roe", context.getBean(CustomerService.class).getCustomerById("prod-customer").getName());
+            assertEquals(1, context.getBean(CustomerService.class).searchCustomers("harbour", 10).size());
+            assertEquals(1_500, context.getBean(ReactiveAccountService.class).getAccountById("prod-account").block().getBalance());
+        }
+    }
+
+    @Test
+    void whenStarted_itShouldOpenTheFullPoolAndReportReadyOnTheProbes() throws Exception {
+        try (ConfigurableApplicationContext context = start()) {
+            HikariDataSource dataSource = context.getBean(HikariDataSource.class);
+            assertTrue(dataSource.getJdbcUrl().startsWith("jdbc:h2:file:"));
+            assertEquals(16, dataSource.getMaximumPoolSize());
+            assertFalse(dataSource.isAutoCommit());
+            assertEquals(ReadinessState.ACCEPTING_TRAFFIC, context.getBean(ApplicationAvailability.class).getReadinessState());
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newHttpClient();
+            for (String path : new String[]{"/readyz", "/livez", "/actuator/health/readiness"}) {
+                HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build(),
+                        HttpResponse.BodyHandlers.ofString());
+                assertEquals(200, response.statusCode(), path);
+                assertTrue(response.body().contains("\"UP\""), path);
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(BankwebappApplication.class)
+                .properties("spring.devtools.restart.enabled=false", "logging.level.root=WARN")
+                .run("--spring.profiles.active=prod", "--server.port=0", "--bankwebapp.data-dir=" + dataDir,
+                        "--bankwebapp.warmup.iterations=20");
+    }
+}
@@ -0,0 +1,157 @@
+package com.bankwebapp.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void whenKeyIsReplayed_itShouldReturnTheFirstResultWithoutRunningAgain() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(100, Duration.ofMinutes(1), clock::get);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertEquals("result-1", store.execute("key", "request", () -> "result-" + runs.incrementAndGet()));
+        assertEquals("result-1", store.execute("key", "request", () -> "result-" + runs.incrementAndGet()));
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void whenKeyIsReusedForADifferentRequest_itShouldBeRejected() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(100, Duration.ofMinutes(1), clock::get);
+        store.execute("key", "withdraw:1:100", () -> "done");
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> store.execute("key", "withdraw:1:200", () -> "again"));
+    }
+
+    @Test
+    void whenOperationFails_itShouldForgetTheKeySoTheRetryRuns() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(100, Duration.ofMinutes(1), clock::get);
+
+        assertThrows(IllegalStateException.class, () -> store.execute("key", "request", () -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        assertEquals("retried", store.execute("key", "request", () -> "retried"));
+    }
+
+    @Test
+    void whenKeyOutlivesTtl_itShouldRunAgain() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(100, Duration.ofSeconds(10), clock::get);
+        store.execute("key", "request", () -> "first");
+
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        assertEquals("second", store.execute("key", "request", () -> "second"));
+    }
+
+    @Test
+    void whenMoreKeysThanTheBoundArrive_itShouldStayBounded() {
+        IdempotencyStore<Integer> store = new IdempotencyStore<>(1000, Duration.ofMinutes(1), clock::get);
+
+        for (int i = 0; i < 100_000; i++) {
+            int value = i;
+            store.execute("key-" + i, "request", () -> value);
+        }
+
+        assertTrue(store.size() <= 1000);
+    }
+
+    @Test
+    void whenTheStoreIsFullOfKeysInFlight_itShouldRejectNewKeysWithoutEvictingAny() throws Exception {
+        int maxKeys = 8;
+        IdempotencyStore<Integer> store = new IdempotencyStore<>(maxKeys, Duration.ofMinutes(1), clock::get);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(maxKeys);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(maxKeys);
+        try {
+            List<Future<Integer>> inFlight = new ArrayList<>();
+            for (int i = 0; i < maxKeys; i++) {
+                String key = "key-" + i;
+                inFlight.add(executor.submit(() -> store.execute(key, "request", () -> {
+                    started.countDown();
+                    await(release);
+                    return runs.incrementAndGet();
+                })));
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            assertThrows(IdempotencyStoreFullException.class, () -> store.execute("key-new", "request", runs::incrementAndGet));
+            release.countDown();
+            for (Future<Integer> result : inFlight) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Every key was kept: a retry replays its result instead of running again
+        for (int i = 0; i < maxKeys; i++) {
+            store.execute("key-" + i, "request", runs::incrementAndGet);
+        }
+        assertEquals(maxKeys, runs.get());
+        // Once completed, the oldest keys make room again
+        assertEquals(maxKeys + 1, store.execute("key-new", "request", runs::incrementAndGet));
+        assertEquals(maxKeys, store.size());
+    }
+
+    @Test
+    void whenTheSameKeyArrivesFromManyThreadsAtOnce_itShouldRunTheOperationOnce() throws Exception {
+        IdempotencyStore<Integer> store = new IdempotencyStore<>(100, Duration.ofMinutes(1));
+        AtomicInteger runs = new AtomicInteger();
+        int threads = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return store.execute("key", "request", () -> {
+                        sleep(50);
+                        return runs.incrementAndGet();
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(1, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, runs.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.bankwebapp.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadThroughCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void whenSameKeyIsReadTwice_itShouldLoadOnceAndCountHitAndMiss() {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(true, 100, Duration.ofMinutes(1), clock::get);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("value-1", cache.get("1", key -> "value-" + loads.incrementAndGet()));
+        assertEquals("value-1", cache.get("1", key -> "value-" + loads.incrementAndGet()));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void whenEntryOutlivesTtl_itShouldBeReloaded() {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(true, 100, Duration.ofSeconds(10), clock::get);
+        cache.get("1", key -> "old");
+
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        assertEquals("new", cache.get("1", key -> "new"));
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void whenMoreKeysThanMaxSizeAreLoaded_itShouldStayBounded() {
+        ReadThroughCache<Integer, Integer> cache = new ReadThroughCache<>(true, 160, Duration.ofMinutes(1), clock::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.get(i, key -> key);
+        }
+
+        assertTrue(cache.size() <= 160);
+        assertEquals(10_000 - cache.size(), cache.evictionCount());
+    }
+
+    @Test
+    void whenKeyIsEvictedWhileLoading_itShouldNotStoreTheLoadedValue() {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(true, 100, Duration.ofMinutes(1), clock::get);
+
+        cache.get("1", key -> {
+            cache.evict(key);
+            return "stale";
+        });
+
+        assertEquals("fresh", cache.get("1", key -> "fresh"));
+    }
+
+    @Test
+    void whenLoaderReturnsNull_itShouldNotCacheIt() {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(true, 100, Duration.ofMinutes(1), clock::get);
+
+        assertNull(cache.get("1", key -> null));
+        assertEquals("value", cache.get("1", key -> "value"));
+        assertEquals(0, cache.hitCount());
+    }
+
+    @Test
+    void whenDisabled_itShouldAlwaysCallTheLoader() {
+        ReadThroughCache<String, String> cache = ReadThroughCache.disabled();
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("1", key -> "value" + loads.incrementAndGet());
+        cache.get("1", key -> "value" + loads.incrementAndGet());
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,112 @@
+package com.bankwebapp.controllers;
+
+import com.bankwebapp.dtos.TransactionRequest;
+import com.bankwebapp.dtos.TransactionResultDto;
+import com.bankwebapp.dtos.TransactionStatus;
+import com.bankwebapp.dtos.TransactionType;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.models.Money;
+import com.bankwebapp.repositories.AccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the single-operation withdraw/deposit endpoints with the batch endpoint over real HTTP.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AccountBatchThroughputTest {
+
+    private static final int ACCOUNTS = 20;
+    private static final int OPERATIONS = 400;
+    private static final int BATCH_SIZE = 100;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @BeforeEach
+    void createAccounts() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountRepository.save(Account.builder()
+                    .id(accountId(i))
+                    .balance(0)
+                    .currency(Currency.EUR)
+                    .customerId("batch-customer")
+                    .city(City.ANKARA)
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void deleteAccounts() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountRepository.deleteById(accountId(i));
+        }
+    }
+
+    @Test
+    void whenTheSameOperationsAreSentSinglyAndInBatches_itShouldProduceTheSameBalances() {
+        long singleStartedAt = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            TransactionRequest operation = operation(i);
+            String path = operation.getType() == TransactionType.DEPOSIT ? "deposit" : "withdraw";
+            restTemplate.put("/account/{path}/{id}/{amount}", null, path, operation.getAccountId(), Money.format(operation.getAmount()));
+        }
+        long singleNanos = System.nanoTime() - singleStartedAt;
+        List<Long> balancesAfterSingleOps = balances();
+
+        long batchStartedAt = System.nanoTime();
+        for (int from = 0; from < OPERATIONS; from += BATCH_SIZE) {
+            List<TransactionRequest> batch = new ArrayList<>();
+            for (int i = from; i < from + BATCH_SIZE; i++) {
+                batch.add(operation(i));
+            }
+            ResponseEntity<List<TransactionResultDto>> response = restTemplate.exchange("/account/transactions/batch",
+                    HttpMethod.POST, new HttpEntity<>(batch), new ParameterizedTypeReference<>() {});
+            assertTrue(response.getBody().stream().allMatch(result -> result.getStatus() == TransactionStatus.OK));
+        }
+        long batchNanos = System.nanoTime() - batchStartedAt;
+        List<Long> balancesAfterBatches = balances();
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            assertEquals(2 * balancesAfterSingleOps.get(i), balancesAfterBatches.get(i));
+        }
+        System.out.printf("single-op endpoints: %.0f ops/sec, batch endpoint (%d per call): %.0f ops/sec%n",
+                OPERATIONS / (singleNanos / 1_000_000_000.0), BATCH_SIZE, OPERATIONS / (batchNanos / 1_000_000_000.0));
+    }
+
+    private static TransactionRequest operation(int i) {
+        // Every fourth operation on an account withdraws what the previous deposit added
+        TransactionType type = (i / ACCOUNTS) % 4 == 3 ? TransactionType.WITHDRAW : TransactionType.DEPOSIT;
+        return new TransactionRequest(accountId(i % ACCOUNTS), type, 1000);
+    }
+
+    private List<Long> balances() {
+        List<Long> balances = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            balances.add(accountRepository.findById(accountId(i)).get().getBalance());
+        }
+        return balances;
+    }
+
+    private static String accountId(int i) {
+        return "batch-account-" + i;
+    }
+}
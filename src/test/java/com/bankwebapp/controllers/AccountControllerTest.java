@@ -1,22 +1,48 @@
 package com.bankwebapp.controllers;
 
+import com.bankwebapp.cache.IdempotencyStore;
 import com.bankwebapp.dtos.*;
 import com.bankwebapp.models.City;
 import com.bankwebapp.models.Currency;
+import com.bankwebapp.services.AccountAlreadyExistsException;
+import com.bankwebapp.services.CurrencyChangeNotAllowedException;
 import com.bankwebapp.services.AccountService;
+import com.bankwebapp.services.InvalidTransferException;
+import com.bankwebapp.services.InvalidTransactionException;
+import com.bankwebapp.services.LedgerService;
+import com.bankwebapp.services.ShardOverloadedException;
+import com.bankwebapp.services.ShardedCommandProcessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -31,21 +57,36 @@ class AccountControllerTest {
     @MockBean
     private AccountService accountService;
 
+    @MockBean
+    private LedgerService ledgerService;
+
+    @MockBean
+    private ShardedCommandProcessor commandProcessor;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @TestConfiguration
+    static class IdempotencyConfig {
+
+        @Bean
+        IdempotencyStore<AccountDto> accountIdempotencyStore() {
+            return new IdempotencyStore<>(100, Duration.ofMinutes(1));
+        }
+    }
+
     @Test
     void whenGetAccountsCalled_itShouldReturnAccountList() throws Exception {
         AccountDto account1 = AccountDto.builder()
                 .id("1")
-                .balance(1000.0)
+                .balance(100000)
                 .currency(Currency.USD)
                 .customerId("customer1")
                 .build();
         
         AccountDto account2 = AccountDto.builder()
                 .id("2")
-                .balance(2000.0)
+                .balance(200000)
                 .currency(Currency.EUR)
                 .customerId("customer2")
                 .build();
@@ -73,7 +114,7 @@ class AccountControllerTest {
         String accountId = "123";
         AccountDto account = AccountDto.builder()
                 .id(accountId)
-                .balance(1000.0)
+                .balance(100000)
                 .currency(Currency.USD)
                 .customerId("customer1")
                 .build();
@@ -95,14 +136,14 @@ class AccountControllerTest {
     void whenCreateAccountCalled_itShouldCreateAndReturnAccount() throws Exception {
         CreateAccountRequest request = new CreateAccountRequest();
         request.setId("123");
-        request.setBalance(1000.0);
+        request.setBalance(100000);
         request.setCurrency(Currency.USD);
         request.setCustomerId("customer1");
         request.setCity(City.ANKARA);
 
         AccountDto expectedAccount = AccountDto.builder()
                 .id("123")
-                .balance(1000.0)
+                .balance(100000)
                 .currency(Currency.USD)
                 .customerId("customer1")
                 .build();
@@ -122,18 +163,28 @@ class AccountControllerTest {
         verify(accountService).createAccount(any(CreateAccountRequest.class));
     }
 
+    @Test
+    void whenCreateAccountCalledWithAnExistingId_itShouldReturnConflict() throws Exception {
+        when(accountService.createAccount(any(CreateAccountRequest.class))).thenThrow(new AccountAlreadyExistsException("Account 123 already exists"));
+
+        mockMvc.perform(post("/account")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":\"123\",\"customerId\":\"customer1\",\"balance\":50,\"city\":\"ANKARA\",\"currency\":\"TRY\"}"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void whenUpdateAccountCalled_itShouldUpdateAndReturnAccount() throws Exception {
         String accountId = "123";
         UpdateAccountRequest request = new UpdateAccountRequest();
-        request.setBalance(2000.0);
+        request.setBalance(200000);
         request.setCurrency(Currency.EUR);
         request.setCustomerId("customer1");
         request.setCity(City.ISTANBUL);
 
         AccountDto expectedAccount = AccountDto.builder()
                 .id(accountId)
-                .balance(2000.0)
+                .balance(200000)
                 .currency(Currency.EUR)
                 .customerId("customer1")
                 .build();
@@ -152,6 +203,40 @@ class AccountControllerTest {
         verify(accountService).updateAccount(eq(accountId), any(UpdateAccountRequest.class));
     }
 
+    @Test
+    void whenPatchAccountCalled_itShouldPassOnlyTheSuppliedFields() throws Exception {
+        String accountId = "123";
+        AccountDto expectedAccount = AccountDto.builder()
+                .id(accountId)
+                .balance(2000)
+                .currency(Currency.USD)
+                .customerId("customer1")
+                .build();
+
+        when(accountService.patchAccount(eq(accountId), any(PatchAccountRequest.class))).thenReturn(expectedAccount);
+
+        mockMvc.perform(patch("/account/{id}", accountId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"currency\":\"USD\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(accountId))
+                .andExpect(jsonPath("$.currency").value("USD"));
+
+        verify(accountService).patchAccount(eq(accountId), argThat(request ->
+                request.getCurrency() == Currency.USD && request.getCity() == null && request.getCustomerId() == null));
+    }
+
+    @Test
+    void whenPatchChangesTheCurrencyOfAFundedAccount_itShouldAnswerConflict() throws Exception {
+        when(accountService.patchAccount(eq("123"), any(PatchAccountRequest.class)))
+                .thenThrow(new CurrencyChangeNotAllowedException("funded"));
+
+        mockMvc.perform(patch("/account/{id}", "123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"currency\":\"USD\"}"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void whenDeleteAccountCalled_itShouldDeleteAccount() throws Exception {
         String accountId = "123";
@@ -165,16 +250,16 @@ class AccountControllerTest {
     @Test
     void whenWithdrawMoneyCalled_itShouldReturnUpdatedAccount() throws Exception {
         String accountId = "123";
-        Double amount = 500.0;
+        String amount = "500.00";
         
         AccountDto expectedAccount = AccountDto.builder()
                 .id(accountId)
-                .balance(500.0)
+                .balance(50000)
                 .currency(Currency.USD)
                 .customerId("customer1")
                 .build();
 
-        when(accountService.withdrawMoney(accountId, amount)).thenReturn(expectedAccount);
+        when(accountService.withdrawMoney(accountId, 50000L)).thenReturn(expectedAccount);
 
         mockMvc.perform(put("/account/withdraw/{id}/{amount}", accountId, amount))
                 .andExpect(status().isOk())
@@ -182,22 +267,22 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.id").value(accountId))
                 .andExpect(jsonPath("$.balance").value(500.0));
 
-        verify(accountService).withdrawMoney(accountId, amount);
+        verify(accountService).withdrawMoney(accountId, 50000L);
     }
 
     @Test
     void whenDepositMoneyCalled_itShouldReturnUpdatedAccount() throws Exception {
         String accountId = "123";
-        Double amount = 500.0;
+        String amount = "500.00";
         
         AccountDto expectedAccount = AccountDto.builder()
                 .id(accountId)
-                .balance(1500.0)
+                .balance(150000)
                 .currency(Currency.USD)
                 .customerId("customer1")
                 .build();
 
-        when(accountService.depositMoney(accountId, amount)).thenReturn(expectedAccount);
+        when(accountService.depositMoney(accountId, 50000L)).thenReturn(expectedAccount);
 
         mockMvc.perform(put("/account/deposit/{id}/{amount}", accountId, amount))
                 .andExpect(status().isOk())
@@ -205,6 +290,375 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.id").value(accountId))
                 .andExpect(jsonPath("$.balance").value(1500.0));
 
-        verify(accountService).depositMoney(accountId, amount);
+        verify(accountService).depositMoney(accountId, 50000L);
+    }
+
+    @Test
+    void whenTheAmountIsNotPositive_withdrawAndDepositShouldBeRejected() throws Exception {
+        mockMvc.perform(put("/account/withdraw/{id}/{amount}", "123", "-5.00"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/account/deposit/{id}/{amount}", "123", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/account/deposit/{id}/{amount}", "123", "-0.01").param("currency", "EUR"))
+                .andExpect(status().isBadRequest());
+
+        verify(accountService, never()).withdrawMoney(anyString(), anyLong());
+        verify(accountService, never()).depositMoney(anyString(), anyLong());
+        verify(accountService, never()).depositMoney(anyString(), anyLong(), any());
+        verify(accountService, never()).bufferDeposit(anyString(), anyLong());
+    }
+
+    @Test
+    void whenThePathAmountIsNotExact_withdrawAndDepositShouldBeRejected() throws Exception {
+        mockMvc.perform(put("/account/withdraw/{id}/{amount}", "123", "1.005"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/account/deposit/{id}/{amount}", "123", "1e30"))
+                .andExpect(status().isBadRequest());
+
+        verify(accountService, never()).withdrawMoney(anyString(), anyLong());
+        verify(accountService, never()).depositMoney(anyString(), anyLong());
+    }
+
+    @Test
+    void whenWriteBehindIsEnabled_depositsShouldGoThroughTheBuffer() throws Exception {
+        when(accountService.isWriteBehindEnabled()).thenReturn(true);
+        when(accountService.bufferDeposit("123", 50000L)).thenReturn(AccountDto.builder().id("123").balance(150000).build());
+
+        mockMvc.perform(put("/account/deposit/{id}/{amount}", "123", "500.00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(1500.0));
+
+        verify(accountService).bufferDeposit("123", 50000L);
+        verify(accountService, never()).depositMoney(anyString(), anyLong());
+    }
+
+    @Test
+    void whenShardsAreEnabled_withdrawalsShouldAwaitTheirShard() throws Exception {
+        when(commandProcessor.isEnabled()).thenReturn(true);
+        when(commandProcessor.withdraw("123", 50000L))
+                .thenReturn(CompletableFuture.completedFuture(AccountDto.builder().id("123").balance(10000).build()));
+
+        mockMvc.perform(put("/account/withdraw/{id}/{amount}", "123", "500.00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(100.0));
+
+        verify(accountService, never()).withdrawMoney(anyString(), anyLong());
+    }
+
+    @Test
+    void whenShardsAreEnabled_withdrawalsInAnotherCurrencyShouldAwaitTheirShardToo() throws Exception {
+        when(commandProcessor.isEnabled()).thenReturn(true);
+        when(commandProcessor.withdraw("123", 11797L, Currency.USD))
+                .thenReturn(CompletableFuture.completedFuture(AccountDto.builder().id("123").balance(10000).currency(Currency.EUR).build()));
+
+        mockMvc.perform(put("/account/withdraw/{id}/{amount}", "123", "117.97").param("currency", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(100.0));
+
+        verify(accountService, never()).withdrawMoney(anyString(), anyLong(), any(Currency.class));
+    }
+
+    @Test
+    void whenTheShardIsFull_itShouldAnswerServiceUnavailable() throws Exception {
+        when(commandProcessor.isEnabled()).thenReturn(true);
+        when(commandProcessor.deposit("123", 50000L)).thenThrow(new ShardOverloadedException("full"));
+
+        mockMvc.perform(put("/account/deposit/{id}/{amount}", "123", "500.00"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void whenAShardedTransferFails_itShouldRethrowTheCause() throws Exception {
+        when(commandProcessor.isEnabled()).thenReturn(true);
+        when(commandProcessor.transfer(any(TransferRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new InvalidTransferException("same account")));
+
+        mockMvc.perform(post("/account/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromAccountId\":\"a\",\"toAccountId\":\"a\",\"amount\":1}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenFlushDepositsCalled_itShouldWaitForTheBarrier() throws Exception {
+        mockMvc.perform(post("/account/deposits/flush"))
+                .andExpect(status().isOk());
+
+        verify(accountService).flushDeposits();
+    }
+
+    @Test
+    void whenDepositMoneyCalledWithCurrency_itShouldDepositThatCurrency() throws Exception {
+        AccountDto expectedAccount = AccountDto.builder().id("123").balance(10865).currency(Currency.EUR).build();
+
+        when(accountService.depositMoney("123", 11797L, Currency.USD)).thenReturn(expectedAccount);
+
+        mockMvc.perform(put("/account/deposit/{id}/{amount}", "123", "117.97").param("currency", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(108.65))
+                .andExpect(jsonPath("$.currency").value("EUR"));
+
+        verify(accountService).depositMoney("123", 11797L, Currency.USD);
+        verify(accountService, never()).depositMoney(anyString(), anyLong());
+    }
+
+    @Test
+    void whenGetStatisticsCalled_itShouldReturnTotalsPerCityAndCurrency() throws Exception {
+        AccountStatsDto stats = new AccountStatsDto(
+                Map.of(City.ISTANBUL, new CityStatsDto(2, Map.of(Currency.TRY, 150050L))),
+                Map.of(Currency.TRY, new CurrencyStatsDto(2, 150050)));
+
+        when(accountService.getStatistics()).thenReturn(stats);
+
+        mockMvc.perform(get("/account/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cities.ISTANBUL.accounts").value(2))
+                .andExpect(jsonPath("$.cities.ISTANBUL.balances.TRY").value(1500.5))
+                .andExpect(jsonPath("$.currencies.TRY.balance").value(1500.5));
+
+        verify(accountService, never()).getAccountById("stats");
+    }
+
+    @Test
+    void whenGetAccountByIdCalledWithTargetCurrency_itShouldReturnConvertedView() throws Exception {
+        AccountDto converted = AccountDto.builder().id("123").customerId("customer1").balance(3475).currency(Currency.EUR).build();
+
+        when(accountService.getAccountById("123", Currency.EUR)).thenReturn(converted);
+
+        mockMvc.perform(get("/account/{id}", "123").param("in", "EUR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(34.75))
+                .andExpect(jsonPath("$.currency").value("EUR"));
+
+        verify(accountService, never()).getAccountById("123");
+    }
+
+    @Test
+    void whenWithdrawMoneyIsRetriedWithTheSameIdempotencyKey_itShouldWithdrawOnce() throws Exception {
+        AccountDto expectedAccount = AccountDto.builder().id("123").balance(50000).currency(Currency.USD).build();
+
+        when(accountService.withdrawMoney("123", 50000L)).thenReturn(expectedAccount);
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            mockMvc.perform(put("/account/withdraw/{id}/{amount}", "123", "500.00").header("Idempotency-Key", "retry-1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.balance").value(500.0));
+        }
+
+        verify(accountService, times(1)).withdrawMoney("123", 50000L);
+    }
+
+    @Test
+    void whenIdempotencyKeyIsReusedForADifferentAmount_itShouldReturnUnprocessableEntity() throws Exception {
+        when(accountService.depositMoney("123", 100L)).thenReturn(AccountDto.builder().id("123").build());
+
+        mockMvc.perform(put("/account/deposit/{id}/{amount}", "123", "1.00").header("Idempotency-Key", "reused"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/account/deposit/{id}/{amount}", "123", "2.00").header("Idempotency-Key", "reused"))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(accountService, times(1)).depositMoney(eq("123"), any(Long.class));
+    }
+
+    @Test
+    void whenGetTransactionsCalled_itShouldReturnLedgerPage() throws Exception {
+        LedgerEntryDto entry = LedgerEntryDto.builder()
+                .sequence(51)
+                .accountId("123")
+                .delta(-2550)
+                .createdAt(Instant.parse("2024-01-01T00:00:00Z"))
+                .build();
+
+        when(ledgerService.getHistory("123", 50L, 1)).thenReturn(new KeysetPageDto<>(List.of(entry), "51"));
+
+        mockMvc.perform(get("/account/{id}/transactions", "123").param("after", "50").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].sequence").value(51))
+                .andExpect(jsonPath("$.items[0].delta").value(-25.5))
+                .andExpect(jsonPath("$.nextAfter").value("51"));
+
+        verify(ledgerService).getHistory("123", 50L, 1);
+    }
+
+    @Test
+    void whenTransferCalled_itShouldReturnTheTransferResult() throws Exception {
+        TransferRequest request = new TransferRequest("1", "2", 2550);
+
+        when(accountService.transfer(any(TransferRequest.class)))
+                .thenReturn(new TransferResultDto("1", "2", TransactionStatus.OK, 7450, 12550));
+
+        mockMvc.perform(post("/account/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("OK"))
+                .andExpect(jsonPath("$.fromBalance").value(74.5))
+                .andExpect(jsonPath("$.toBalance").value(125.5));
+
+        verify(accountService).transfer(argThat(transfer -> transfer.getAmount() == 2550 && transfer.getFromAccountId().equals("1")));
+    }
+
+    @Test
+    void whenGetAccountsCalledWithLimit_itShouldReturnKeysetPage() throws Exception {
+        AccountDto account = AccountDto.builder()
+                .id("2")
+                .balance(200000)
+                .currency(Currency.EUR)
+                .customerId("customer2")
+                .build();
+
+        when(accountService.getAccountsPage("1", 1)).thenReturn(new KeysetPageDto<>(List.of(account), "2"));
+
+        mockMvc.perform(get("/account").param("after", "1").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.items[0].id").value("2"))
+                .andExpect(jsonPath("$.nextAfter").value("2"));
+
+        verify(accountService).getAccountsPage("1", 1);
+    }
+
+    @Test
+    void whenGetAccountsCalledWithCustomerId_itShouldReturnThatCustomersPage() throws Exception {
+        AccountDto account = AccountDto.builder()
+                .id("2")
+                .balance(200000)
+                .currency(Currency.EUR)
+                .customerId("customer2")
+                .build();
+
+        when(accountService.getAccountsByCustomerId("customer2", null, 100)).thenReturn(new KeysetPageDto<>(List.of(account), null));
+
+        mockMvc.perform(get("/account").param("customerId", "customer2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].customerId").value("customer2"))
+                .andExpect(jsonPath("$.nextAfter").doesNotExist());
+
+        verify(accountService).getAccountsByCustomerId("customer2", null, 100);
+    }
+
+    @Test
+    void whenGetAccountsCalledWithCityAndLimit_itShouldReturnThatCitysPage() throws Exception {
+        AccountDto account = AccountDto.builder().id("5").balance(100).currency(Currency.TRY).build();
+
+        when(accountService.getAccountsByCity(City.ANKARA, "4", 1)).thenReturn(new KeysetPageDto<>(List.of(account), "5"));
+
+        mockMvc.perform(get("/account").param("city", "ANKARA").param("after", "4").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value("5"))
+                .andExpect(jsonPath("$.nextAfter").value("5"));
+
+        verify(accountService).getAccountsByCity(City.ANKARA, "4", 1);
+    }
+
+    @Test
+    void whenGetAccountsCalledWithCurrency_itShouldReturnThatCurrencysPage() throws Exception {
+        when(accountService.getAccountsByCurrency(Currency.USD, null, 100)).thenReturn(new KeysetPageDto<>(List.of(), null));
+
+        mockMvc.perform(get("/account").param("currency", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
+
+        verify(accountService).getAccountsByCurrency(Currency.USD, null, 100);
+    }
+
+    @Test
+    void whenGetAccountsCalledInStreamMode_itShouldStreamJsonArray() throws Exception {
+        AccountDto account1 = AccountDto.builder().id("1").balance(100000).currency(Currency.USD).build();
+        AccountDto account2 = AccountDto.builder().id("2").balance(200000).currency(Currency.EUR).build();
+
+        doAnswer(invocation -> {
+            Consumer<AccountDto> consumer = invocation.getArgument(0);
+            consumer.accept(account1);
+            consumer.accept(account2);
+            return null;
+        }).when(accountService).streamAllAccounts(any());
+
+        MvcResult result = mockMvc.perform(get("/account").param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$[0].id").value("1"))
+                .andExpect(jsonPath("$[1].id").value("2"))
+                .andExpect(jsonPath("$[1].balance").value(2000.0));
+    }
+
+    @Test
+    void whenExportCalled_itShouldStreamOneJsonObjectPerLine() throws Exception {
+        streamAccounts(AccountDto.builder().id("1").customerId("c1").balance(100050).currency(Currency.USD).build(),
+                AccountDto.builder().id("2").customerId("c2").balance(-5).currency(Currency.EUR).build());
+
+        MvcResult result = mockMvc.perform(get("/account/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"accounts.ndjson\""))
+                .andExpect(content().string("{\"id\":\"1\",\"customerId\":\"c1\",\"balance\":1000.50,\"currency\":\"USD\"}\n"
+                        + "{\"id\":\"2\",\"customerId\":\"c2\",\"balance\":-0.05,\"currency\":\"EUR\"}\n"));
+    }
+
+    @Test
+    void whenExportCalledAsGzippedCsv_itShouldCompressTheCsvRows() throws Exception {
+        streamAccounts(AccountDto.builder().id("1").customerId("c,1").balance(100050).currency(Currency.USD).build());
+
+        MvcResult result = mockMvc.perform(get("/account/export").param("format", "CSV").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals("id,customerId,balance,currency\n1,\"c,1\",1000.50,USD\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void whenApplyTransactionsCalled_itShouldReturnPerItemResults() throws Exception {
+        List<TransactionRequest> transactions = List.of(
+                new TransactionRequest("1", TransactionType.DEPOSIT, 10000),
+                new TransactionRequest("2", TransactionType.WITHDRAW, 10000));
+
+        when(accountService.applyTransactions(any())).thenReturn(List.of(
+                new TransactionResultDto("1", TransactionType.DEPOSIT, TransactionStatus.OK, 110000),
+                new TransactionResultDto("2", TransactionType.WITHDRAW, TransactionStatus.INSUFFICIENT_FUNDS, 5000)));
+
+        mockMvc.perform(post("/account/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transactions)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].status").value("OK"))
+                .andExpect(jsonPath("$[0].balance").value(1100.0))
+                .andExpect(jsonPath("$[1].status").value("INSUFFICIENT_FUNDS"));
+
+        verify(accountService).applyTransactions(any());
+    }
+
+    @Test
+    void whenApplyTransactionsGetsAnInvalidEntry_itShouldReturnBadRequest() throws Exception {
+        when(accountService.applyTransactions(any())).thenThrow(new InvalidTransactionException("Transaction 0: the amount must be positive"));
+
+        mockMvc.perform(post("/account/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"accountId\":\"a1\",\"type\":\"WITHDRAW\",\"amount\":\"-5\"}]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void streamAccounts(AccountDto... accounts) {
+        doAnswer(invocation -> {
+            Consumer<AccountDto> consumer = invocation.getArgument(0);
+            Arrays.stream(accounts).forEach(consumer);
+            return null;
+        }).when(accountService).streamAllAccounts(any());
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.bankwebapp.controllers;
 
 import com.bankwebapp.dtos.*;
+import com.bankwebapp.services.CustomerImportService;
 import com.bankwebapp.services.CustomerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -9,12 +10,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -29,6 +35,9 @@ class CustomesControllerTest {
     @MockBean
     private CustomerService customerService;
 
+    @MockBean
+    private CustomerImportService customerImportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -138,6 +147,71 @@ class CustomesControllerTest {
         verify(customerService).getCustomerById(customerId);
     }
 
+    @Test
+    void whenPatchCustomerCalled_itShouldPassOnlyTheSuppliedFields() throws Exception {
+        String customerId = "123";
+        CustomerDto customer = CustomerDto.builder()
+                .id(customerId)
+                .name("John Doe")
+                .addres("1 New St")
+                .dateofBirth(1990)
+                .city(CityDto.ANKARA)
+                .build();
+
+        when(customerService.patchCustomer(eq(customerId), any(PatchCustomerRequest.class))).thenReturn(customer);
+
+        mockMvc.perform(patch("/customer/{id}", customerId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"addres\":\"1 New St\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.addres").value("1 New St"))
+                .andExpect(jsonPath("$.name").value("John Doe"));
+
+        verify(customerService).patchCustomer(eq(customerId), argThat(request ->
+                "1 New St".equals(request.getAddres()) && request.getName() == null && request.getCity() == null));
+    }
+
+    @Test
+    void whenGetCustomerAccountsCalled_itShouldReturnCustomerWithAccounts() throws Exception {
+        CustomerWithAccountsDto customer = CustomerWithAccountsDto.builder()
+                .id("123")
+                .name("John Doe")
+                .city(CityDto.ANKARA)
+                .accounts(List.of(AccountDto.builder().id("a1").customerId("123").balance(1050).build()))
+                .build();
+
+        when(customerService.getCustomerWithAccounts("123")).thenReturn(customer);
+
+        mockMvc.perform(get("/customer/{id}/accounts", "123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("John Doe"))
+                .andExpect(jsonPath("$.accounts[0].id").value("a1"))
+                .andExpect(jsonPath("$.accounts[0].balance").value(10.5));
+    }
+
+    @Test
+    void whenCustomersListedWithAccounts_itShouldReturnAPageOfCustomersWithAccounts() throws Exception {
+        CustomerWithAccountsDto customer = CustomerWithAccountsDto.builder().id("2").accounts(List.of()).build();
+
+        when(customerService.getCustomersPageWithAccounts("1", 100)).thenReturn(new KeysetPageDto<>(List.of(customer), null));
+
+        mockMvc.perform(get("/customer").param("include", "accounts").param("after", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value("2"))
+                .andExpect(jsonPath("$.items[0].accounts").isEmpty());
+    }
+
+    @Test
+    void whenSearchCalled_itShouldReturnTheMatchingCustomers() throws Exception {
+        when(customerService.searchCustomers("john main", 20))
+                .thenReturn(List.of(CustomerDto.builder().id("123").name("John Doe").addres("1 Main St").city(CityDto.ANKARA).build()));
+
+        mockMvc.perform(get("/customer/search").param("q", "john main"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("123"))
+                .andExpect(jsonPath("$[0].name").value("John Doe"));
+    }
+
     @Test
     void whenDeleteCustomerCalled_itShouldDeleteCustomer() throws Exception {
         String customerId = "123";
@@ -180,4 +254,114 @@ class CustomesControllerTest {
 
         verify(customerService).updateCustomer(eq(customerId), any(UpdateCustomerRequest.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenGetAllCustomersCalledWithLimit_itShouldReturnKeysetPage() throws Exception {
+        CustomerDto customer = CustomerDto.builder()
+                .id("1")
+                .name("John Doe")
+                .city(CityDto.IZMIR)
+                .build();
+
+        when(customerService.getCustomersPage(null, 2)).thenReturn(new KeysetPageDto<>(List.of(customer), null));
+
+        mockMvc.perform(get("/customer").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.items[0].id").value("1"))
+                .andExpect(jsonPath("$.nextAfter").doesNotExist());
+
+        verify(customerService).getCustomersPage(null, 2);
+    }
+
+    @Test
+    void whenGetAllCustomersCalledInStreamMode_itShouldStreamJsonArray() throws Exception {
+        CustomerDto customer = CustomerDto.builder().id("1").name("John Doe").city(CityDto.ANKARA).build();
+
+        doAnswer(invocation -> {
+            Consumer<CustomerDto> consumer = invocation.getArgument(0);
+            consumer.accept(customer);
+            return null;
+        }).when(customerService).streamAllCustomers(any());
+
+        MvcResult result = mockMvc.perform(get("/customer").param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$[0].id").value("1"))
+                .andExpect(jsonPath("$[0].city").value("ANKARA"));
+    }
+
+    @Test
+    void whenImportCalledWithNdjson_itShouldReturnTheImportResult() throws Exception {
+        ImportResultDto result = ImportResultDto.builder()
+                .imported(1)
+                .rejected(1)
+                .errors(List.of(new ImportErrorDto(2, "Unknown city 'PARIS'")))
+                .build();
+
+        when(customerImportService.importNdjson(any())).thenReturn(result);
+
+        mockMvc.perform(post("/customer/import")
+                        .contentType("application/x-ndjson")
+                        .content("{\"id\":\"1\",\"city\":\"IZMIR\"}\n{\"id\":\"2\",\"city\":\"PARIS\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("Unknown city 'PARIS'"));
+
+        verify(customerImportService).importNdjson(any());
+    }
+
+    @Test
+    void whenImportCalledWithCsv_itShouldUseTheCsvImport() throws Exception {
+        when(customerImportService.importCsv(any())).thenReturn(ImportResultDto.builder().imported(1).errors(List.of()).build());
+
+        mockMvc.perform(post("/customer/import")
+                        .contentType("text/csv")
+                        .content("id,city\n1,IZMIR\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+
+        verify(customerImportService).importCsv(any());
+    }
+
+    @Test
+    void whenImportCalledWithAnotherContentType_itShouldBeRejected() throws Exception {
+        mockMvc.perform(post("/customer/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(customerImportService);
+    }
+
+    @Test
+    void whenExportCalledAsCsv_itShouldWriteTheImportColumns() throws Exception {
+        CustomerDto customer = CustomerDto.builder()
+                .id("1")
+                .name("Doe, \"JD\" Jane")
+                .dateofBirth(1990)
+                .city(CityDto.ANKARA)
+                .build();
+
+        doAnswer(invocation -> {
+            Consumer<CustomerDto> consumer = invocation.getArgument(0);
+            consumer.accept(customer);
+            return null;
+        }).when(customerService).streamAllCustomers(any());
+
+        MvcResult result = mockMvc.perform(get("/customer/export").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"customers.csv\""))
+                .andExpect(content().string("id,name,dateofBirth,addres,city\n1,\"Doe, \"\"JD\"\" Jane\",1990,,ANKARA\n"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.bankwebapp.controllers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports a million accounts and a million customers over HTTP. The database is a file so the rows do not
+ * count against the heap; its page cache is capped at 4 MB for the same reason. The seeded file is kept
+ * in {@code target} and reused by later runs. Run with
+ * {@code mvn test -Dbankwebapp.loadtest=true -Dtest=ExportLoadTest -DargLine=-Xmx64m}.
+ */
+@EnabledIfSystemProperty(named = "bankwebapp.loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/export-load;DB_CLOSE_ON_EXIT=FALSE;CACHE_SIZE=4096",
+        "spring.jpa.hibernate.ddl-auto=update",
+        // The search index would load every customer at startup; this test is about the export alone
+        "bankwebapp.search.enabled=false"
+})
+class ExportLoadTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int SEED_CHUNK = 20_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void seed() {
+        if (jdbcTemplate.queryForObject("select count(*) from account", Long.class) == ROWS) {
+            return;
+        }
+        jdbcTemplate.update("delete from account");
+        jdbcTemplate.update("delete from customer");
+        // One committed statement per chunk: H2 keeps an open transaction's changes on the heap
+        for (int from = 1; from <= ROWS; from += SEED_CHUNK) {
+            String range = "from system_range(" + from + ", " + (from + SEED_CHUNK - 1) + ")";
+            jdbcTemplate.update("insert into customer (id, name, dateof_birth, addres, city) "
+                    + "select 'cus-' || lpad(x, 8, '0'), 'Customer ' || x, 1950 + mod(x, 50), x || ' Main St', mod(x, 6) " + range);
+            jdbcTemplate.update("insert into account (id, customer_id, balance, city, currency) "
+                    + "select 'acc-' || lpad(x, 8, '0'), 'cus-' || lpad(x, 8, '0'), x * 100, mod(x, 6), mod(x, 3) " + range);
+        }
+    }
+
+    @Test
+    void whenAMillionAccountsAreExportedAsNdjson_itShouldStreamEveryRow() throws Exception {
+        assertEquals(ROWS, export("/account/export", false));
+    }
+
+    @Test
+    void whenAMillionCustomersAreExportedAsGzippedCsv_itShouldStreamEveryRow() throws Exception {
+        assertEquals(ROWS + 1, export("/customer/export?format=CSV", true));
+    }
+
+    private long export(String path, boolean gzip) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (gzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        AtomicLong peakHeap = new AtomicLong();
+        long startedAt = System.nanoTime();
+        long lines = 0;
+        HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+        try (InputStream body = gzip ? new GZIPInputStream(response.body()) : response.body()) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                lines += countNewlines(buffer, read);
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+            }
+        } catch (IOException e) {
+            fail("Export aborted after " + lines + " lines", e);
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        System.out.printf("%s: %d lines in %.1f s (%.0f rows/sec), peak heap %d MB of %d MB max%n",
+                path, lines, seconds, lines / seconds, peakHeap.get() >> 20, memory.getHeapMemoryUsage().getMax() >> 20);
+        return lines;
+    }
+
+    private static long countNewlines(byte[] buffer, int length) {
+        long count = 0;
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
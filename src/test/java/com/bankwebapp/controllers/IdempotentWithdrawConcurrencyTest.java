@@ -0,0 +1,83 @@
+package com.bankwebapp.controllers;
+
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.repositories.AccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class IdempotentWithdrawConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @AfterEach
+    void deleteAccount() {
+        accountRepository.deleteById("idempotent-account");
+    }
+
+    @Test
+    void whenTheSameWithdrawalIsRetriedFromManyThreadsAtOnce_itShouldDebitOnce() throws Exception {
+        accountRepository.save(Account.builder()
+                .id("idempotent-account")
+                .balance(100_000)
+                .currency(Currency.USD)
+                .customerId("idempotent-customer")
+                .city(City.KOCAELI)
+                .build());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(AccountController.IDEMPOTENCY_KEY, "withdraw-once");
+        HttpEntity<Void> request = new HttpEntity<>(headers);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<AccountDto>>> responses = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                Callable<ResponseEntity<AccountDto>> retry = () -> {
+                    start.await();
+                    return restTemplate.exchange("/account/withdraw/{id}/{amount}", HttpMethod.PUT, request, AccountDto.class,
+                            "idempotent-account", "250.00");
+                };
+                responses.add(executor.submit(retry));
+            }
+            start.countDown();
+            for (Future<ResponseEntity<AccountDto>> response : responses) {
+                ResponseEntity<AccountDto> result = response.get(1, TimeUnit.MINUTES);
+                assertEquals(HttpStatus.OK, result.getStatusCode());
+                assertEquals(75_000, result.getBody().getBalance());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(75_000, accountRepository.findById("idempotent-account").get().getBalance());
+    }
+}
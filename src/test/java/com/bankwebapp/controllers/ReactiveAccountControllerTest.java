@@ -0,0 +1,95 @@
+package com.bankwebapp.controllers;
+
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.KeysetPageDto;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.services.ReactiveAccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReactiveAccountController.class)
+class ReactiveAccountControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReactiveAccountService accountService;
+
+    @Test
+    void whenGetAccountCalled_itShouldCompleteTheResponseAsynchronously() throws Exception {
+        when(accountService.getAccountById("1")).thenReturn(Mono.just(
+                AccountDto.builder().id("1").customerId("c1").balance(100050).currency(Currency.USD).build()));
+
+        MvcResult result = mockMvc.perform(get("/rx/account/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("1"))
+                .andExpect(jsonPath("$.customerId").value("c1"))
+                .andExpect(jsonPath("$.balance").value(1000.50))
+                .andExpect(jsonPath("$.currency").value("USD"));
+    }
+
+    @Test
+    void whenGetAccountsCalled_itShouldStreamThemAsNdjson() throws Exception {
+        when(accountService.streamAllAccounts()).thenReturn(Flux.just(
+                AccountDto.builder().id("1").customerId("c1").balance(100050).currency(Currency.USD).build(),
+                AccountDto.builder().id("2").customerId("c2").balance(-5).currency(Currency.EUR).build()));
+
+        MvcResult result = mockMvc.perform(get("/rx/account"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":\"1\",\"customerId\":\"c1\",\"balance\":1000.50,\"currency\":\"USD\"}\n"
+                        + "{\"id\":\"2\",\"customerId\":\"c2\",\"balance\":-0.05,\"currency\":\"EUR\"}\n"));
+    }
+
+    @Test
+    void whenGetAccountsCalledWithLimit_itShouldReturnOnePage() throws Exception {
+        when(accountService.getAccountsPage("1", 1)).thenReturn(Mono.just(
+                new KeysetPageDto<>(List.of(AccountDto.builder().id("2").build()), "2")));
+
+        MvcResult result = mockMvc.perform(get("/rx/account").param("after", "1").param("limit", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value("2"))
+                .andExpect(jsonPath("$.nextAfter").value("2"));
+    }
+
+    @Test
+    void whenGetAccountsCalledWithCustomerId_itShouldReturnThatCustomersPage() throws Exception {
+        when(accountService.getAccountsByCustomerId("c1", null, 100)).thenReturn(Mono.just(
+                new KeysetPageDto<>(List.of(AccountDto.builder().id("1").customerId("c1").build()), null)));
+
+        MvcResult result = mockMvc.perform(get("/rx/account").param("customerId", "c1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].customerId").value("c1"))
+                .andExpect(jsonPath("$.nextAfter").doesNotExist());
+    }
+}
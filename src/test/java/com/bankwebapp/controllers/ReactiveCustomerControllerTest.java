@@ -0,0 +1,91 @@
+package com.bankwebapp.controllers;
+
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.CityDto;
+import com.bankwebapp.dtos.CreateCustomerRequest;
+import com.bankwebapp.dtos.CustomerDto;
+import com.bankwebapp.dtos.CustomerWithAccountsDto;
+import com.bankwebapp.services.ReactiveCustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReactiveCustomerController.class)
+class ReactiveCustomerControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private ReactiveCustomerService customerService;
+
+    @Test
+    void whenCreateCustomerCalled_itShouldReturnTheCreatedCustomer() throws Exception {
+        CreateCustomerRequest request = new CreateCustomerRequest();
+        request.setId("123");
+        request.setName("John Doe");
+        request.setCity(CityDto.ANKARA);
+        when(customerService.createCustomer(argThat(r -> "123".equals(r.getId()))))
+                .thenReturn(Mono.just(CustomerDto.builder().id("123").name("John Doe").city(CityDto.ANKARA).build()));
+
+        MvcResult result = mockMvc.perform(post("/rx/customer/post")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("123"))
+                .andExpect(jsonPath("$.city").value("ANKARA"));
+    }
+
+    @Test
+    void whenGetAllCustomersCalled_itShouldStreamThemAsNdjson() throws Exception {
+        when(customerService.streamAllCustomers()).thenReturn(Flux.just(
+                CustomerDto.builder().id("1").name("A").city(CityDto.ANKARA).build(),
+                CustomerDto.builder().id("2").name("B").city(CityDto.IZMIR).build()));
+
+        MvcResult result = mockMvc.perform(get("/rx/customer"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":\"1\",\"name\":\"A\",\"dateofBirth\":null,\"addres\":null,\"city\":\"ANKARA\"}\n"
+                        + "{\"id\":\"2\",\"name\":\"B\",\"dateofBirth\":null,\"addres\":null,\"city\":\"IZMIR\"}\n"));
+    }
+
+    @Test
+    void whenGetCustomerWithAccountsCalled_itShouldReturnBoth() throws Exception {
+        when(customerService.getCustomerWithAccounts("1")).thenReturn(Mono.just(CustomerWithAccountsDto.builder()
+                .id("1").city(CityDto.ANKARA).accounts(List.of(AccountDto.builder().id("a1").customerId("1").build())).build()));
+
+        MvcResult result = mockMvc.perform(get("/rx/customer/1/accounts"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("1"))
+                .andExpect(jsonPath("$.accounts[0].id").value("a1"));
+    }
+}
@@ -0,0 +1,135 @@
+package com.bankwebapp.controllers;
+
+import com.bankwebapp.BankwebappApplication;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.repositories.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Opens {@code CONNECTIONS} concurrent connections against {@code /account/{id}} and then against
+ * {@code /rx/account/{id}}, and reports the peak thread count and heap of the JVM while they are served.
+ * Run with {@code mvn test -Dbankwebapp.loadtest=true -Dtest=ReactiveLoadTest}; client and server share the
+ * process, so it needs a file descriptor limit above twice the connection count, which
+ * {@code -Dbankwebapp.loadtest.connections} lowers.
+ */
+@EnabledIfSystemProperty(named = "bankwebapp.loadtest", matches = "true")
+class ReactiveLoadTest {
+
+    private static final int CONNECTIONS = Integer.getInteger("bankwebapp.loadtest.connections", 10_000);
+    // Tomcat's default; a small pool shows how many request threads each stack actually needs
+    private static final int TOMCAT_THREADS = Integer.getInteger("bankwebapp.loadtest.tomcat-threads", 200);
+    private static final int ACCOUNTS = 100;
+
+    @Test
+    void whenTenThousandConnectionsAreOpen_itShouldReportThreadsAndHeapPerStack() throws Exception {
+        LoadResult servlet = run("/account/");
+        report("blocking /account", servlet);
+        LoadResult reactive = run("/rx/account/");
+        report("reactive /rx/account", reactive);
+    }
+
+    private LoadResult run(String path) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankwebappApplication.class)
+                .properties(
+                        "server.tomcat.max-connections=" + (CONNECTIONS + 1000),
+                        "server.tomcat.accept-count=" + CONNECTIONS,
+                        "server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "spring.datasource.url=jdbc:h2:mem:rx-load-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.devtools.restart.enabled=false",
+                        "logging.level.root=WARN")
+                .run("--server.port=0", "--bankwebapp.cache.enabled=false")) {
+            seed(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            System.gc();
+            return fire(port, path);
+        }
+    }
+
+    private static void seed(ConfigurableApplicationContext context) {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(Account.builder().id("load-" + i).customerId("load-customer").balance(100_000)
+                    .city(City.ISTANBUL).currency(Currency.TRY).build());
+        }
+        context.getBean(AccountRepository.class).saveAll(accounts);
+    }
+
+    private static LoadResult fire(int port, String path) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ExecutorService clientThreads = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder().executor(clientThreads).connectTimeout(Duration.ofMinutes(1)).build();
+        AtomicLong maxHeap = new AtomicLong();
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                maxHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        threads.resetPeakThreadCount();
+        int threadsBefore = threads.getThreadCount();
+        long[] latencies = new long[CONNECTIONS];
+        sampler.start();
+        long startedAt = System.nanoTime();
+        try {
+            List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(CONNECTIONS);
+            for (int i = 0; i < CONNECTIONS; i++) {
+                int request = i;
+                long sentAt = System.nanoTime();
+                responses.add(client.sendAsync(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path + "load-" + i % ACCOUNTS)).GET().build(),
+                                HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> latencies[request] = System.nanoTime() - sentAt));
+            }
+            for (CompletableFuture<HttpResponse<Void>> response : responses) {
+                assertEquals(200, response.get(5, TimeUnit.MINUTES).statusCode());
+            }
+        } finally {
+            sampler.interrupt();
+            sampler.join();
+            clientThreads.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        Arrays.sort(latencies);
+        return new LoadResult(threadsBefore, threads.getPeakThreadCount(), maxHeap.get(),
+                latencies[(int) (latencies.length * 0.99) - 1], elapsedNanos);
+    }
+
+    private static void report(String stack, LoadResult result) {
+        System.out.printf("%s: %d connections, %d Tomcat threads, threads %d before / %d peak, max heap used %d MiB, p99 %.0f ms, %.1f s in total%n",
+                stack, CONNECTIONS, TOMCAT_THREADS, result.threadsBefore(), result.peakThreads(), result.maxHeapBytes() / (1024 * 1024),
+                result.p99Nanos() / 1_000_000.0, result.elapsedNanos() / 1_000_000_000.0);
+    }
+
+    private record LoadResult(int threadsBefore, int peakThreads, long maxHeapBytes, long p99Nanos, long elapsedNanos) {
+    }
+}
@@ -0,0 +1,185 @@
+package com.bankwebapp.controllers;
+
+import com.bankwebapp.BankwebappApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the application with the {@code prod} profile in a fresh JVM, first without and then with the
+ * startup warmup, on a file database seeded with {@code CUSTOMERS} customers and accounts. As soon as
+ * {@code /readyz} answers, it sends {@code REQUESTS} account and customer reads and deposits one after the
+ * other. It reports when each JVM was ready, the mean latency of the first requests and how long after
+ * readiness the first request came in within twice the steady-state median, taken over the last 200.
+ * {@code -Dbankwebapp.loadtest.warmup-iterations} overrides the number of warmup rounds.
+ * Run with {@code mvn test -Dbankwebapp.loadtest=true -Dtest=StartupLatencyLoadTest}.
+ */
+@EnabledIfSystemProperty(named = "bankwebapp.loadtest", matches = "true")
+class StartupLatencyLoadTest {
+
+    private static final int CUSTOMERS = 1_000;
+    private static final int REQUESTS = 3_000;
+    private static final int WARMUP_ITERATIONS = Integer.getInteger("bankwebapp.loadtest.warmup-iterations", 2_000);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void whenWarmupIsEnabled_theFirstRequestsAfterReadinessShouldBeFast() throws Exception {
+        seed();
+        StartupResult cold = measure(false);
+        report("warmup off", cold);
+        StartupResult warm = measure(true);
+        report("warmup on", warm);
+        assertTrue(warm.firstHundredMeanNanos() < cold.firstHundredMeanNanos());
+    }
+
+    private void seed() throws Exception {
+        int port = freePort();
+        Process app = launch(port, false);
+        try {
+            awaitReady(app, port);
+            StringBuilder customers = new StringBuilder();
+            for (int i = 0; i < CUSTOMERS; i++) {
+                customers.append("{\"id\":\"c").append(i).append("\",\"name\":\"Customer ").append(i)
+                        .append("\",\"addres\":\"").append(i).append(" Main St\",\"dateofBirth\":1990,\"city\":\"ISTANBUL\"}\n");
+            }
+            assertEquals(200, send(port, HttpRequest.newBuilder(uri(port, "/customer/import"))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(customers.toString()))));
+            for (int i = 0; i < CUSTOMERS; i++) {
+                String account = "{\"id\":\"a" + i + "\",\"customerId\":\"c" + i + "\",\"balance\":1000,\"city\":\"ISTANBUL\",\"currency\":\"TRY\"}";
+                assertEquals(200, send(port, HttpRequest.newBuilder(uri(port, "/account"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(account))));
+            }
+        } finally {
+            stop(app);
+        }
+    }
+
+    private StartupResult measure(boolean warmup) throws Exception {
+        int port = freePort();
+        long launchedAt = System.nanoTime();
+        Process app = launch(port, warmup);
+        try {
+            awaitReady(app, port);
+            long readyAt = System.nanoTime();
+            long[] sentAt = new long[REQUESTS];
+            long[] latencies = new long[REQUESTS];
+            for (int i = 0; i < REQUESTS; i++) {
+                int row = i % CUSTOMERS;
+                HttpRequest.Builder request = switch (i % 4) {
+                    case 0 -> HttpRequest.newBuilder(uri(port, "/account/a" + row));
+                    case 1 -> HttpRequest.newBuilder(uri(port, "/customer/c" + row));
+                    case 2 -> HttpRequest.newBuilder(uri(port, "/account?customerId=c" + row));
+                    default -> HttpRequest.newBuilder(uri(port, "/account/deposit/a" + row + "/1")).PUT(HttpRequest.BodyPublishers.noBody());
+                };
+                sentAt[i] = System.nanoTime();
+                assertEquals(200, send(port, request));
+                latencies[i] = System.nanoTime() - sentAt[i];
+            }
+            long[] tail = Arrays.copyOfRange(latencies, REQUESTS - 200, REQUESTS);
+            Arrays.sort(tail);
+            long steadyMedian = tail[tail.length / 2];
+            int firstFast = 0;
+            while (latencies[firstFast] > 2 * steadyMedian) {
+                firstFast++;
+            }
+            return new StartupResult(readyAt - launchedAt, latencies[0], mean(latencies, 100), mean(latencies, 1000), steadyMedian,
+                    firstFast, sentAt[firstFast] - readyAt);
+        } finally {
+            stop(app);
+        }
+    }
+
+    private Process launch(int port, boolean warmup) throws IOException {
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                // Devtools is on the test class path; its restarter would load the application twice
+                "-Dspring.devtools.restart.enabled=false",
+                "-cp", System.getProperty("java.class.path"),
+                BankwebappApplication.class.getName(),
+                "--spring.profiles.active=prod",
+                "--server.port=" + port,
+                "--bankwebapp.data-dir=" + dataDir,
+                "--bankwebapp.warmup.enabled=" + warmup,
+                "--logging.level.root=WARN",
+                "--bankwebapp.warmup.iterations=" + WARMUP_ITERATIONS));
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(dataDir.resolve("app-" + port + ".log").toFile())
+                .start();
+    }
+
+    private void awaitReady(Process app, int port) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(3);
+        while (System.nanoTime() < deadline) {
+            assertTrue(app.isAlive(), "The application exited, see " + dataDir + File.separator + "app-" + port + ".log");
+            try {
+                if (send(port, HttpRequest.newBuilder(uri(port, "/readyz"))) == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(10);
+        }
+        fail("The application did not report ready within 3 minutes");
+    }
+
+    private static void stop(Process app) throws InterruptedException {
+        app.destroy();
+        if (!app.waitFor(1, TimeUnit.MINUTES)) {
+            app.destroyForcibly().waitFor();
+        }
+    }
+
+    private int send(int port, HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.timeout(Duration.ofMinutes(1)).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static URI uri(int port, String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long mean(long[] latencies, int count) {
+        return Arrays.stream(latencies, 0, count).sum() / count;
+    }
+
+    private static void report(String mode, StartupResult result) {
+        System.out.printf("%s: ready %.0f ms after launch; first request %.1f ms, mean of the first 100 %.2f ms and of the first 1000 %.2f ms, "
+                        + "steady median %.2f ms; first request within twice the steady median: #%d, %.0f ms after ready%n",
+                mode, result.readyNanos() / 1e6, result.firstRequestNanos() / 1e6, result.firstHundredMeanNanos() / 1e6,
+                result.firstThousandMeanNanos() / 1e6, result.steadyMedianNanos() / 1e6, result.firstFastRequest(),
+                result.firstFastNanos() / 1e6);
+    }
+
+    private record StartupResult(long readyNanos, long firstRequestNanos, long firstHundredMeanNanos, long firstThousandMeanNanos,
+                                 long steadyMedianNanos, int firstFastRequest, long firstFastNanos) {
+    }
+}
@@ -0,0 +1,161 @@
+package com.bankwebapp.controllers;
+
+import com.bankwebapp.BankwebappApplication;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.AccountRepository;
+import com.bankwebapp.repositories.CustomerRepository;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the Tomcat platform-thread pool with virtual threads under many concurrent clients.
+ * Run with {@code mvn test -Dbankwebapp.loadtest=true}; the virtual-thread half needs {@code -Pjava21}
+ * on a Java 21 runtime and is skipped otherwise.
+ */
+@EnabledIfSystemProperty(named = "bankwebapp.loadtest", matches = "true")
+class VirtualThreadLoadTest {
+
+    private static final int PLATFORM_THREADS = 32;
+    private static final int CLIENTS = 256;
+    private static final int REQUESTS = 20_000;
+
+    @Test
+    void whenManyClientsCallTheApi_itShouldReportLatencyAndConcurrencyPerThreadingMode() throws Exception {
+        LoadResult platform = run(false);
+        report("platform threads", platform);
+        assertTrue(platform.maxInFlight() <= PLATFORM_THREADS);
+
+        if (Runtime.version().feature() < 21) {
+            System.out.println("virtual threads: skipped, the runtime is Java " + Runtime.version().feature());
+            return;
+        }
+        LoadResult virtual = run(true);
+        report("virtual threads", virtual);
+    }
+
+    private LoadResult run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankwebappApplication.class, InFlightRequests.class)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.devtools.restart.enabled=false",
+                        "bankwebapp.cache.enabled=false",
+                        "logging.level.root=WARN")
+                .run()) {
+            seed(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            long[] latencies = fire(port);
+            Arrays.sort(latencies);
+            return new LoadResult(latencies[(int) (latencies.length * 0.99) - 1], context.getBean(InFlightRequests.class).max());
+        }
+    }
+
+    private static void seed(ConfigurableApplicationContext context) {
+        context.getBean(CustomerRepository.class).save(Customer.builder()
+                .id("load-customer")
+                .name("Load")
+                .dateofBirth(1990)
+                .addres("Street")
+                .city(City.ISTANBUL)
+                .build());
+        context.getBean(AccountRepository.class).save(Account.builder()
+                .id("load-account")
+                .customerId("load-customer")
+                .balance(100_000)
+                .city(City.ISTANBUL)
+                .currency(Currency.TRY)
+                .build());
+    }
+
+    private static long[] fire(int port) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        URI account = URI.create("http://localhost:" + port + "/account/load-account");
+        URI customer = URI.create("http://localhost:" + port + "/customer/load-customer");
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(clients.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < REQUESTS; i = next.getAndIncrement()) {
+                        HttpRequest request = HttpRequest.newBuilder(i % 2 == 0 ? account : customer).GET().build();
+                        long startedAt = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[i] = System.nanoTime() - startedAt;
+                        assertEquals(200, response.statusCode());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        return latencies;
+    }
+
+    private static void report(String mode, LoadResult result) {
+        System.out.printf("%s: %d requests from %d clients, p99 %.2f ms, max in-flight %d%n",
+                mode, REQUESTS, CLIENTS, result.p99Nanos() / 1_000_000.0, result.maxInFlight());
+    }
+
+    private record LoadResult(long p99Nanos, int maxInFlight) {
+    }
+
+    /**
+     * Tracks how many requests are inside the servlet container at once.
+     */
+    static class InFlightRequests extends OncePerRequestFilter {
+
+        private final AtomicInteger current = new AtomicInteger();
+        private final AtomicInteger max = new AtomicInteger();
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                throws ServletException, IOException {
+            max.accumulateAndGet(current.incrementAndGet(), Math::max);
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                current.decrementAndGet();
+            }
+        }
+
+        int max() {
+            return max.get();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.bankwebapp.metrics;
+
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.repositories.AccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+class PrometheusEndpointTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @AfterEach
+    void deleteAccount() {
+        accountRepository.deleteById("metrics-account");
+    }
+
+    @Test
+    void whenServiceCallsWereMade_itShouldExposeTimersCountersAndPoolAndQueryMetrics() {
+        accountRepository.save(Account.builder()
+                .id("metrics-account")
+                .balance(1000)
+                .currency(Currency.EUR)
+                .customerId("metrics-customer")
+                .city(City.IZMIR)
+                .build());
+        restTemplate.put("/account/withdraw/{id}/{amount}", null, "metrics-account", "50.00");
+        restTemplate.getForObject("/account/{id}", String.class, "missing-account");
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String scrape = response.getBody();
+        assertTrue(scrape.contains("bankwebapp_service_calls_seconds_count{method=\"withdrawMoney\",service=\"account\"} 1"));
+        assertTrue(scrape.contains("bankwebapp_service_calls_seconds_bucket{method=\"withdrawMoney\",service=\"account\",le=\"+Inf\"} 1"));
+        assertTrue(scrape.contains("bankwebapp_service_calls_seconds_bucket{method=\"getAccountById\",service=\"account\",le=\"0.001\"}"));
+        assertTrue(scrape.contains("bankwebapp_account_insufficient_funds_total 1.0"));
+        assertTrue(scrape.contains("bankwebapp_account_not_found_total 1.0"));
+        assertTrue(scrape.contains("hikaricp_connections_active"));
+        assertTrue(scrape.contains("hibernate_statements_total"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.bankwebapp.metrics;
+
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceMetricsTest {
+
+    private static final int CALLS = 1_000_000;
+
+    @Test
+    void whenCallsAreTimed_itShouldRecordThemUnderTheirOperation() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        ServiceMetrics metrics = new ServiceMetrics(registry);
+
+        metrics.stop(ServiceOperation.CUSTOMER_GET_BY_ID, metrics.start());
+        metrics.stop(ServiceOperation.CUSTOMER_GET_BY_ID, metrics.start());
+        metrics.insufficientFunds();
+
+        assertEquals(2, registry.get(ServiceMetrics.TIMER_NAME).tags("service", "customer", "method", "getCustomerById").timer().count());
+        assertEquals(0, registry.get(ServiceMetrics.TIMER_NAME).tags("service", "account", "method", "getAccountById").timer().count());
+        assertEquals(1.0, registry.get("bankwebapp.account.insufficient.funds").counter().count());
+    }
+
+    @Test
+    void whenCallsAreTimed_itShouldNotAllocatePerCall() {
+        ServiceMetrics metrics = new ServiceMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        timeCalls(metrics);
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        timeCalls(metrics);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // Histogram window rotation may allocate occasionally, never once per call
+        assertTrue(allocated < CALLS / 10, allocated + " bytes allocated for " + CALLS + " calls");
+    }
+
+    private static void timeCalls(ServiceMetrics metrics) {
+        for (int i = 0; i < CALLS; i++) {
+            metrics.stop(ServiceOperation.ACCOUNT_WITHDRAW, metrics.start());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.bankwebapp.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private static final int SAMPLES = 100_000;
+
+    @Test
+    void whenRandomDecimalStringsAreParsed_theyShouldRoundTripThroughFormat() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            long minorUnits = random.nextLong(-100_000_000_000_000_000L, 100_000_000_000_000_000L);
+            String text = decimal(minorUnits, random);
+
+            assertEquals(minorUnits, Money.parse(text), text);
+            assertEquals(minorUnits, Money.fromDecimal(new BigDecimal(text)), text);
+            assertEquals(0, Money.toDecimal(minorUnits).compareTo(new BigDecimal(text)), text);
+            String formatted = Money.format(minorUnits);
+            assertEquals(Money.toDecimal(minorUnits).toPlainString(), formatted, text);
+            assertEquals(minorUnits, Money.parse(formatted), text);
+            // One more significant fraction digit can never be represented exactly
+            assertThrows(ArithmeticException.class, () -> Money.parse(formatted + "1"), text);
+        }
+    }
+
+    /**
+     * Writes minor units the way a client might: with trailing zeros added or dropped, or in scientific notation.
+     */
+    private static String decimal(long minorUnits, SplittableRandom random) {
+        long magnitude = Math.abs(minorUnits);
+        String sign = minorUnits < 0 ? "-" : "";
+        String fraction = String.format("%02d", magnitude % 100);
+        switch (random.nextInt(3)) {
+            case 0:
+                return sign + magnitude / 100 + "." + fraction + "0".repeat(random.nextInt(4));
+            case 1:
+                String trimmed = fraction.replaceAll("0+$", "");
+                return sign + magnitude / 100 + (trimmed.isEmpty() ? "" : "." + trimmed);
+            default:
+                return sign + magnitude + "E-2";
+        }
+    }
+
+    @Test
+    void whenSmallDepositsAreRepeated_itShouldNotDrift() {
+        long balance = 0;
+        for (int i = 0; i < 1000; i++) {
+            balance = Money.add(balance, Money.parse("0.10"));
+        }
+
+        assertEquals("100.00", Money.format(balance));
+    }
+
+    @Test
+    void whenFormatCalled_itShouldAlwaysWriteTwoFractionDigits() {
+        assertEquals("0.00", Money.format(0));
+        assertEquals("0.05", Money.format(5));
+        assertEquals("-0.05", Money.format(-5));
+        assertEquals("12.50", Money.format(1250));
+        assertEquals("-12.50", Money.format(-1250));
+        assertEquals("-92233720368547758.08", Money.format(Long.MIN_VALUE));
+    }
+
+    @Test
+    void whenParseCalled_itShouldAcceptEveryExactDecimalForm() {
+        assertEquals(1250, Money.parse("12.5"));
+        assertEquals(1250, Money.parse("12.500"));
+        assertEquals(1200, Money.parse("12"));
+        assertEquals(1200, Money.parse("1.2E1"));
+        assertEquals(-5, Money.parse("-0.05"));
+        assertEquals(new BigDecimal("12.50"), Money.toDecimal(1250));
+    }
+
+    @Test
+    void whenAmountHasMoreFractionDigitsThanTheScale_itShouldBeRejected() {
+        assertThrows(ArithmeticException.class, () -> Money.parse("0.001"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("ten"));
+    }
+
+    @Test
+    void whenArithmeticOverflows_itShouldThrowInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.subtract(Long.MIN_VALUE, 1));
+    }
+
+}
@@ -7,9 +7,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,7 +28,7 @@ class AccountRepositoryTest {
     void whenSaveAccount_itShouldPersistAccount() {
         Account account = Account.builder()
                 .id("test-account-1")
-                .balance(1000.0)
+                .balance(100000)
                 .currency(Currency.USD)
                 .customerId("customer-1")
                 .city(City.ANKARA)
@@ -36,7 +38,7 @@ class AccountRepositoryTest {
 
         assertNotNull(savedAccount);
         assertEquals("test-account-1", savedAccount.getId());
-        assertEquals(1000.0, savedAccount.getBalance());
+        assertEquals(100000, savedAccount.getBalance());
         assertEquals(Currency.USD, savedAccount.getCurrency());
         assertEquals("customer-1", savedAccount.getCustomerId());
         assertEquals(City.ANKARA, savedAccount.getCity());
@@ -46,7 +48,7 @@ class AccountRepositoryTest {
     void whenFindById_withExistingAccount_itShouldReturnAccount() {
         Account account = Account.builder()
                 .id("test-account-2")
-                .balance(2000.0)
+                .balance(200000)
                 .currency(Currency.EUR)
                 .customerId("customer-2")
                 .city(City.ISTANBUL)
@@ -58,7 +60,7 @@ class AccountRepositoryTest {
 
         assertTrue(foundAccount.isPresent());
         assertEquals("test-account-2", foundAccount.get().getId());
-        assertEquals(2000.0, foundAccount.get().getBalance());
+        assertEquals(200000, foundAccount.get().getBalance());
         assertEquals(Currency.EUR, foundAccount.get().getCurrency());
         assertEquals("customer-2", foundAccount.get().getCustomerId());
         assertEquals(City.ISTANBUL, foundAccount.get().getCity());
@@ -75,7 +77,7 @@ class AccountRepositoryTest {
     void whenFindAll_itShouldReturnAllAccounts() {
         Account account1 = Account.builder()
                 .id("test-account-3")
-                .balance(1500.0)
+                .balance(150000)
                 .currency(Currency.USD)
                 .customerId("customer-3")
                 .city(City.ANKARA)
@@ -83,7 +85,7 @@ class AccountRepositoryTest {
 
         Account account2 = Account.builder()
                 .id("test-account-4")
-                .balance(2500.0)
+                .balance(250000)
                 .currency(Currency.EUR)
                 .customerId("customer-4")
                 .city(City.ISTANBUL)
@@ -103,7 +105,7 @@ class AccountRepositoryTest {
     void whenDeleteById_itShouldRemoveAccount() {
         Account account = Account.builder()
                 .id("test-account-5")
-                .balance(3000.0)
+                .balance(300000)
                 .currency(Currency.USD)
                 .customerId("customer-5")
                 .city(City.ANKARA)
@@ -121,7 +123,7 @@ class AccountRepositoryTest {
     void whenUpdateAccount_itShouldPersistChanges() {
         Account account = Account.builder()
                 .id("test-account-6")
-                .balance(1000.0)
+                .balance(100000)
                 .currency(Currency.USD)
                 .customerId("customer-6")
                 .city(City.ANKARA)
@@ -130,14 +132,138 @@ class AccountRepositoryTest {
         entityManager.persistAndFlush(account);
 
         Account foundAccount = accountRepository.findById("test-account-6").get();
-        foundAccount.setBalance(1500.0);
+        foundAccount.setBalance(150000);
         foundAccount.setCurrency(Currency.EUR);
         foundAccount.setCity(City.ISTANBUL);
 
         Account updatedAccount = accountRepository.save(foundAccount);
 
-        assertEquals(1500.0, updatedAccount.getBalance());
+        assertEquals(150000, updatedAccount.getBalance());
         assertEquals(Currency.EUR, updatedAccount.getCurrency());
         assertEquals(City.ISTANBUL, updatedAccount.getCity());
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenWithdraw_withSufficientBalance_itShouldDebitAccount() {
+        Account account = Account.builder()
+                .id("test-account-7")
+                .balance(100000)
+                .currency(Currency.USD)
+                .customerId("customer-7")
+                .city(City.ANKARA)
+                .build();
+
+        entityManager.persistAndFlush(account);
+
+        int updated = accountRepository.withdraw("test-account-7", 40000);
+
+        assertEquals(1, updated);
+        assertEquals(60000, accountRepository.findById("test-account-7").get().getBalance());
+    }
+
+    @Test
+    void whenWithdraw_withInsufficientBalance_itShouldLeaveBalanceUnchanged() {
+        Account account = Account.builder()
+                .id("test-account-8")
+                .balance(10000)
+                .currency(Currency.USD)
+                .customerId("customer-8")
+                .city(City.ANKARA)
+                .build();
+
+        entityManager.persistAndFlush(account);
+
+        int updated = accountRepository.withdraw("test-account-8", 10001);
+
+        assertEquals(0, updated);
+        assertEquals(10000, accountRepository.findById("test-account-8").get().getBalance());
+    }
+
+    @Test
+    void whenDeposit_itShouldCreditAccount() {
+        Account account = Account.builder()
+                .id("test-account-9")
+                .balance(10000)
+                .currency(Currency.EUR)
+                .customerId("customer-9")
+                .city(City.IZMIR)
+                .build();
+
+        entityManager.persistAndFlush(account);
+
+        int updated = accountRepository.deposit("test-account-9", 5000);
+
+        assertEquals(1, updated);
+        assertEquals(15000, accountRepository.findById("test-account-9").get().getBalance());
+    }
+
+    @Test
+    void whenDeposit_withNonExistingAccount_itShouldUpdateNothing() {
+        assertEquals(0, accountRepository.deposit("non-existing-account", 5000));
+    }
+
+    @Test
+    void whenFindByIdGreaterThan_itShouldReturnNextPageOrderedById() {
+        for (String id : List.of("page-c", "page-a", "page-d", "page-b")) {
+            entityManager.persist(Account.builder()
+                    .id(id)
+                    .balance(10000)
+                    .currency(Currency.USD)
+                    .customerId("customer-page")
+                    .city(City.ANKARA)
+                    .build());
+        }
+        entityManager.flush();
+
+        List<Account> page = accountRepository.findByIdGreaterThanOrderByIdAsc("page-a", Limit.of(2));
+
+        assertEquals(List.of("page-b", "page-c"), page.stream().map(Account::getId).toList());
+    }
+
+    @Test
+    void whenFindByCustomerCityOrCurrencyAfterCursor_itShouldReturnOnlyMatchingAccountsOrderedById() {
+        persistAccount("filter-c", "customer-filter-1", City.IZMIR, Currency.EUR);
+        persistAccount("filter-a", "customer-filter-1", City.IZMIR, Currency.USD);
+        persistAccount("filter-b", "customer-filter-2", City.MANISA, Currency.EUR);
+        persistAccount("filter-d", "customer-filter-1", City.MANISA, Currency.EUR);
+        entityManager.flush();
+
+        assertEquals(List.of("filter-c", "filter-d"), accountRepository
+                .findByCustomerIdAndIdGreaterThanOrderByCustomerIdAscIdAsc("customer-filter-1", "filter-a", Limit.of(10))
+                .stream().map(Account::getId).toList());
+        assertEquals(List.of("filter-a"), accountRepository
+                .findByCityAndIdGreaterThanOrderByCityAscIdAsc(City.IZMIR, "", Limit.of(1))
+                .stream().map(Account::getId).toList());
+        assertEquals(List.of("filter-b", "filter-c", "filter-d"), accountRepository
+                .findByCurrencyAndIdGreaterThanOrderByCurrencyAscIdAsc(Currency.EUR, "filter", Limit.of(10))
+                .stream().map(Account::getId).toList());
+    }
+
+    @Test
+    void whenStreamAllOrderedById_itShouldReturnEveryAccountInOrder() {
+        for (String id : List.of("stream-b", "stream-a")) {
+            entityManager.persist(Account.builder()
+                    .id(id)
+                    .balance(10000)
+                    .currency(Currency.USD)
+                    .customerId("customer-stream")
+                    .city(City.ANKARA)
+                    .build());
+        }
+        entityManager.flush();
+
+        try (Stream<Account> accounts = accountRepository.streamAllByOrderByIdAsc()) {
+            assertEquals(List.of("stream-a", "stream-b"), accounts.map(Account::getId).toList());
+        }
+    }
+
+    private void persistAccount(String id, String customerId, City city, Currency currency) {
+        entityManager.persist(Account.builder()
+                .id(id)
+                .balance(10000)
+                .currency(currency)
+                .customerId(customerId)
+                .city(city)
+                .build());
+    }
+}
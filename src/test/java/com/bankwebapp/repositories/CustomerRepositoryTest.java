@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
@@ -135,4 +136,20 @@ class CustomerRepositoryTest {
         assertEquals(1981, updatedCustomer.getDateofBirth());
         assertEquals(City.ISTANBUL, updatedCustomer.getCity());
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenFindByIdGreaterThan_itShouldReturnNextPageOrderedById() {
+        for (String id : List.of("page-b", "page-c", "page-a")) {
+            Customer customer = new Customer();
+            customer.setId(id);
+            customer.setName("Customer " + id);
+            customer.setCity(City.IZMIR);
+            entityManager.persist(customer);
+        }
+        entityManager.flush();
+
+        List<Customer> page = customerRepository.findByIdGreaterThanOrderByIdAsc("", Limit.of(2));
+
+        assertEquals(List.of("page-a", "page-b"), page.stream().map(Customer::getId).toList());
+    }
+}
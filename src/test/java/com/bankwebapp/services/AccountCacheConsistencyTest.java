@@ -0,0 +1,95 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.cache.ReadThroughCache;
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.repositories.AccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "bankwebapp.cache.enabled=true")
+class AccountCacheConsistencyTest {
+
+    private static final int READERS = 8;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ReadThroughCache<String, AccountDto> accountCache;
+
+    @AfterEach
+    void cleanUp() {
+        accountRepository.deleteById("cached-account");
+    }
+
+    @Test
+    void whenAccountIsReadAfterWithdrawal_itShouldNotServeTheCachedBalance() {
+        createAccount(10000);
+
+        assertEquals(10000, accountService.getAccountById("cached-account").getBalance());
+        long hitsBefore = accountCache.hitCount();
+        assertEquals(10000, accountService.getAccountById("cached-account").getBalance());
+        assertEquals(hitsBefore + 1, accountCache.hitCount());
+
+        accountService.withdrawMoney("cached-account", 3000);
+
+        assertEquals(7000, accountService.getAccountById("cached-account").getBalance());
+    }
+
+    @Test
+    void whenReadersRaceWithWithdrawals_itShouldNeverServeAStaleBalance() throws Exception {
+        createAccount(50000);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            futures.add(readers.submit(() -> {
+                while (running.get()) {
+                    accountService.getAccountById("cached-account");
+                }
+            }));
+        }
+
+        try {
+            for (int i = 0; i < 200; i++) {
+                long balanceAfterWithdrawal = accountService.withdrawMoney("cached-account", 100).getBalance();
+                assertEquals(balanceAfterWithdrawal, accountService.getAccountById("cached-account").getBalance());
+            }
+        } finally {
+            running.set(false);
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+            readers.shutdown();
+        }
+        assertEquals(30000, accountService.getAccountById("cached-account").getBalance());
+    }
+
+    private void createAccount(long balance) {
+        accountRepository.save(Account.builder()
+                .id("cached-account")
+                .balance(balance)
+                .currency(Currency.USD)
+                .customerId("cached-customer")
+                .city(City.MANISA)
+                .build());
+    }
+}
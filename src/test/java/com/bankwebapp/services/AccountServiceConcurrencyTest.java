@@ -0,0 +1,165 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.UpdateAccountRequest;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.AccountRepository;
+import com.bankwebapp.repositories.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AccountServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int OPERATIONS_PER_THREAD = 50;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    private final List<String> createdAccountIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        createdAccountIds.forEach(accountRepository::deleteById);
+    }
+
+    @Test
+    void whenManyThreadsDepositAndWithdrawOnOneAccount_itShouldNotLoseAnyUpdate() throws Exception {
+        String accountId = createAccount("hot-account-1", 0);
+
+        long elapsedNanos = runConcurrently(threadIndex -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                accountService.depositMoney(accountId, 200);
+                assertNotNull(accountService.withdrawMoney(accountId, 100).getId());
+            }
+        });
+
+        long expectedBalance = THREADS * OPERATIONS_PER_THREAD * 100;
+        assertEquals(expectedBalance, accountRepository.findById(accountId).get().getBalance());
+        report("deposit/withdraw", THREADS * OPERATIONS_PER_THREAD * 2, elapsedNanos);
+    }
+
+    @Test
+    void whenManyThreadsWithdrawMoreThanTheBalance_itShouldNeverOverdraw() throws Exception {
+        long initialBalance = 100000;
+        String accountId = createAccount("hot-account-2", initialBalance);
+        AtomicInteger successfulWithdrawals = new AtomicInteger();
+
+        long elapsedNanos = runConcurrently(threadIndex -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                AccountDto result = accountService.withdrawMoney(accountId, 100);
+                if (result.getId() != null) {
+                    successfulWithdrawals.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(initialBalance / 100, successfulWithdrawals.get());
+        assertEquals(0, accountRepository.findById(accountId).get().getBalance());
+        report("withdraw", THREADS * OPERATIONS_PER_THREAD, elapsedNanos);
+    }
+
+    @Test
+    void whenAccountsAreUpdatedWhileDepositsRun_theLedgerShouldStillAddUpToTheBalance() throws Exception {
+        // Ledger entries outlive their account, so every run gets an account id of its own
+        String accountId = createAccount("hot-account-" + UUID.randomUUID(), 0);
+        customerRepository.save(Customer.builder().id("customer-" + accountId).name("Hot").city(City.ISTANBUL).build());
+        UpdateAccountRequest update = new UpdateAccountRequest();
+        update.setCustomerId("customer-" + accountId);
+        update.setBalance(1_000);
+        update.setCity(City.ISTANBUL);
+        update.setCurrency(Currency.TRY);
+
+        try {
+            runConcurrently(threadIndex -> {
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    if (threadIndex % 4 == 0) {
+                        accountService.updateAccount(accountId, update);
+                    } else {
+                        accountService.depositMoney(accountId, 100);
+                    }
+                }
+            });
+        } finally {
+            customerRepository.deleteById("customer-" + accountId);
+        }
+
+        assertEquals(accountRepository.findById(accountId).get().getBalance(), ledgerService.rebuildBalance(accountId));
+    }
+
+    private String createAccount(String id, long balance) {
+        accountRepository.save(Account.builder()
+                .id(id)
+                .balance(balance)
+                .currency(Currency.TRY)
+                .customerId("customer-" + id)
+                .city(City.ISTANBUL)
+                .build());
+        createdAccountIds.add(id);
+        return id;
+    }
+
+    private long runConcurrently(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int threadIndex = t;
+            Callable<Void> task = () -> {
+                start.await();
+                body.run(threadIndex);
+                return null;
+            };
+            futures.add(executor.submit(task));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<Void> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return System.nanoTime() - startedAt;
+    }
+
+    private static void report(String operation, int operations, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%s on one account: %d ops from %d threads in %.3f s (%.0f ops/sec)%n",
+                operation, operations, THREADS, seconds, operations / seconds);
+    }
+
+    @FunctionalInterface
+    private interface ThreadBody {
+        void run(int threadIndex) throws Exception;
+    }
+}
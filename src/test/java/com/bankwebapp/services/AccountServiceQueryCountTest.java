@@ -0,0 +1,107 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.CityDto;
+import com.bankwebapp.dtos.CreateAccountRequest;
+import com.bankwebapp.dtos.CreateCustomerRequest;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.AccountRepository;
+import com.bankwebapp.repositories.CustomerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "bankwebapp.cache.enabled=false"
+})
+class AccountServiceQueryCountTest {
+
+    private static final int ITERATIONS = 500;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        CreateCustomerRequest customer = new CreateCustomerRequest();
+        customer.setId("query-count-customer");
+        customer.setName("Query Count");
+        customer.setCity(CityDto.IZMIR);
+        customerService.createCustomer(customer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountRepository.deleteById("query-count-account");
+        customerRepository.deleteById("query-count-customer");
+    }
+
+    @Test
+    void whenCreateAccountCalled_itShouldCheckTheCustomerWithoutLoadingIt() {
+        CreateAccountRequest request = new CreateAccountRequest();
+        request.setId("query-count-account");
+        request.setCustomerId("query-count-customer");
+        request.setBalance(10000);
+        request.setCurrency(Currency.TRY);
+        request.setCity(City.IZMIR);
+
+        statistics.clear();
+        accountService.createAccount(request);
+
+        assertEquals(0, statistics.getEntityStatistics(Customer.class.getName()).getLoadCount());
+        System.out.printf("createAccount: %d statements, %d entities loaded%n",
+                statistics.getPrepareStatementCount(), statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void whenExistenceIsChecked_itShouldBeCheaperThanLoadingTheCustomer() {
+        for (int i = 0; i < ITERATIONS; i++) {
+            customerService.getCustomerById("query-count-customer");
+            customerService.existsCustomerById("query-count-customer");
+        }
+
+        statistics.clear();
+        long lookupStartedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertNotNull(customerService.getCustomerById("query-count-customer").getId());
+        }
+        long lookupNanos = System.nanoTime() - lookupStartedAt;
+        long lookupLoads = statistics.getEntityLoadCount();
+
+        statistics.clear();
+        long existsStartedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertTrue(customerService.existsCustomerById("query-count-customer"));
+        }
+        long existsNanos = System.nanoTime() - existsStartedAt;
+
+        assertEquals(ITERATIONS, lookupLoads);
+        assertEquals(0, statistics.getEntityLoadCount());
+        System.out.printf("customer check: full lookup %d us/op (%d entities loaded), existsById %d us/op (0 entities loaded)%n",
+                lookupNanos / ITERATIONS / 1000, lookupLoads, existsNanos / ITERATIONS / 1000);
+    }
+}
@@ -1,23 +1,35 @@
 package com.bankwebapp.services;
 
+import com.bankwebapp.cache.ReadThroughCache;
 import com.bankwebapp.dtos.*;
+import com.bankwebapp.metrics.ServiceMetrics;
 import com.bankwebapp.models.Account;
 import com.bankwebapp.models.City;
 import com.bankwebapp.models.Currency;
 import com.bankwebapp.repositories.AccountRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.domain.Limit;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +45,20 @@ class AccountServiceTest {
     private  CustomerService customerService;
     @Mock
     private AccountDtoConverter accountDtoConverter;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private LedgerService ledgerService;
+    @Mock
+    private AccountStatistics statistics;
+    @Spy
+    private ReadThroughCache<String, AccountDto> accountCache = ReadThroughCache.disabled();
+    @Spy
+    private ServiceMetrics metrics = new ServiceMetrics(new SimpleMeterRegistry());
+    @Spy
+    private DepositBuffer depositBuffer = DepositBuffer.disabled();
+    @Spy
+    private CurrencyConversionService currencyConversionService = new CurrencyConversionService(new DefaultResourceLoader(), "classpath:rates.properties");
 
 
 
@@ -41,19 +67,12 @@ class AccountServiceTest {
     public void whenCreateAccountCalledWithValidRequest_itShouldReturnValidAccountDto() {
         CreateAccountRequest createAccountRequest  = new CreateAccountRequest();
         createAccountRequest.setId("123");
-        createAccountRequest.setBalance(1000.0);
+        createAccountRequest.setBalance(100000);
         createAccountRequest.setCurrency(Currency.USD);
         createAccountRequest.setCustomerId("456");
         createAccountRequest.setCity(City.ANKARA);
 
 
-        CustomerDto customer = CustomerDto.builder()
-                .id("456")
-                .name("John Doe")
-                .addres("123 Main St")
-                .dateofBirth(1998)
-                .city(CityDto.ANKARA)
-                .build();
 
                 Account account = Account.builder()
                 .id(createAccountRequest.getId())
@@ -64,19 +83,20 @@ class AccountServiceTest {
                 .build();
         AccountDto accountDto = AccountDto.builder()
                 .id("123")
-                .balance(1000.0)
+                .balance(100000)
                 .currency(Currency.USD)
                 .customerId("456").build();
 
 
-        when(customerService.getCustomerById("456")).thenReturn(customer);
+        when(customerService.existsCustomerById("456")).thenReturn(true);
         when(accountRepository.save(account)).thenReturn(account);
         when(accountDtoConverter.convert(account)).thenReturn(accountDto);
 
         AccountDto result = accountService.createAccount(createAccountRequest);
 
         assertEquals(accountDto, result);
-        verify(customerService).getCustomerById("456");
+        verify(statistics).added(account);
+        verify(customerService).existsCustomerById("456");
         verify(accountRepository).save(account);
         verify(accountDtoConverter).convert(account);
     }
@@ -87,13 +107,13 @@ class AccountServiceTest {
 
         CreateAccountRequest createAccountRequest  = new CreateAccountRequest();
         createAccountRequest.setId("123");
-        createAccountRequest.setBalance(1000.0);
+        createAccountRequest.setBalance(100000);
         createAccountRequest.setCurrency(Currency.USD);
         createAccountRequest.setCustomerId("456");
         createAccountRequest.setCity(City.ANKARA);
 
 
-        when(customerService.getCustomerById("456")).thenReturn(CustomerDto.builder().build());
+        when(customerService.existsCustomerById("456")).thenReturn(false);
         AccountDto expectedAccountDto = AccountDto.builder().build();
         AccountDto result = accountService.createAccount(createAccountRequest);
         assertEquals(result,expectedAccountDto);
@@ -124,24 +144,34 @@ class AccountServiceTest {
 
 
 
+    @Test
+    void whenCreateAccountCalledWithAnExistingId_itShouldRejectItWithoutTouchingLedgerOrStatistics() {
+        CreateAccountRequest createAccountRequest = new CreateAccountRequest();
+        createAccountRequest.setId("123");
+        createAccountRequest.setBalance(5000);
+        createAccountRequest.setCurrency(Currency.TRY);
+        createAccountRequest.setCustomerId("456");
+        createAccountRequest.setCity(City.ANKARA);
+
+        when(customerService.existsCustomerById("456")).thenReturn(true);
+        when(accountRepository.existsById("123")).thenReturn(true);
+
+        assertThrows(AccountAlreadyExistsException.class, () -> accountService.createAccount(createAccountRequest));
+        verify(accountRepository, never()).save(any());
+        verifyNoInteractions(ledgerService, statistics);
+    }
+
     @Test
     void whenCreateAccountCalledAndRepositoryThrowsException_itShouldThrowException() {
 
         CreateAccountRequest createAccountRequest  = new CreateAccountRequest();
         createAccountRequest.setId("123");
-        createAccountRequest.setBalance(1000.0);
+        createAccountRequest.setBalance(100000);
         createAccountRequest.setCurrency(Currency.USD);
         createAccountRequest.setCustomerId("456");
         createAccountRequest.setCity(City.ANKARA);
 
 
-        CustomerDto customer = CustomerDto.builder()
-                .id("456")
-                .name("John Doe")
-                .addres("123 Main St")
-                .dateofBirth(1998)
-                .city(CityDto.ANKARA)
-                .build();
 
         Account account = Account.builder()
                 .id(createAccountRequest.getId())
@@ -152,19 +182,19 @@ class AccountServiceTest {
                 .build();
         AccountDto accountDto = AccountDto.builder()
                 .id("123")
-                .balance(1000.0) 
+                .balance(100000) 
                 .currency(Currency.USD)
                 .customerId("456").build();
 
 
-        when(customerService.getCustomerById("456")).thenReturn(customer);
+        when(customerService.existsCustomerById("456")).thenReturn(true);
         when(accountRepository.save(account)).thenThrow(new RuntimeException("Problem with saving account :)"));
 
         assertThrows(RuntimeException.class, () -> {
             accountService.createAccount(createAccountRequest);
         });
 
-        verify(customerService).getCustomerById("456");
+        verify(customerService).existsCustomerById("456");
         verify(accountRepository).save(account);
     }
 
@@ -173,26 +203,22 @@ class AccountServiceTest {
         String accountId = "123";
         UpdateAccountRequest updateRequest = new UpdateAccountRequest();
         updateRequest.setCustomerId("456");
-        updateRequest.setBalance(2000.0);
+        updateRequest.setBalance(200000);
         updateRequest.setCurrency(Currency.EUR);
         updateRequest.setCity(City.ISTANBUL);
 
-        CustomerDto customer = CustomerDto.builder()
-                .id("456")
-                .name("John Doe")
-                .build();
 
         Account existingAccount = Account.builder()
                 .id(accountId)
-                .balance(1000.0)
-                .currency(Currency.USD)
+                .balance(100000)
+                .currency(Currency.EUR)
                 .customerId("456")
                 .city(City.ANKARA)
                 .build();
 
         Account updatedAccount = Account.builder()
                 .id(accountId)
-                .balance(2000.0)
+                .balance(200000)
                 .currency(Currency.EUR)
                 .customerId("456")
                 .city(City.ISTANBUL)
@@ -200,51 +226,111 @@ class AccountServiceTest {
 
         AccountDto expectedDto = AccountDto.builder()
                 .id(accountId)
-                .balance(2000.0)
+                .balance(200000)
                 .currency(Currency.EUR)
                 .customerId("456")
                 .build();
 
-        when(customerService.getCustomerById("456")).thenReturn(customer);
-        when(accountRepository.findById(accountId)).thenReturn(Optional.of(existingAccount));
+        when(customerService.existsCustomerById("456")).thenReturn(true);
+        when(accountRepository.findLockedById(accountId)).thenReturn(Optional.of(existingAccount));
         when(accountRepository.save(any(Account.class))).thenReturn(updatedAccount);
         when(accountDtoConverter.convert(updatedAccount)).thenReturn(expectedDto);
 
         AccountDto result = accountService.updateAccount(accountId, updateRequest);
 
         assertEquals(expectedDto, result);
-        verify(customerService).getCustomerById("456");
-        verify(accountRepository).findById(accountId);
+        verify(customerService).existsCustomerById("456");
+        verify(accountRepository).findLockedById(accountId);
         verify(accountRepository).save(any(Account.class));
         verify(accountDtoConverter).convert(updatedAccount);
     }
 
+    @Test
+    void whenUpdateAccountChangesTheCurrencyOfAFundedAccount_itShouldBeRejected() {
+        UpdateAccountRequest updateRequest = new UpdateAccountRequest();
+        updateRequest.setCustomerId("456");
+        updateRequest.setBalance(100000);
+        updateRequest.setCurrency(Currency.EUR);
+        updateRequest.setCity(City.ANKARA);
+        Account existingAccount = Account.builder().id("123").balance(100000).currency(Currency.USD).customerId("456").city(City.ANKARA).build();
+        when(customerService.existsCustomerById("456")).thenReturn(true);
+        when(accountRepository.findLockedById("123")).thenReturn(Optional.of(existingAccount));
+
+        assertThrows(CurrencyChangeNotAllowedException.class, () -> accountService.updateAccount("123", updateRequest));
+
+        assertEquals(Currency.USD, existingAccount.getCurrency());
+        verify(accountRepository, never()).save(any(Account.class));
+        verifyNoInteractions(ledgerService, statistics);
+    }
+
     @Test
     void whenUpdateAccountCalledWithInvalidCustomer_itShouldReturnEmptyAccountDto() {
         String accountId = "123";
         UpdateAccountRequest updateRequest = new UpdateAccountRequest();
         updateRequest.setCustomerId("invalidCustomer");
 
-        CustomerDto emptyCustomer = CustomerDto.builder().build();
-
-        when(customerService.getCustomerById("invalidCustomer")).thenReturn(emptyCustomer);
+        when(customerService.existsCustomerById("invalidCustomer")).thenReturn(false);
 
         AccountDto result = accountService.updateAccount(accountId, updateRequest);
 
         assertEquals(AccountDto.builder().build(), result);
-        verify(customerService).getCustomerById("invalidCustomer");
+        verify(customerService).existsCustomerById("invalidCustomer");
         verifyNoInteractions(accountRepository);
         verifyNoInteractions(accountDtoConverter);
     }
 
+    @Test
+    void whenPatchAccountMovesTheAccount_itShouldMoveItsStatisticsWithoutLoadingIt() {
+        Account previous = Account.builder().id("123").balance(0).currency(Currency.TRY).customerId("456").city(City.IZMIR).build();
+        PatchAccountRequest patch = PatchAccountRequest.builder().currency(Currency.EUR).build();
+        when(accountRepository.patchReturningPrevious("123", null, null, Currency.EUR)).thenReturn(Optional.of(previous));
+        when(accountDtoConverter.convert(any(Account.class))).thenAnswer(invocation -> {
+            Account account = invocation.getArgument(0);
+            return AccountDto.builder().id(account.getId()).balance(account.getBalance()).currency(account.getCurrency()).customerId(account.getCustomerId()).build();
+        });
+
+        AccountDto result = accountService.patchAccount("123", patch);
+
+        assertEquals(Currency.EUR, result.getCurrency());
+        assertEquals(0, result.getBalance());
+        assertEquals("456", result.getCustomerId());
+        verify(entityManager).detach(previous);
+        verify(statistics).removed(previous);
+        verify(statistics).added(argThat(account -> account.getCurrency() == Currency.EUR && account.getCity() == City.IZMIR));
+        verify(accountRepository, never()).findById(any());
+        verify(accountCache).evict("123");
+    }
+
+    @Test
+    void whenPatchAccountChangesTheCurrencyOfAFundedAccount_itShouldBeRejected() {
+        Account stored = Account.builder().id("123").balance(5000).currency(Currency.TRY).customerId("456").city(City.IZMIR).build();
+        when(accountRepository.patchReturningPrevious("123", null, null, Currency.EUR)).thenReturn(Optional.empty());
+        when(accountRepository.findById("123")).thenReturn(Optional.of(stored));
+
+        assertThrows(CurrencyChangeNotAllowedException.class,
+                () -> accountService.patchAccount("123", PatchAccountRequest.builder().currency(Currency.EUR).build()));
+
+        verifyNoInteractions(statistics);
+    }
+
+    @Test
+    void whenPatchAccountMatchesNoRow_itShouldReturnEmptyAccountDto() {
+        when(accountRepository.patchReturningPrevious("123", "unknown", null, null)).thenReturn(Optional.empty());
+
+        AccountDto result = accountService.patchAccount("123", PatchAccountRequest.builder().customerId("unknown").build());
+
+        assertEquals(AccountDto.builder().build(), result);
+        verifyNoInteractions(statistics);
+    }
+
     @Test
     void whenGetAllAccountsCalled_itShouldReturnAllAccountDtos() {
-        Account account1 = Account.builder().id("1").balance(1000.0).build();
-        Account account2 = Account.builder().id("2").balance(2000.0).build();
+        Account account1 = Account.builder().id("1").balance(100000).build();
+        Account account2 = Account.builder().id("2").balance(200000).build();
         List<Account> accounts = Arrays.asList(account1, account2);
 
-        AccountDto dto1 = AccountDto.builder().id("1").balance(1000.0).build();
-        AccountDto dto2 = AccountDto.builder().id("2").balance(2000.0).build();
+        AccountDto dto1 = AccountDto.builder().id("1").balance(100000).build();
+        AccountDto dto2 = AccountDto.builder().id("2").balance(200000).build();
 
         when(accountRepository.findAll()).thenReturn(accounts);
         when(accountDtoConverter.convert(account1)).thenReturn(dto1);
@@ -262,8 +348,8 @@ class AccountServiceTest {
     @Test
     void whenGetAccountByIdCalledWithExistingAccount_itShouldReturnAccountDto() {
         String accountId = "123";
-        Account account = Account.builder().id(accountId).balance(1000.0).build();
-        AccountDto expectedDto = AccountDto.builder().id(accountId).balance(1000.0).build();
+        Account account = Account.builder().id(accountId).balance(100000).build();
+        AccountDto expectedDto = AccountDto.builder().id(accountId).balance(100000).build();
 
         when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
         when(accountDtoConverter.convert(account)).thenReturn(expectedDto);
@@ -286,6 +372,7 @@ class AccountServiceTest {
         assertEquals(AccountDto.builder().build(), result);
         verify(accountRepository).findById(accountId);
         verifyNoInteractions(accountDtoConverter);
+        verify(metrics).accountNotFound();
     }
 
     @Test
@@ -300,111 +387,434 @@ class AccountServiceTest {
     @Test
     void whenWithdrawMoneyCalledWithSufficientBalance_itShouldReturnUpdatedAccountDto() {
         String accountId = "123";
-        double withdrawAmount = 500.0;
-        Account account = Account.builder()
-                .id(accountId)
-                .balance(1000.0)
-                .build();
-        
+        long withdrawAmount = 50000;
         Account updatedAccount = Account.builder()
                 .id(accountId)
-                .balance(500.0)
+                .balance(50000)
                 .build();
 
         AccountDto expectedDto = AccountDto.builder()
                 .id(accountId)
-                .balance(500.0)
+                .balance(50000)
                 .build();
 
-        when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
-        when(accountRepository.save(any(Account.class))).thenReturn(updatedAccount);
+        when(accountRepository.withdraw(accountId, withdrawAmount)).thenReturn(1);
+        when(accountRepository.findById(accountId)).thenReturn(Optional.of(updatedAccount));
         when(accountDtoConverter.convert(updatedAccount)).thenReturn(expectedDto);
 
         AccountDto result = accountService.withdrawMoney(accountId, withdrawAmount);
 
         assertEquals(expectedDto, result);
+        verify(accountRepository).withdraw(accountId, withdrawAmount);
         verify(accountRepository).findById(accountId);
-        verify(accountRepository).save(any(Account.class));
+        verify(accountRepository, never()).save(any());
         verify(accountDtoConverter).convert(updatedAccount);
+        verify(ledgerService).record(accountId, -withdrawAmount);
     }
 
     @Test
     void whenWithdrawMoneyCalledWithInsufficientBalance_itShouldReturnEmptyAccountDto() {
         String accountId = "123";
-        double withdrawAmount = 1500.0;
-        Account account = Account.builder()
-                .id(accountId)
-                .balance(1000.0)
-                .build();
+        long withdrawAmount = 150000;
 
-        when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
+        when(accountRepository.withdraw(accountId, withdrawAmount)).thenReturn(0);
+        when(accountRepository.existsById(accountId)).thenReturn(true);
 
         AccountDto result = accountService.withdrawMoney(accountId, withdrawAmount);
 
         assertEquals(AccountDto.builder().build(), result);
-        verify(accountRepository).findById(accountId);
+        verify(accountRepository).withdraw(accountId, withdrawAmount);
+        verify(accountRepository, never()).findById(any());
         verify(accountRepository, never()).save(any());
         verifyNoInteractions(accountDtoConverter);
+        verify(metrics).insufficientFunds();
     }
 
     @Test
     void whenWithdrawMoneyCalledWithNonExistingAccount_itShouldReturnEmptyAccountDto() {
         String accountId = "nonexistent";
-        double withdrawAmount = 500.0;
+        long withdrawAmount = 50000;
 
-        when(accountRepository.findById(accountId)).thenReturn(Optional.empty());
+        when(accountRepository.withdraw(accountId, withdrawAmount)).thenReturn(0);
 
         AccountDto result = accountService.withdrawMoney(accountId, withdrawAmount);
 
         assertEquals(AccountDto.builder().build(), result);
-        verify(accountRepository).findById(accountId);
+        verify(accountRepository).withdraw(accountId, withdrawAmount);
         verify(accountRepository, never()).save(any());
         verifyNoInteractions(accountDtoConverter);
+        verifyNoInteractions(ledgerService);
     }
 
     @Test
     void whenDepositMoneyCalledWithExistingAccount_itShouldReturnUpdatedAccountDto() {
         String accountId = "123";
-        double depositAmount = 500.0;
-        Account account = Account.builder()
-                .id(accountId)
-                .balance(1000.0)
-                .build();
-        
+        long depositAmount = 50000;
         Account updatedAccount = Account.builder()
                 .id(accountId)
-                .balance(1500.0)
+                .balance(150000)
                 .build();
 
         AccountDto expectedDto = AccountDto.builder()
                 .id(accountId)
-                .balance(1500.0)
+                .balance(150000)
                 .build();
 
-        when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
-        when(accountRepository.save(any(Account.class))).thenReturn(updatedAccount);
+        when(accountRepository.deposit(accountId, depositAmount)).thenReturn(1);
+        when(accountRepository.findById(accountId)).thenReturn(Optional.of(updatedAccount));
         when(accountDtoConverter.convert(updatedAccount)).thenReturn(expectedDto);
 
         AccountDto result = accountService.depositMoney(accountId, depositAmount);
 
         assertEquals(expectedDto, result);
+        verify(accountRepository).deposit(accountId, depositAmount);
         verify(accountRepository).findById(accountId);
-        verify(accountRepository).save(any(Account.class));
+        verify(accountRepository, never()).save(any());
         verify(accountDtoConverter).convert(updatedAccount);
+        verify(ledgerService).record(accountId, depositAmount);
     }
 
     @Test
     void whenDepositMoneyCalledWithNonExistingAccount_itShouldReturnEmptyAccountDto() {
         String accountId = "nonexistent";
-        double depositAmount = 500.0;
+        long depositAmount = 50000;
 
-        when(accountRepository.findById(accountId)).thenReturn(Optional.empty());
+        when(accountRepository.deposit(accountId, depositAmount)).thenReturn(0);
 
         AccountDto result = accountService.depositMoney(accountId, depositAmount);
 
         assertEquals(AccountDto.builder().build(), result);
-        verify(accountRepository).findById(accountId);
-        verify(accountRepository, never()).save(any());
+        verify(accountRepository).deposit(accountId, depositAmount);
+        verify(accountRepository, never()).findById(any());
         verifyNoInteractions(accountDtoConverter);
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenTheAmountIsNotPositive_singleOperationsShouldBeRejected() {
+        assertThrows(InvalidTransactionException.class, () -> accountService.withdrawMoney("123", -500));
+        assertThrows(InvalidTransactionException.class, () -> accountService.depositMoney("123", 0));
+        assertThrows(InvalidTransactionException.class, () -> accountService.withdrawMoney("123", -500, Currency.EUR));
+        assertThrows(InvalidTransactionException.class, () -> accountService.depositMoney("123", -1, Currency.EUR));
+        assertThrows(InvalidTransactionException.class, () -> accountService.bufferDeposit("123", -500));
+
+        verifyNoInteractions(accountRepository);
+        verifyNoInteractions(ledgerService);
+    }
+
+    @Test
+    void whenGetAccountsPageCalledWithFullPage_itShouldReturnLastIdAsCursor() {
+        Account account1 = Account.builder().id("1").balance(100000).build();
+        Account account2 = Account.builder().id("2").balance(200000).build();
+
+        AccountDto dto1 = AccountDto.builder().id("1").balance(100000).build();
+        AccountDto dto2 = AccountDto.builder().id("2").balance(200000).build();
+
+        when(accountRepository.findByIdGreaterThanOrderByIdAsc("", Limit.of(2))).thenReturn(List.of(account1, account2));
+        when(accountDtoConverter.convert(account1)).thenReturn(dto1);
+        when(accountDtoConverter.convert(account2)).thenReturn(dto2);
+
+        KeysetPageDto<AccountDto> result = accountService.getAccountsPage(null, 2);
+
+        assertEquals(List.of(dto1, dto2), result.getItems());
+        assertEquals("2", result.getNextAfter());
+    }
+
+    @Test
+    void whenGetAccountsPageCalledWithPartialPage_itShouldReturnNoCursor() {
+        Account account = Account.builder().id("3").balance(100000).build();
+        AccountDto dto = AccountDto.builder().id("3").balance(100000).build();
+
+        when(accountRepository.findByIdGreaterThanOrderByIdAsc("2", Limit.of(AccountService.MAX_PAGE_SIZE))).thenReturn(List.of(account));
+        when(accountDtoConverter.convert(account)).thenReturn(dto);
+
+        KeysetPageDto<AccountDto> result = accountService.getAccountsPage("2", 1_000_000);
+
+        assertEquals(List.of(dto), result.getItems());
+        assertNull(result.getNextAfter());
+    }
+
+    @Test
+    void whenGetAccountsByCustomerIdCalled_itShouldQueryFromTheCursorAndReturnCursorOfFullPage() {
+        Account account = Account.builder().id("7").customerId("customer1").balance(100).build();
+        AccountDto dto = AccountDto.builder().id("7").customerId("customer1").balance(100).build();
+
+        when(accountRepository.findByCustomerIdAndIdGreaterThanOrderByCustomerIdAscIdAsc("customer1", "", Limit.of(1))).thenReturn(List.of(account));
+        when(accountDtoConverter.convert(account)).thenReturn(dto);
+
+        KeysetPageDto<AccountDto> result = accountService.getAccountsByCustomerId("customer1", null, 1);
+
+        assertEquals(List.of(dto), result.getItems());
+        assertEquals("7", result.getNextAfter());
+    }
+
+    @Test
+    void whenGetAccountsByCityOrCurrencyCalled_itShouldUseTheIndexedFinders() {
+        when(accountRepository.findByCityAndIdGreaterThanOrderByCityAscIdAsc(City.IZMIR, "3", Limit.of(10))).thenReturn(List.of());
+        when(accountRepository.findByCurrencyAndIdGreaterThanOrderByCurrencyAscIdAsc(Currency.EUR, "3", Limit.of(10))).thenReturn(List.of());
+
+        assertNull(accountService.getAccountsByCity(City.IZMIR, "3", 10).getNextAfter());
+        assertNull(accountService.getAccountsByCurrency(Currency.EUR, "3", 10).getNextAfter());
+    }
+
+    @Test
+    void whenStreamAllAccountsCalled_itShouldConvertAndDetachEveryAccount() {
+        Account account1 = Account.builder().id("1").balance(100000).build();
+        Account account2 = Account.builder().id("2").balance(200000).build();
+
+        AccountDto dto1 = AccountDto.builder().id("1").balance(100000).build();
+        AccountDto dto2 = AccountDto.builder().id("2").balance(200000).build();
+
+        when(accountRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(account1, account2));
+        when(accountDtoConverter.convert(account1)).thenReturn(dto1);
+        when(accountDtoConverter.convert(account2)).thenReturn(dto2);
+
+        List<AccountDto> streamed = new ArrayList<>();
+        accountService.streamAllAccounts(streamed::add);
+
+        assertEquals(List.of(dto1, dto2), streamed);
+        verify(entityManager).detach(account1);
+        verify(entityManager).detach(account2);
+    }
+
+    @Test
+    void whenApplyTransactionsCalled_itShouldApplyThemInOrderAndReportEachResult() {
+        Account account = Account.builder().id("123").balance(10000).build();
+        List<TransactionRequest> transactions = List.of(
+                new TransactionRequest("123", TransactionType.WITHDRAW, 15000),
+                new TransactionRequest("123", TransactionType.DEPOSIT, 10000),
+                new TransactionRequest("123", TransactionType.WITHDRAW, 15000),
+                new TransactionRequest("missing", TransactionType.DEPOSIT, 1000));
+
+        when(accountRepository.findByIdInOrderByIdAsc(Set.of("123", "missing"))).thenReturn(List.of(account));
+
+        List<TransactionResultDto> results = accountService.applyTransactions(transactions);
+
+        assertEquals(List.of(
+                new TransactionResultDto("123", TransactionType.WITHDRAW, TransactionStatus.INSUFFICIENT_FUNDS, 10000),
+                new TransactionResultDto("123", TransactionType.DEPOSIT, TransactionStatus.OK, 20000),
+                new TransactionResultDto("123", TransactionType.WITHDRAW, TransactionStatus.OK, 5000),
+                new TransactionResultDto("missing", TransactionType.DEPOSIT, TransactionStatus.NOT_FOUND, 0)), results);
+        assertEquals(5000, account.getBalance());
+        verify(accountRepository).findByIdInOrderByIdAsc(Set.of("123", "missing"));
+        verify(accountRepository, never()).save(any());
+        verify(ledgerService).record("123", 10000);
+        verify(ledgerService).record("123", -15000);
+        verifyNoMoreInteractions(ledgerService);
+    }
+
+    @Test
+    void whenApplyOperationsCalled_itShouldAnswerEachWithTheAccountItLeftOrAnEmptyAccount() {
+        Account account = Account.builder().id("123").balance(10000).currency(Currency.EUR).build();
+        List<TransactionRequest> operations = List.of(
+                new TransactionRequest("123", TransactionType.DEPOSIT, 5000),
+                new TransactionRequest("123", TransactionType.WITHDRAW, 20000),
+                new TransactionRequest("123", TransactionType.WITHDRAW, 15000),
+                new TransactionRequest("missing", TransactionType.DEPOSIT, 1000));
+        when(accountRepository.findByIdInOrderByIdAsc(Set.of("123", "missing"))).thenReturn(List.of(account));
+        when(accountDtoConverter.convert(account)).thenAnswer(invocation -> AccountDto.builder().id("123").balance(account.getBalance()).build());
+
+        List<AccountDto> results = accountService.applyOperations(operations);
+
+        assertEquals(15000, results.get(0).getBalance());
+        assertNull(results.get(1).getId());
+        assertEquals(0, results.get(2).getBalance());
+        assertNull(results.get(3).getId());
+        verify(ledgerService).record("123", 5000);
+        verify(ledgerService).record("123", -15000);
+        verifyNoMoreInteractions(ledgerService);
+    }
+
+    @Test
+    void whenApplyTransactionsCalledWithANegativeAmount_itShouldRejectTheWholeBatchBeforeApplyingAnything() {
+        List<TransactionRequest> transactions = List.of(
+                new TransactionRequest("123", TransactionType.DEPOSIT, 1000),
+                new TransactionRequest("123", TransactionType.WITHDRAW, -500));
+
+        assertThrows(InvalidTransactionException.class, () -> accountService.applyTransactions(transactions));
+        verifyNoInteractions(accountRepository, ledgerService, statistics);
+    }
+
+    @Test
+    void whenApplyTransactionsCalledWithoutAType_itShouldRejectTheWholeBatchBeforeApplyingAnything() {
+        List<TransactionRequest> transactions = List.of(
+                new TransactionRequest("123", TransactionType.DEPOSIT, 1000),
+                new TransactionRequest("123", null, 500));
+
+        assertThrows(InvalidTransactionException.class, () -> accountService.applyTransactions(transactions));
+        verifyNoInteractions(accountRepository, ledgerService, statistics);
+    }
+
+    @Test
+    void whenApplyOperationsGetsAnInvalidOperation_itShouldFailOnlyThatOne() {
+        Account account = Account.builder().id("123").balance(10000).currency(Currency.EUR).build();
+        List<TransactionRequest> operations = List.of(
+                new TransactionRequest("123", TransactionType.WITHDRAW, -5000),
+                new TransactionRequest("123", null, 5000),
+                new TransactionRequest("123", TransactionType.DEPOSIT, 1000));
+        when(accountRepository.findByIdInOrderByIdAsc(Set.of("123"))).thenReturn(List.of(account));
+        when(accountDtoConverter.convert(account)).thenAnswer(invocation -> AccountDto.builder().id("123").balance(account.getBalance()).build());
+
+        List<AccountDto> results = accountService.applyOperations(operations);
+
+        assertNull(results.get(0).getId());
+        assertNull(results.get(1).getId());
+        assertEquals(11000, results.get(2).getBalance());
+        verify(ledgerService).record("123", 1000);
+        verifyNoMoreInteractions(ledgerService);
+    }
+
+    @Test
+    void whenApplyTransactionsCalledWithEmptyBatch_itShouldNotQueryRepository() {
+        List<TransactionResultDto> results = accountService.applyTransactions(List.of());
+
+        assertTrue(results.isEmpty());
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void whenTransferCalled_itShouldLockBothAccountsInIdOrderAndMoveTheMoney() {
+        Account from = Account.builder().id("b").balance(10000).build();
+        Account to = Account.builder().id("a").balance(500).build();
+
+        when(accountRepository.findLockedById("a")).thenReturn(Optional.of(to));
+        when(accountRepository.findLockedById("b")).thenReturn(Optional.of(from));
+
+        TransferResultDto result = accountService.transfer(new TransferRequest("b", "a", 2500));
+
+        assertEquals(new TransferResultDto("b", "a", TransactionStatus.OK, 7500, 3000), result);
+        InOrder lockOrder = inOrder(accountRepository);
+        lockOrder.verify(accountRepository).findLockedById("a");
+        lockOrder.verify(accountRepository).findLockedById("b");
+        verify(ledgerService).record("b", -2500);
+        verify(ledgerService).record("a", 2500);
+    }
+
+    @Test
+    void whenTransferCalledBetweenCurrencies_itShouldCreditTheConvertedAmount() {
+        Account from = Account.builder().id("a").balance(10000).currency(Currency.EUR).build();
+        Account to = Account.builder().id("b").balance(0).currency(Currency.TRY).build();
+
+        when(accountRepository.findLockedById("a")).thenReturn(Optional.of(from));
+        when(accountRepository.findLockedById("b")).thenReturn(Optional.of(to));
+
+        TransferResultDto result = accountService.transfer(new TransferRequest("a", "b", 2650, Currency.TRY));
+
+        // 26.50 TRY is 0.70225 EUR, debited as 0.70
+        assertEquals(new TransferResultDto("a", "b", TransactionStatus.OK, 9930, 2650), result);
+        verify(ledgerService).record("a", -70);
+        verify(ledgerService).record("b", 2650);
+    }
+
+    @Test
+    void whenTransferCalledWithInsufficientBalance_itShouldMoveNothing() {
+        Account from = Account.builder().id("a").balance(100).build();
+        Account to = Account.builder().id("b").balance(0).build();
+
+        when(accountRepository.findLockedById("a")).thenReturn(Optional.of(from));
+        when(accountRepository.findLockedById("b")).thenReturn(Optional.of(to));
+
+        TransferResultDto result = accountService.transfer(new TransferRequest("a", "b", 101));
+
+        assertEquals(new TransferResultDto("a", "b", TransactionStatus.INSUFFICIENT_FUNDS, 100, 0), result);
+        verifyNoInteractions(ledgerService);
+    }
+
+    @Test
+    void whenTransferCalledWithMissingAccount_itShouldReturnNotFound() {
+        when(accountRepository.findLockedById("a")).thenReturn(Optional.of(Account.builder().id("a").balance(100).build()));
+        when(accountRepository.findLockedById("missing")).thenReturn(Optional.empty());
+
+        assertEquals(TransactionStatus.NOT_FOUND, accountService.transfer(new TransferRequest("a", "missing", 1)).getStatus());
+        verifyNoInteractions(ledgerService);
+    }
+
+    @Test
+    void whenTransferCalledToTheSameAccountOrWithoutAmount_itShouldBeRejected() {
+        assertThrows(InvalidTransferException.class, () -> accountService.transfer(new TransferRequest("a", "a", 1)));
+        assertThrows(InvalidTransferException.class, () -> accountService.transfer(new TransferRequest("a", "b", 0)));
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void whenDepositMoneyCalledInAnotherCurrency_itShouldConvertUnderTheRowLock() {
+        Account account = Account.builder().id("123").balance(1000).currency(Currency.EUR).build();
+        AccountDto expectedDto = AccountDto.builder().id("123").balance(10912).currency(Currency.EUR).build();
+
+        when(accountRepository.findLockedById("123")).thenReturn(Optional.of(account));
+        when(accountDtoConverter.convert(account)).thenReturn(expectedDto);
+
+        assertEquals(expectedDto, accountService.depositMoney("123", 10762, Currency.USD));
+
+        assertEquals(10912, account.getBalance());
+        verify(ledgerService).record("123", 9912);
+        verify(accountRepository, never()).deposit(anyString(), anyLong());
+    }
+
+    @Test
+    void whenWithdrawMoneyInAnotherCurrencyExceedsTheBalance_itShouldLeaveTheAccountUnchanged() {
+        Account account = Account.builder().id("123").balance(100).currency(Currency.EUR).build();
+
+        when(accountRepository.findLockedById("123")).thenReturn(Optional.of(account));
+
+        assertNull(accountService.withdrawMoney("123", 110, Currency.USD).getId());
+
+        assertEquals(100, account.getBalance());
+        verify(metrics).insufficientFunds();
+        verifyNoInteractions(ledgerService);
+    }
+
+    @Test
+    void whenGetAccountByIdCalledWithAnotherCurrency_itShouldConvertTheBalance() {
+        Account account = Account.builder().id("123").customerId("c").balance(100000).currency(Currency.TRY).build();
+
+        when(accountRepository.findById("123")).thenReturn(Optional.of(account));
+        when(accountDtoConverter.convert(account)).thenReturn(AccountDto.builder().id("123").customerId("c").balance(100000).currency(Currency.TRY).build());
+
+        AccountDto converted = accountService.getAccountById("123", Currency.EUR);
+
+        assertEquals(AccountDto.builder().id("123").customerId("c").balance(2650).currency(Currency.EUR).build(), converted);
+    }
+
+    @Test
+    void whenWithdrawMoneySucceeds_itShouldEvictTheCachedAccount() {
+        String accountId = "123";
+        Account updatedAccount = Account.builder().id(accountId).balance(50000).build();
+        AccountDto expectedDto = AccountDto.builder().id(accountId).balance(50000).build();
+
+        when(accountRepository.withdraw(accountId, 50000)).thenReturn(1);
+        when(accountRepository.findById(accountId)).thenReturn(Optional.of(updatedAccount));
+        when(accountDtoConverter.convert(updatedAccount)).thenReturn(expectedDto);
+
+        accountService.withdrawMoney(accountId, 50000);
+
+        verify(accountCache).evict(accountId);
+        verify(accountCache, never()).get(any(), any());
+    }
+
+    @Test
+    void whenDeleteAccountByIdCalled_itShouldRemoveTheAccountFromTheStatistics() {
+        Account account = Account.builder().id("123").balance(700).city(City.IZMIR).currency(Currency.EUR).build();
+        when(accountRepository.findById("123")).thenReturn(Optional.of(account));
+
+        accountService.deleteAccountById("123");
+
+        verify(statistics).removed(account);
+        verify(accountRepository).deleteById("123");
+    }
+
+    @Test
+    void whenGetStatisticsCalled_itShouldReturnTheCountersWithoutQueryingTheTable() {
+        AccountStatsDto stats = AccountStatsDto.builder().build();
+        when(statistics.snapshot()).thenReturn(stats);
+
+        assertSame(stats, accountService.getStatistics());
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void whenDeleteAccountByIdCalled_itShouldEvictTheCachedAccount() {
+        accountService.deleteAccountById("123");
+
+        verify(accountCache).evict("123");
+    }
+}
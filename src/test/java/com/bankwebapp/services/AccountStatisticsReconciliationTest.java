@@ -0,0 +1,166 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.AccountStatsDto;
+import com.bankwebapp.dtos.CityDto;
+import com.bankwebapp.dtos.CreateAccountRequest;
+import com.bankwebapp.dtos.CreateCustomerRequest;
+import com.bankwebapp.dtos.LedgerEntryDto;
+import com.bankwebapp.dtos.TransactionRequest;
+import com.bankwebapp.dtos.TransactionType;
+import com.bankwebapp.dtos.TransferRequest;
+import com.bankwebapp.dtos.UpdateAccountRequest;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AccountStatisticsReconciliationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AccountStatistics accountStatistics;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @AfterEach
+    void cleanUp() {
+        List.of("stats-1", "stats-2", "stats-3").forEach(accountService::deleteAccountById);
+        customerService.deleteCustomerById("stats-customer");
+    }
+
+    @Test
+    void whenEveryWritePathIsUsed_theCountersShouldMatchTheTable() {
+        assertTrue(accountStatistics.reconcile());
+        AccountStatsDto before = accountService.getStatistics();
+
+        createCustomer();
+        createAccount("stats-1", City.ANKARA, Currency.TRY, 100_000);
+        createAccount("stats-2", City.ANKARA, Currency.EUR, 5_000);
+        createAccount("stats-3", City.IZMIR, Currency.USD, 0);
+
+        accountService.depositMoney("stats-1", 2_500);
+        accountService.withdrawMoney("stats-1", 1_000);
+        accountService.withdrawMoney("stats-2", 1_000_000);
+        accountService.depositMoney("stats-2", 1_000, Currency.USD);
+        accountService.transfer(new TransferRequest("stats-1", "stats-3", 5_000));
+        accountService.applyTransactions(List.of(
+                new TransactionRequest("stats-3", TransactionType.DEPOSIT, 700),
+                new TransactionRequest("stats-2", TransactionType.WITHDRAW, 300)));
+        UpdateAccountRequest update = new UpdateAccountRequest();
+        update.setCustomerId("stats-customer");
+        update.setBalance(8_000);
+        update.setCity(City.IZMIR);
+        update.setCurrency(Currency.EUR);
+        accountService.updateAccount("stats-2", update);
+        accountService.deleteAccountById("stats-3");
+
+        AccountStatsDto counted = accountService.getStatistics();
+        assertNotEquals(before, counted);
+        assertEquals(before.getCities().get(City.ANKARA).getAccounts() + 1, counted.getCities().get(City.ANKARA).getAccounts());
+        assertEquals(before.getCities().get(City.IZMIR).getBalances().get(Currency.EUR) + 8_000,
+                counted.getCities().get(City.IZMIR).getBalances().get(Currency.EUR));
+
+        assertTrue(accountStatistics.reconcile());
+        assertEquals(counted, accountService.getStatistics());
+    }
+
+    @Test
+    void whenTheSameIdIsCreatedTwice_itShouldBeCountedOnceWithItsFirstBalance() {
+        assertTrue(accountStatistics.reconcile());
+        AccountStatsDto before = accountService.getStatistics();
+        createCustomer();
+
+        // Ledger entries outlive their account, so the id must not be reused by another test
+        String accountId = "stats-twice-" + UUID.randomUUID();
+        createAccount(accountId, City.ANKARA, Currency.TRY, 10_000);
+        assertThrows(AccountAlreadyExistsException.class, () -> createAccount(accountId, City.ANKARA, Currency.TRY, 5_000));
+
+        AccountStatsDto counted = accountService.getStatistics();
+        assertEquals(before.getCities().get(City.ANKARA).getAccounts() + 1, counted.getCities().get(City.ANKARA).getAccounts());
+        assertEquals(before.getCities().get(City.ANKARA).getBalances().get(Currency.TRY) + 10_000,
+                counted.getCities().get(City.ANKARA).getBalances().get(Currency.TRY));
+        assertEquals(10_000, ledgerService.getHistory(accountId, null, 10).getItems().stream().mapToLong(LedgerEntryDto::getDelta).sum());
+        assertTrue(accountStatistics.reconcile());
+        assertEquals(counted, accountService.getStatistics());
+        accountService.deleteAccountById(accountId);
+    }
+
+    @Test
+    void whenWritesRunConcurrently_itShouldStillCorrectTheOtherCells() throws Exception {
+        createCustomer();
+        String accountId = "stats-busy-" + UUID.randomUUID();
+        createAccount(accountId, City.ANKARA, Currency.TRY, 100_000);
+        assertTrue(accountStatistics.reconcile());
+        long izmirUsd = accountService.getStatistics().getCities().get(City.IZMIR).getBalances().get(Currency.USD);
+        // Drift that only a reconciliation can remove
+        accountStatistics.balanceChanged(Account.builder().city(City.IZMIR).currency(Currency.USD).build(), 12_345);
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        List<Future<?>> running = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                running.add(writers.submit(() -> {
+                    while (writing.get()) {
+                        accountService.depositMoney(accountId, 1);
+                    }
+                }));
+            }
+            for (int i = 0; i < 5; i++) {
+                accountStatistics.reconcile();
+            }
+            assertEquals(izmirUsd, accountService.getStatistics().getCities().get(City.IZMIR).getBalances().get(Currency.USD));
+        } finally {
+            writing.set(false);
+            writers.shutdown();
+            assertTrue(writers.awaitTermination(30, TimeUnit.SECONDS));
+        }
+        for (Future<?> writer : running) {
+            writer.get();
+        }
+
+        AccountStatsDto counted = accountService.getStatistics();
+        assertTrue(accountStatistics.reconcile());
+        assertEquals(counted, accountService.getStatistics());
+        accountService.deleteAccountById(accountId);
+    }
+
+    private void createCustomer() {
+        CreateCustomerRequest customer = new CreateCustomerRequest();
+        customer.setId("stats-customer");
+        customer.setName("Stats");
+        customer.setCity(CityDto.ANKARA);
+        customerService.createCustomer(customer);
+    }
+
+    private void createAccount(String id, City city, Currency currency, long balance) {
+        CreateAccountRequest account = new CreateAccountRequest();
+        account.setId(id);
+        account.setCustomerId("stats-customer");
+        account.setBalance(balance);
+        account.setCity(city);
+        account.setCurrency(currency);
+        accountService.createAccount(account);
+    }
+}
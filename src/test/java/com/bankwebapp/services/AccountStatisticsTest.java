@@ -0,0 +1,144 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.AccountStatsDto;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.repositories.AccountRepository;
+import com.bankwebapp.repositories.AccountRepository.AccountTotals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountStatisticsTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void whenAccountsChange_itShouldAggregatePerCityAndPerCurrency() {
+        AccountStatistics statistics = new AccountStatistics(accountRepository);
+        Account istanbulEur = account(City.ISTANBUL, Currency.EUR, 1000);
+        Account istanbulTry = account(City.ISTANBUL, Currency.TRY, 5000);
+        Account ankaraEur = account(City.ANKARA, Currency.EUR, 250);
+
+        statistics.added(istanbulEur);
+        statistics.added(istanbulTry);
+        statistics.added(ankaraEur);
+        statistics.balanceChanged(istanbulEur, -400);
+        statistics.removed(ankaraEur);
+
+        AccountStatsDto stats = statistics.snapshot();
+        assertEquals(2, stats.getCities().get(City.ISTANBUL).getAccounts());
+        assertEquals(600, stats.getCities().get(City.ISTANBUL).getBalances().get(Currency.EUR));
+        assertEquals(5000, stats.getCities().get(City.ISTANBUL).getBalances().get(Currency.TRY));
+        assertEquals(0, stats.getCities().get(City.ANKARA).getAccounts());
+        assertEquals(1, stats.getCurrencies().get(Currency.EUR).getAccounts());
+        assertEquals(600, stats.getCurrencies().get(Currency.EUR).getBalance());
+        assertEquals(0, stats.getCurrencies().get(Currency.USD).getBalance());
+    }
+
+    @Test
+    void whenChangedInATransaction_itShouldOnlyCountCommittedChanges() {
+        AccountStatistics statistics = new AccountStatistics(accountRepository);
+
+        TransactionSynchronizationManager.initSynchronization();
+        statistics.added(account(City.IZMIR, Currency.USD, 700));
+        statistics.added(account(City.IZMIR, Currency.USD, 300));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+        assertEquals(0, statistics.snapshot().getCurrencies().get(Currency.USD).getAccounts());
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(1, statistics.snapshot().getCurrencies().get(Currency.USD).getAccounts());
+        assertEquals(700, statistics.snapshot().getCurrencies().get(Currency.USD).getBalance());
+    }
+
+    @Test
+    void whenReconciled_itShouldCorrectTheCountersToTheTableTotals() {
+        AccountStatistics statistics = new AccountStatistics(accountRepository);
+        statistics.added(account(City.MANISA, Currency.TRY, 100));
+        statistics.added(account(City.KOCAELI, Currency.EUR, 100));
+
+        when(accountRepository.sumBalancesByCityAndCurrency()).thenReturn(List.of(totals(City.MANISA, Currency.TRY, 3, 9000)));
+
+        assertTrue(statistics.reconcile());
+
+        AccountStatsDto stats = statistics.snapshot();
+        assertEquals(3, stats.getCities().get(City.MANISA).getAccounts());
+        assertEquals(9000, stats.getCurrencies().get(Currency.TRY).getBalance());
+        assertEquals(0, stats.getCities().get(City.KOCAELI).getAccounts());
+        assertEquals(0, stats.getCurrencies().get(Currency.EUR).getBalance());
+    }
+
+    @Test
+    void whenAChangeIsInFlight_itShouldSkipOnlyThatCell() {
+        AccountStatistics statistics = new AccountStatistics(accountRepository);
+        statistics.added(account(City.KOCAELI, Currency.USD, 100));
+        when(accountRepository.sumBalancesByCityAndCurrency()).thenReturn(List.of(
+                totals(City.MARAS, Currency.EUR, 5, 5000), totals(City.KOCAELI, Currency.USD, 2, 900)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        statistics.added(account(City.MARAS, Currency.EUR, 100));
+
+        assertFalse(statistics.reconcile());
+        AccountStatsDto stats = statistics.snapshot();
+        assertEquals(0, stats.getCurrencies().get(Currency.EUR).getAccounts());
+        assertEquals(900, stats.getCurrencies().get(Currency.USD).getBalance());
+        assertEquals(1, statistics.getSkippedCells());
+        // The retries have no idle cell left to query for
+        verify(accountRepository, times(1)).sumBalancesByCityAndCurrency();
+    }
+
+    @Test
+    void whenACellChangesDuringTheQuery_itShouldRetryThatCell() {
+        AccountStatistics statistics = new AccountStatistics(accountRepository);
+        Account account = account(City.MARAS, Currency.TRY, 100);
+        statistics.added(account);
+        when(accountRepository.sumBalancesByCityAndCurrency())
+                .thenAnswer(invocation -> {
+                    statistics.balanceChanged(account, 50);
+                    return List.of(totals(City.MARAS, Currency.TRY, 1, 150), totals(City.IZMIR, Currency.TRY, 1, 10));
+                })
+                .thenReturn(List.of(totals(City.MARAS, Currency.TRY, 1, 150), totals(City.IZMIR, Currency.TRY, 1, 10)));
+
+        assertTrue(statistics.reconcile());
+
+        AccountStatsDto stats = statistics.snapshot();
+        assertEquals(150, stats.getCities().get(City.MARAS).getBalances().get(Currency.TRY));
+        assertEquals(10, stats.getCities().get(City.IZMIR).getBalances().get(Currency.TRY));
+        assertEquals(0, statistics.getSkippedCells());
+        verify(accountRepository, times(2)).sumBalancesByCityAndCurrency();
+    }
+
+    private static Account account(City city, Currency currency, long balance) {
+        return Account.builder().city(city).currency(currency).balance(balance).build();
+    }
+
+    private static AccountTotals totals(City city, Currency currency, long accounts, long balance) {
+        return new AccountTotals() {
+            public City getCity() { return city; }
+            public Currency getCurrency() { return currency; }
+            public long getAccounts() { return accounts; }
+            public long getBalance() { return balance; }
+        };
+    }
+}
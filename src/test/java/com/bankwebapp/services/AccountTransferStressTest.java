@@ -0,0 +1,146 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.TransactionStatus;
+import com.bankwebapp.dtos.TransferRequest;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.repositories.AccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AccountTransferStressTest {
+
+    private static final int ACCOUNTS = 100;
+    private static final int THREADS = 64;
+    private static final int TRANSFERS_PER_THREAD = 25;
+    private static final long INITIAL_BALANCE = 10_000;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @BeforeEach
+    void createAccounts() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountRepository.save(Account.builder()
+                    .id(accountId(i))
+                    .balance(INITIAL_BALANCE)
+                    .currency(Currency.TRY)
+                    .customerId("transfer-customer")
+                    .city(City.MARAS)
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void deleteAccounts() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountRepository.deleteById(accountId(i));
+        }
+    }
+
+    @Test
+    void whenRandomTransfersRunFromManyThreads_itShouldConserveTheTotalAndNeverDeadlock() throws Exception {
+        AtomicInteger completed = new AtomicInteger();
+
+        long elapsedNanos = runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                int from = random.nextInt(ACCOUNTS);
+                int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                TransactionStatus status = accountService.transfer(new TransferRequest(accountId(from), accountId(to), 1 + random.nextInt(2_000))).getStatus();
+                assertNotEquals(TransactionStatus.NOT_FOUND, status);
+                completed.incrementAndGet();
+            }
+        });
+
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, completed.get());
+        assertEquals(ACCOUNTS * INITIAL_BALANCE, totalBalance());
+        report("random transfers among " + ACCOUNTS + " accounts", completed.get(), elapsedNanos);
+    }
+
+    @Test
+    void whenTwoAccountsTransferToEachOtherConcurrently_itShouldNeverDeadlock() throws Exception {
+        AtomicInteger threadIndex = new AtomicInteger();
+
+        long elapsedNanos = runConcurrently(() -> {
+            boolean forward = threadIndex.getAndIncrement() % 2 == 0;
+            for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                accountService.transfer(new TransferRequest(accountId(forward ? 0 : 1), accountId(forward ? 1 : 0), 100));
+            }
+        });
+
+        assertEquals(2 * INITIAL_BALANCE, accountRepository.findById(accountId(0)).get().getBalance()
+                + accountRepository.findById(accountId(1)).get().getBalance());
+        report("opposite transfers between 2 accounts", THREADS * TRANSFERS_PER_THREAD, elapsedNanos);
+    }
+
+    private long totalBalance() {
+        long total = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            long balance = accountRepository.findById(accountId(i)).get().getBalance();
+            assertTrue(balance >= 0);
+            total += balance;
+        }
+        return total;
+    }
+
+    private static long runConcurrently(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Callable<Void> task = () -> {
+                start.await();
+                body.run();
+                return null;
+            };
+            futures.add(executor.submit(task));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<Void> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return System.nanoTime() - startedAt;
+    }
+
+    private static String accountId(int i) {
+        return String.format("transfer-%03d", i);
+    }
+
+    private static void report(String scenario, int transfers, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%s: %d transfers from %d threads in %.3f s (%.0f transfers/sec)%n",
+                scenario, transfers, THREADS, seconds, transfers / seconds);
+    }
+
+    @FunctionalInterface
+    private interface ThreadBody {
+        void run() throws Exception;
+    }
+}
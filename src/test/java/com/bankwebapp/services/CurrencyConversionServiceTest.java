@@ -0,0 +1,130 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.models.Currency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyConversionServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void whenConvertingToTheSameCurrency_itShouldReturnTheAmountUnchanged() {
+        CurrencyConversionService service = new CurrencyConversionService(new DefaultResourceLoader(), "classpath:rates.properties");
+
+        for (Currency currency : Currency.values()) {
+            assertEquals(Long.MAX_VALUE, service.convert(Long.MAX_VALUE, currency, currency));
+        }
+    }
+
+    @Test
+    void whenConvertingBetweenCurrencies_itShouldRoundHalfEvenToMinorUnits() throws Exception {
+        CurrencyConversionService service = serviceFor("EUR=1\nTRY=0.025\nUSD=0.5\n");
+
+        assertEquals(200, service.convert(100, Currency.EUR, Currency.USD));
+        assertEquals(-200, service.convert(-100, Currency.EUR, Currency.USD));
+        // 10 TRY minor units are 0.25 EUR minor units, 30 are 0.75
+        assertEquals(0, service.convert(10, Currency.TRY, Currency.EUR));
+        assertEquals(1, service.convert(30, Currency.TRY, Currency.EUR));
+        assertEquals(20, service.convert(1, Currency.USD, Currency.TRY));
+    }
+
+    @Test
+    void whenTheProductFallsExactlyHalfway_itShouldRoundToEven() throws Exception {
+        CurrencyConversionService service = serviceFor("EUR=1\nTRY=0.025\nUSD=0.5\n");
+
+        // 0.5, 1.5 and 2.5 EUR minor units
+        assertEquals(0, service.convert(20, Currency.TRY, Currency.EUR));
+        assertEquals(2, service.convert(60, Currency.TRY, Currency.EUR));
+        assertEquals(2, service.convert(100, Currency.TRY, Currency.EUR));
+        assertEquals(-2, service.convert(-60, Currency.TRY, Currency.EUR));
+    }
+
+    @Test
+    void whenTheAmountIsBeyondDoublePrecision_itShouldStillConvertExactly() throws Exception {
+        CurrencyConversionService service = serviceFor("EUR=1\nTRY=0.0265\nUSD=0.9210\n");
+
+        // (2^53 + 1) * 0.9210 = 8295630513616454.553, which a double rounds down to ...454
+        assertEquals(8_295_630_513_616_455L, service.convert(9_007_199_254_740_993L, Currency.USD, Currency.EUR));
+        assertEquals(3_552_231_171_365L, service.convert(123_456_789_012_345L, Currency.TRY, Currency.USD));
+    }
+
+    @Test
+    void whenDividingInLongs_itShouldRoundLikeBigDecimalHalfEven() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long dividend = i % 2 == 0 ? random.nextLong() : random.nextInt(2_000) - 1_000;
+            long divisor = 1 + (i % 3 == 0 ? random.nextInt(10) : random.nextLong(Long.MAX_VALUE));
+            long expected = BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_EVEN).longValueExact();
+            assertEquals(expected, CurrencyConversionService.divideHalfEven(dividend, divisor), dividend + " / " + divisor);
+        }
+    }
+
+    @Test
+    void whenTheProductOverflowsALong_itShouldStillConvertWhenTheResultFits() throws Exception {
+        CurrencyConversionService service = serviceFor("EUR=1\nTRY=0.0265\nUSD=0.9210\n");
+
+        // Long.MAX_VALUE * 9210 needs more than 64 bits before the division by 10000
+        assertEquals(new BigDecimal(Long.MAX_VALUE).multiply(new BigDecimal("0.9210")).setScale(0, RoundingMode.HALF_EVEN).longValueExact(),
+                service.convert(Long.MAX_VALUE, Currency.USD, Currency.EUR));
+    }
+
+    @Test
+    void whenConvertedAmountIsTooLarge_itShouldThrow() throws Exception {
+        CurrencyConversionService service = serviceFor("EUR=1\nTRY=0.025\nUSD=0.5\n");
+
+        assertThrows(ArithmeticException.class, () -> service.convert(Long.MAX_VALUE / 2, Currency.EUR, Currency.TRY));
+    }
+
+    @Test
+    void whenRateFileChanges_itShouldUseTheNewRatesAfterReload() throws Exception {
+        Path rates = directory.resolve("rates.properties");
+        Files.writeString(rates, "EUR=1\nTRY=0.025\nUSD=0.5\n");
+        CurrencyConversionService service = new CurrencyConversionService(new DefaultResourceLoader(), rates.toUri().toString());
+
+        Files.writeString(rates, "EUR=1\nTRY=0.025\nUSD=0.25\n");
+        service.reload();
+
+        assertEquals(400, service.convert(100, Currency.EUR, Currency.USD));
+    }
+
+    @Test
+    void whenReloadedRateFileIsIncomplete_itShouldKeepTheCurrentRates() throws Exception {
+        Path rates = directory.resolve("rates.properties");
+        Files.writeString(rates, "EUR=1\nTRY=0.025\nUSD=0.5\n");
+        CurrencyConversionService service = new CurrencyConversionService(new DefaultResourceLoader(), rates.toUri().toString());
+
+        Files.writeString(rates, "EUR=1\nUSD=0.25\n");
+        service.reload();
+
+        assertEquals(200, service.convert(100, Currency.EUR, Currency.USD));
+    }
+
+    @Test
+    void whenRateIsMissingOrNotPositive_itShouldFailToLoad() {
+        assertThrows(IllegalStateException.class, () -> CurrencyConversionService.load(resource("EUR=1\nUSD=0.5\n")));
+        assertThrows(IllegalStateException.class, () -> CurrencyConversionService.load(resource("EUR=1\nTRY=0\nUSD=0.5\n")));
+    }
+
+    private CurrencyConversionService serviceFor(String rates) throws Exception {
+        Path file = directory.resolve("rates.properties");
+        Files.writeString(file, rates);
+        return new CurrencyConversionService(new DefaultResourceLoader(), file.toUri().toString());
+    }
+
+    private static ByteArrayResource resource(String rates) {
+        return new ByteArrayResource(rates.getBytes(StandardCharsets.UTF_8));
+    }
+}
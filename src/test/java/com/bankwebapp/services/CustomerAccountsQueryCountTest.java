@@ -0,0 +1,103 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.CustomerWithAccountsDto;
+import com.bankwebapp.dtos.KeysetPageDto;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.AccountRepository;
+import com.bankwebapp.repositories.CustomerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "bankwebapp.cache.enabled=false"
+})
+class CustomerAccountsQueryCountTest {
+
+    private static final String PREFIX = "with-accounts-";
+    private static final int CUSTOMERS = 40;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Customer> customers = new ArrayList<>();
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String customerId = PREFIX + String.format("%03d", i);
+            customers.add(Customer.builder().id(customerId).name("Customer " + i).city(City.ANKARA).build());
+            // Customer i has i % 3 accounts, so some customers have none
+            for (int a = 0; a < i % 3; a++) {
+                accounts.add(Account.builder().id(customerId + "-account-" + a).customerId(customerId)
+                        .balance(100L * a).city(City.ANKARA).currency(Currency.TRY).build());
+            }
+        }
+        customerRepository.saveAll(customers);
+        accountRepository.saveAll(accounts);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String customerId = PREFIX + String.format("%03d", i);
+            for (int a = 0; a < i % 3; a++) {
+                accountRepository.deleteById(customerId + "-account-" + a);
+            }
+            customerRepository.deleteById(customerId);
+        }
+    }
+
+    @Test
+    void whenPageWithAccountsListed_itShouldRunTwoQueriesWhateverThePageSize() {
+        for (int pageSize : new int[]{1, 10, CUSTOMERS}) {
+            statistics.clear();
+            KeysetPageDto<CustomerWithAccountsDto> page = customerService.getCustomersPageWithAccounts(PREFIX, pageSize);
+
+            assertEquals(pageSize, page.getItems().size());
+            assertEquals(2, statistics.getPrepareStatementCount(), "statements for a page of " + pageSize);
+            for (CustomerWithAccountsDto customer : page.getItems()) {
+                int index = Integer.parseInt(customer.getId().substring(PREFIX.length()));
+                assertEquals(index % 3, customer.getAccounts().size());
+                customer.getAccounts().forEach(account -> assertEquals(customer.getId(), account.getCustomerId()));
+            }
+        }
+    }
+
+    @Test
+    void whenCustomerWithAccountsRequested_itShouldRunTwoQueries() {
+        statistics.clear();
+        CustomerWithAccountsDto customer = customerService.getCustomerWithAccounts(PREFIX + "002");
+
+        assertEquals("Customer 2", customer.getName());
+        assertEquals(List.of(PREFIX + "002-account-0", PREFIX + "002-account-1"),
+                customer.getAccounts().stream().map(account -> account.getId()).toList());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,147 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.AccountStatsDto;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.AccountRepository;
+import com.bankwebapp.repositories.CustomerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "bankwebapp.cache.enabled=false"
+})
+class CustomerDeletionTest {
+
+    private static final List<String> ACCOUNT_IDS = List.of(
+            "cascade-1", "cascade-2", "cascade-3", "cascade-4", "cascade-5", "cascade-kept", "orphan-1", "orphan-2", "orphan-3");
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountCleanupService accountCleanupService;
+
+    @Autowired
+    private AccountStatistics accountStatistics;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void cleanUp() {
+        ACCOUNT_IDS.forEach(accountService::deleteAccountById);
+        customerRepository.deleteById("cascade-customer");
+        customerRepository.deleteById("cascade-other-customer");
+    }
+
+    @Test
+    void whenCustomerDeleted_itShouldDeleteItsAccountsInOneStatement() {
+        customerRepository.save(Customer.builder().id("cascade-customer").name("Cascade").city(City.MANISA).build());
+        customerRepository.save(Customer.builder().id("cascade-other-customer").name("Other").city(City.MANISA).build());
+        for (int i = 1; i <= 5; i++) {
+            createAccount("cascade-" + i, "cascade-customer", 1_000);
+        }
+        createAccount("cascade-kept", "cascade-other-customer", 1_000);
+        long accountsBefore = accountService.getStatistics().getCities().get(City.MANISA).getAccounts();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        customerService.deleteCustomerById("cascade-customer");
+
+        // The bulk account delete, then loading and deleting the customer
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertFalse(customerRepository.existsById("cascade-customer"));
+        assertTrue(accountRepository.findByCustomerIdOrderByCustomerIdAscIdAsc("cascade-customer").isEmpty());
+        assertTrue(accountRepository.existsById("cascade-kept"));
+        AccountStatsDto after = accountService.getStatistics();
+        assertEquals(accountsBefore - 5, after.getCities().get(City.MANISA).getAccounts());
+    }
+
+    @Test
+    void whenSweeperRuns_itShouldDeleteOnlyOrphanedAccounts() {
+        customerRepository.save(Customer.builder().id("cascade-other-customer").name("Other").city(City.MANISA).build());
+        createAccount("cascade-kept", "cascade-other-customer", 1_000);
+        createAccount("orphan-1", "gone-customer", 1_000);
+        createAccount("orphan-2", "gone-customer", 2_000);
+        createAccount("orphan-3", null, 0);
+
+        OrphanAccountSweeper sweeper = new OrphanAccountSweeper(accountRepository, accountCleanupService, 2, 0, Duration.ofHours(1));
+
+        assertTrue(sweeper.sweep() >= 3);
+        assertTrue(accountRepository.existsById("cascade-kept"));
+        assertFalse(accountRepository.existsById("orphan-1"));
+        assertFalse(accountRepository.existsById("orphan-2"));
+        assertFalse(accountRepository.existsById("orphan-3"));
+        assertTrue(accountStatistics.reconcile());
+    }
+
+    @Test
+    void whenSweeperIsRateLimited_itShouldNotReadFasterThanTheLimit() {
+        createAccount("orphan-1", "gone-customer", 1_000);
+        long accounts = accountRepository.count();
+        int rowsPerSecond = 200;
+        OrphanAccountSweeper sweeper = new OrphanAccountSweeper(accountRepository, accountCleanupService, 2, rowsPerSecond, Duration.ofHours(1));
+
+        long startedAt = System.nanoTime();
+        sweeper.sweep();
+        long elapsedNanos = System.nanoTime() - startedAt;
+
+        assertFalse(accountRepository.existsById("orphan-1"));
+        assertTrue(elapsedNanos >= accounts * TimeUnit.SECONDS.toNanos(1) / rowsPerSecond,
+                "swept " + accounts + " accounts in " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms");
+    }
+
+    @Test
+    void whenStarted_itShouldSweepOnItsOwnThreadAndStopMidSweep() throws Exception {
+        createAccount("orphan-1", "gone-customer", 1_000);
+        OrphanAccountSweeper sweeper = new OrphanAccountSweeper(accountRepository, accountCleanupService, 2, 0, Duration.ofMillis(10));
+        sweeper.start();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (accountRepository.existsById("orphan-1") && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertFalse(accountRepository.existsById("orphan-1"));
+        } finally {
+            sweeper.stop();
+        }
+
+        // A sweep paced to one row a second is interrupted rather than waited out
+        OrphanAccountSweeper paced = new OrphanAccountSweeper(accountRepository, accountCleanupService, 1, 1, Duration.ofMillis(1));
+        paced.start();
+        Thread.sleep(50);
+        long stoppingAt = System.nanoTime();
+        paced.stop();
+        assertTrue(System.nanoTime() - stoppingAt < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    private void createAccount(String id, String customerId, long balance) {
+        Account account = Account.builder().id(id).customerId(customerId).balance(balance).city(City.MANISA).currency(Currency.TRY).build();
+        accountRepository.save(account);
+        accountStatistics.added(account);
+    }
+}
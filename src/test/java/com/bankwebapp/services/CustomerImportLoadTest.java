@@ -0,0 +1,123 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.ImportResultDto;
+import com.bankwebapp.repositories.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Imports a million generated customers through the CSV path. The database is a file so the rows do not
+ * count against the heap. Run with
+ * {@code mvn test -Dbankwebapp.loadtest=true -Dtest=CustomerImportLoadTest -DargLine=-Xmx128m}.
+ */
+@EnabledIfSystemProperty(named = "bankwebapp.loadtest", matches = "true")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/customer-import-load;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        // The search index holds every customer by design; this test is about the import alone
+        "bankwebapp.search.enabled=false"
+})
+class CustomerImportLoadTest {
+
+    private static final int ROWS = 1_000_000;
+
+    @Autowired
+    private CustomerImportService customerImportService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void whenAMillionRowsAreImported_itShouldKeepTheHeapFlat() throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peakHeap = new AtomicLong();
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        ImportResultDto result;
+        try {
+            result = customerImportService.importCsv(new GeneratedCsv(ROWS));
+        } finally {
+            sampler.interrupt();
+        }
+        System.gc();
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+
+        System.out.printf("imported %d customers in %d ms (%.0f rows/sec), peak heap %d MB of %d MB max%n",
+                result.getImported(), result.getDurationMillis(), result.getRowsPerSecond(),
+                peakHeap.get() >> 20, memory.getHeapMemoryUsage().getMax() >> 20);
+        assertEquals(ROWS, result.getImported());
+        assertEquals(0, result.getRejected());
+        assertEquals(ROWS, customerRepository.count());
+        // Nothing of the import may stay reachable once it is done
+        assertTrue(heapAfter - heapBefore < 32L << 20, "retained " + ((heapAfter - heapBefore) >> 20) + " MB");
+    }
+
+    /**
+     * Produces the CSV body row by row, so the upload itself never sits in memory either.
+     */
+    private static final class GeneratedCsv extends InputStream {
+
+        private static final String[] CITIES = {"ISTANBUL", "ANKARA", "IZMIR", "MANISA", "MARAS", "KOCAELI"};
+
+        private final int rows;
+        private int row = -1;
+        private byte[] line = "id,name,dateofBirth,addres,city\n".getBytes(StandardCharsets.UTF_8);
+        private int position;
+
+        GeneratedCsv(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length && !nextLine()) {
+                return -1;
+            }
+            return line[position++];
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position == line.length && !nextLine()) {
+                return -1;
+            }
+            int count = Math.min(length, line.length - position);
+            System.arraycopy(line, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean nextLine() {
+            if (++row >= rows) {
+                return false;
+            }
+            line = String.format("cus-%08d,Customer %d,%d,%d Main St,%s%n", row, row, 1950 + row % 50, row, CITIES[row % CITIES.length])
+                    .getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.ImportErrorDto;
+import com.bankwebapp.dtos.ImportResultDto;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "bankwebapp.import.batch-size=3")
+class CustomerImportTest {
+
+    @Autowired
+    private CustomerImportService customerImportService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @AfterEach
+    void cleanUp() {
+        customerRepository.deleteAllById(customerRepository.findAllById(
+                List.of("import-1", "import-2", "import-3", "import-4", "import-5", "import-6")).stream().map(Customer::getId).toList());
+    }
+
+    @Test
+    void whenNdjsonIsImported_itShouldInsertValidLinesAndReportTheOthers() {
+        customerRepository.save(Customer.builder().id("import-6").name("Existing").city(City.MARAS).build());
+
+        ImportResultDto result = customerImportService.importNdjson(body("""
+                {"id":"import-1","name":"One","dateofBirth":1990,"addres":"1 Main St","city":"IZMIR"}
+                {"id":"import-2","name":"Two","city":"PARIS"}
+                {"id":"import-3","name":"Three","city":"ANKARA"}
+
+                {"name":"No id","city":"ANKARA"}
+                {"id":"import-4","name":
+                {"id":"import-3","name":"Three again","city":"ANKARA"}
+                {"id":"import-5","name":"Five","city":"KOCAELI"}
+                {"id":"import-6","name":"Six","city":"MARAS"}
+                """));
+
+        assertEquals(3, result.getImported());
+        assertEquals(5, result.getRejected());
+        assertEquals(List.of(2L, 5L, 6L, 7L, 9L), result.getErrors().stream().map(ImportErrorDto::getLine).toList());
+        assertEquals("Unknown city 'PARIS'", result.getErrors().get(0).getMessage());
+        assertEquals("Missing id", result.getErrors().get(1).getMessage());
+        assertEquals("Duplicate id 'import-3'", result.getErrors().get(3).getMessage());
+        assertEquals("Duplicate id 'import-6'", result.getErrors().get(4).getMessage());
+
+        Customer imported = customerRepository.findById("import-1").orElseThrow();
+        assertEquals("1 Main St", imported.getAddres());
+        assertEquals(1990, imported.getDateofBirth());
+        assertEquals(City.IZMIR, imported.getCity());
+        assertEquals("Existing", customerRepository.findById("import-6").orElseThrow().getName());
+        assertTrue(customerRepository.existsById("import-5"));
+    }
+
+    @Test
+    void whenCsvIsImported_itShouldMapColumnsByHeaderName() {
+        ImportResultDto result = customerImportService.importCsv(body("""
+                city,id,name,addres,dateofBirth
+                izmir,import-1,"Doe, Jane","1 ""Main"" St",1985
+                IZMIR,import-2,Two,,notayear
+                ISTANBUL,import-3,Three,
+                MANISA,import-4,Four,,
+                """));
+
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(new ImportErrorDto(3, "Invalid dateofBirth 'notayear'"), new ImportErrorDto(4, "Expected 5 fields, found 4")),
+                result.getErrors());
+        Customer customer = customerRepository.findById("import-1").orElseThrow();
+        assertEquals("Doe, Jane", customer.getName());
+        assertEquals("1 \"Main\" St", customer.getAddres());
+        assertEquals(City.IZMIR, customer.getCity());
+        assertNull(customerRepository.findById("import-4").orElseThrow().getDateofBirth());
+    }
+
+    @Test
+    void whenCsvHeaderIsMissingARequiredColumn_itShouldRejectTheImport() {
+        assertThrows(InvalidImportException.class, () -> customerImportService.importCsv(body("name,city\nOne,IZMIR\n")));
+        assertThrows(InvalidImportException.class, () -> customerImportService.importCsv(body("id,city,balance\n")));
+        assertThrows(InvalidImportException.class, () -> customerImportService.importCsv(body("")));
+    }
+
+    @Test
+    void whenCsvFieldsAreQuoted_itShouldSplitOnUnquotedCommasOnly() {
+        assertEquals(List.of("a", "b,c", "", "d\"e"), CustomerImportService.splitCsv("a,\"b,c\",,\"d\"\"e\""));
+        assertThrows(IllegalArgumentException.class, () -> CustomerImportService.splitCsv("a,\"b"));
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,152 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.CityDto;
+import com.bankwebapp.dtos.CustomerDto;
+import com.bankwebapp.dtos.CustomerDtoConverter;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CustomerSearchIndexTest {
+
+    private CustomerRepository customerRepository;
+    private CustomerSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository = mock(CustomerRepository.class);
+        index = new CustomerSearchIndex(customerRepository, new CustomerDtoConverter(), mock(EntityManager.class), new NoTransactions(), true);
+    }
+
+    @Test
+    void whenAQueryIsSearched_everyWordShouldMatchTheNameOrTheAddress() {
+        index.put(customer("1", "John Doe", "12 Main Street"));
+        index.put(customer("2", "Jane Doe", "5 Harbour Road"));
+        index.put(customer("3", "Johnny Walker", "8 Main Square"));
+
+        assertEquals(List.of("1", "3"), ids(index.search("john", 10)));
+        assertEquals(List.of("1"), ids(index.search("doe main", 10)));
+        assertEquals(List.of("2"), ids(index.search("arbou", 10)));
+        assertEquals(List.of(), ids(index.search("john harbour", 10)));
+    }
+
+    @Test
+    void whenAQueryWordHasTwoLetters_itShouldOnlyMatchAtTheStartOfAWord() {
+        index.put(customer("1", "Ali Veli", "Kadikoy"));
+        index.put(customer("2", "Malik Ok", "Uskudar"));
+
+        assertEquals(List.of("1"), ids(index.search("al", 10)));
+        assertEquals(List.of("2"), ids(index.search("ok", 10)));
+        assertEquals(List.of(), ids(index.search("l", 10)));
+    }
+
+    @Test
+    void whenResultsAreRanked_nameStartsShouldComeBeforeNameInfixesAndAddresses() {
+        index.put(customer("1", "Ada Lovelace", "Marston Street"));
+        index.put(customer("2", "Grace Marston", "Arlington"));
+        index.put(customer("3", "Ahmarsto", "Nowhere"));
+
+        assertEquals(List.of("2", "3", "1"), ids(index.search("marsto", 10)));
+        assertEquals(List.of("2", "3"), ids(index.search("marsto", 2)));
+    }
+
+    @Test
+    void whenACustomerIsReplacedOrRemoved_itsOldTextShouldNoLongerMatch() {
+        index.put(customer("1", "John Doe", "Main Street"));
+        index.put(customer("1", "John Smith", "Main Street"));
+
+        assertEquals(List.of(), ids(index.search("doe", 10)));
+        assertEquals("John Smith", index.search("smith", 10).get(0).getName());
+
+        index.remove("1");
+
+        assertEquals(List.of(), ids(index.search("smith", 10)));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void whenManyCustomersAreReplaced_theIndexShouldCompactAndKeepAnswering() {
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 1000; i++) {
+                index.put(customer("c" + i, "Name" + round + " " + i, "Street"));
+            }
+        }
+
+        assertEquals(1000, index.size());
+        assertEquals(List.of("c42"), ids(index.search("name2 42", 1)));
+        assertEquals(List.of(), ids(index.search("name0", 10)));
+    }
+
+    @Test
+    void whenRebuilt_itShouldIndexEveryCustomerInTheTable() {
+        List<Customer> customers = new ArrayList<>();
+        IntStream.range(0, 50_000).forEach(i -> customers.add(Customer.builder()
+                .id(String.format("c%06d", i)).name("Customer " + i).addres(i + " Main St").city(City.IZMIR).build()));
+        when(customerRepository.streamAllByOrderByIdAsc()).thenAnswer(invocation -> customers.stream());
+        index.put(customer("stale", "Stale", "Gone"));
+
+        assertEquals(50_000, index.rebuild());
+
+        assertEquals(List.of("c012345"), ids(index.search("customer 12345", 10)));
+        assertEquals(IntStream.range(0, 50_000).filter(i -> String.valueOf(i).contains("4999")).count(), index.search("4999", 100).size());
+        assertEquals(List.of(), ids(index.search("stale", 10)));
+    }
+
+    @Test
+    void whenTheIndexIsDisabled_itShouldHoldNothingAndRefuseSearches() {
+        CustomerSearchIndex disabled = new CustomerSearchIndex(customerRepository, new CustomerDtoConverter(), mock(EntityManager.class),
+                new NoTransactions(), false);
+
+        disabled.put(customer("1", "John Doe", "12 Main Street"));
+
+        assertEquals(0, disabled.rebuild());
+        assertEquals(0, disabled.size());
+        assertThrows(CustomerSearchDisabledException.class, () -> disabled.search("john", 10));
+        verifyNoInteractions(customerRepository);
+    }
+
+    private static CustomerDto customer(String id, String name, String addres) {
+        return CustomerDto.builder().id(id).name(name).addres(addres).city(CityDto.ANKARA).build();
+    }
+
+    private static List<String> ids(List<CustomerDto> customers) {
+        return customers.stream().map(CustomerDto::getId).toList();
+    }
+
+    /**
+     * Runs the rebuild's read-only transaction callback without a database.
+     */
+    private static class NoTransactions extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, org.springframework.transaction.TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
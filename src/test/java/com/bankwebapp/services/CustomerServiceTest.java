@@ -1,18 +1,29 @@
 package com.bankwebapp.services;
 
+import com.bankwebapp.cache.ReadThroughCache;
 import com.bankwebapp.dtos.*;
+import com.bankwebapp.metrics.ServiceMetrics;
+import com.bankwebapp.models.Account;
 import com.bankwebapp.models.City;
 import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.AccountRepository;
 import com.bankwebapp.repositories.CustomerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,6 +38,26 @@ class CustomerServiceTest {
     @Mock
     private CustomerDtoConverter customerDtoConverter;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Spy
+    private AccountDtoConverter accountDtoConverter = new AccountDtoConverter();
+
+    @Mock
+    private AccountCleanupService accountCleanupService;
+
+    @Mock
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Spy
+    private ReadThroughCache<String, CustomerDto> customerCache = ReadThroughCache.disabled();
+    @Spy
+    private ServiceMetrics metrics = new ServiceMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -69,6 +100,7 @@ class CustomerServiceTest {
         assertEquals(expectedDto, result);
         verify(customerRepository).save(any(Customer.class));
         verify(customerDtoConverter).getCustomerDto(savedCustomer);
+        verify(customerSearchIndex).put(expectedDto);
     }
 
     @Test
@@ -143,6 +175,30 @@ class CustomerServiceTest {
         verify(customerRepository).deleteById(customerId);
     }
 
+    @Test
+    void whenDeleteCustomerByIdCalled_itShouldDropItFromTheSearchIndex() {
+        customerService.deleteCustomerById("123");
+
+        verify(customerSearchIndex).remove("123");
+    }
+
+    @Test
+    void whenSearchCustomersCalled_itShouldCapTheLimitAndAskTheIndex() {
+        List<CustomerDto> matches = List.of(CustomerDto.builder().id("1").name("John Doe").build());
+        when(customerSearchIndex.search("john", CustomerService.MAX_SEARCH_RESULTS)).thenReturn(matches);
+
+        assertEquals(matches, customerService.searchCustomers("john", 10_000));
+    }
+
+    @Test
+    void whenDeleteCustomerByIdCalled_itShouldDeleteTheCustomersAccountsFirst() {
+        customerService.deleteCustomerById("123");
+
+        InOrder inOrder = inOrder(accountCleanupService, customerRepository);
+        inOrder.verify(accountCleanupService).deleteAccountsOfCustomer("123");
+        inOrder.verify(customerRepository).deleteById("123");
+    }
+
     @Test
     void whenUpdateCustomerCalledWithExistingCustomer_itShouldUpdateAndReturnCustomerDto() {
         String customerId = "123";
@@ -181,6 +237,7 @@ class CustomerServiceTest {
         verify(customerRepository).findById(customerId);
         verify(customerRepository).save(any(Customer.class));
         verify(customerDtoConverter).getCustomerDto(any(Customer.class));
+        verify(customerSearchIndex).put(expectedDto);
     }
 
     @Test
@@ -196,5 +253,97 @@ class CustomerServiceTest {
         assertNotNull(result);
         verify(customerRepository).findById(customerId);
         verify(customerRepository, never()).save(any());
+        verifyNoInteractions(customerSearchIndex);
+    }
+
+    @Test
+    void whenGetCustomersPageCalledWithFullPage_itShouldReturnLastIdAsCursor() {
+        Customer customer1 = new Customer();
+        customer1.setId("1");
+        Customer customer2 = new Customer();
+        customer2.setId("2");
+
+        CustomerDto dto1 = CustomerDto.builder().id("1").build();
+        CustomerDto dto2 = CustomerDto.builder().id("2").build();
+
+        when(customerRepository.findByIdGreaterThanOrderByIdAsc("", Limit.of(2))).thenReturn(List.of(customer1, customer2));
+        when(customerDtoConverter.getCustomerDto(customer1)).thenReturn(dto1);
+        when(customerDtoConverter.getCustomerDto(customer2)).thenReturn(dto2);
+
+        KeysetPageDto<CustomerDto> result = customerService.getCustomersPage(null, 2);
+
+        assertEquals(List.of(dto1, dto2), result.getItems());
+        assertEquals("2", result.getNextAfter());
+    }
+
+    @Test
+    void whenGetCustomersPageWithAccountsCalled_itShouldLoadTheAccountsOfTheWholePageAtOnce() {
+        Customer customer1 = Customer.builder().id("1").name("John Doe").city(City.ANKARA).build();
+        Customer customer2 = Customer.builder().id("2").name("Jane Smith").city(City.IZMIR).build();
+        Account account1 = Account.builder().id("a1").customerId("1").balance(100).build();
+        Account account2 = Account.builder().id("a2").customerId("1").balance(200).build();
+        when(customerRepository.findByIdGreaterThanOrderByIdAsc("", Limit.of(2))).thenReturn(List.of(customer1, customer2));
+        when(customerDtoConverter.getCustomerDto(customer1)).thenReturn(CustomerDto.builder().id("1").name("John Doe").city(CityDto.ANKARA).build());
+        when(customerDtoConverter.getCustomerDto(customer2)).thenReturn(CustomerDto.builder().id("2").name("Jane Smith").city(CityDto.IZMIR).build());
+        when(accountRepository.findByCustomerIdInOrderByCustomerIdAscIdAsc(List.of("1", "2"))).thenReturn(List.of(account1, account2));
+
+        KeysetPageDto<CustomerWithAccountsDto> result = customerService.getCustomersPageWithAccounts(null, 2);
+
+        assertEquals("2", result.getNextAfter());
+        assertEquals("John Doe", result.getItems().get(0).getName());
+        assertEquals(List.of("a1", "a2"), result.getItems().get(0).getAccounts().stream().map(AccountDto::getId).toList());
+        assertEquals(CityDto.IZMIR, result.getItems().get(1).getCity());
+        assertEquals(List.of(), result.getItems().get(1).getAccounts());
+        verify(accountRepository, times(1)).findByCustomerIdInOrderByCustomerIdAscIdAsc(any());
+    }
+
+    @Test
+    void whenGetCustomerWithAccountsCalledWithNonExistingCustomer_itShouldNotQueryAccounts() {
+        when(customerRepository.findById("404")).thenReturn(Optional.empty());
+
+        CustomerWithAccountsDto result = customerService.getCustomerWithAccounts("404");
+
+        assertNull(result.getId());
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void whenStreamAllCustomersCalled_itShouldConvertAndDetachEveryCustomer() {
+        Customer customer = new Customer();
+        customer.setId("1");
+        CustomerDto dto = CustomerDto.builder().id("1").build();
+
+        when(customerRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(customer));
+        when(customerDtoConverter.getCustomerDto(customer)).thenReturn(dto);
+
+        List<CustomerDto> streamed = new ArrayList<>();
+        customerService.streamAllCustomers(streamed::add);
+
+        assertEquals(List.of(dto), streamed);
+        verify(entityManager).detach(customer);
+    }
+
+    @Test
+    void whenExistsCustomerByIdCalledWithExistingCustomer_itShouldReturnTrueWithoutLoadingIt() {
+        when(customerRepository.existsById("123")).thenReturn(true);
+
+        assertTrue(customerService.existsCustomerById("123"));
+        verify(customerRepository).existsById("123");
+        verify(customerRepository, never()).findById(any());
+        verifyNoInteractions(customerDtoConverter);
+    }
+
+    @Test
+    void whenExistsCustomerByIdCalledWithBlankId_itShouldNotQueryRepository() {
+        assertFalse(customerService.existsCustomerById(null));
+        assertFalse(customerService.existsCustomerById(""));
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void whenDeleteCustomerByIdCalled_itShouldEvictTheCachedCustomer() {
+        customerService.deleteCustomerById("123");
+
+        verify(customerCache).evict("123");
     }
-}
\ No newline at end of file
+}
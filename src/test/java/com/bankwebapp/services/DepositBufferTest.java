@@ -0,0 +1,234 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.cache.ReadThroughCache;
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.LedgerEntryDto;
+import com.bankwebapp.dtos.PatchAccountRequest;
+import com.bankwebapp.dtos.UpdateAccountRequest;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.AccountRepository;
+import com.bankwebapp.repositories.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "bankwebapp.write-behind.enabled=true",
+        "bankwebapp.write-behind.flush-interval=1h",
+        "bankwebapp.write-behind.max-pending=5"
+})
+class DepositBufferTest {
+
+    private static final int THREADS = 16;
+    private static final int DEPOSITS_PER_THREAD = 200;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ReactiveAccountService reactiveAccountService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private AccountStatistics statistics;
+
+    @Autowired
+    private ReadThroughCache<String, AccountDto> accountCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Ledger entries outlive their account, so every test gets an account id of its own
+    private final String accountId = "buffered-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        accountService.flushDeposits();
+        accountRepository.deleteById(accountId);
+    }
+
+    @Test
+    void whenDepositsAreBuffered_readsShouldIncludeThemBeforeTheyAreWritten() {
+        createAccount(1_000);
+
+        accountService.bufferDeposit(accountId, 100);
+        accountService.bufferDeposit(accountId, 100);
+        AccountDto result = accountService.bufferDeposit(accountId, 100);
+
+        assertEquals(1_300, result.getBalance());
+        assertEquals(1_300, accountService.getAccountById(accountId).getBalance());
+        assertEquals(1_000, accountRepository.findById(accountId).get().getBalance());
+
+        accountService.flushDeposits();
+
+        assertEquals(1_300, accountRepository.findById(accountId).get().getBalance());
+        assertEquals(1_300, accountService.getAccountById(accountId).getBalance());
+        List<LedgerEntryDto> history = ledgerService.getHistory(accountId, null, 10).getItems();
+        assertEquals(1, history.size());
+        assertEquals(300, history.get(0).getDelta());
+    }
+
+    @Test
+    void whenDepositsAreBuffered_reactiveReadsShouldIncludeThemToo() {
+        createAccount(1_000);
+
+        accountService.bufferDeposit(accountId, 100);
+
+        assertEquals(1_100, reactiveAccountService.getAccountById(accountId).block().getBalance());
+        accountService.flushDeposits();
+        assertEquals(1_100, reactiveAccountService.getAccountById(accountId).block().getBalance());
+        assertNull(reactiveAccountService.getAccountById("buffered-missing").block().getId());
+    }
+
+    @Test
+    void whenMaxPendingIsReached_itShouldFlushInTheBackground() throws InterruptedException {
+        createAccount(0);
+
+        for (int i = 0; i < 5; i++) {
+            accountService.bufferDeposit(accountId, 10);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (accountRepository.findById(accountId).get().getBalance() != 50 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(50, accountRepository.findById(accountId).get().getBalance());
+    }
+
+    @Test
+    void whenTheAccountIsDeleted_itsBufferedDepositsShouldBeWrittenFirst() {
+        createAccount(1_000);
+        accountService.bufferDeposit(accountId, 250);
+
+        accountService.deleteAccountById(accountId);
+
+        assertFalse(accountRepository.existsById(accountId));
+        List<LedgerEntryDto> history = ledgerService.getHistory(accountId, null, 10).getItems();
+        assertEquals(1, history.size());
+        assertEquals(250, history.get(0).getDelta());
+    }
+
+    @Test
+    void whenDepositsAreBuffered_theCurrencyShouldNotChangeUnderThem() {
+        createAccount(0);
+        accountService.bufferDeposit(accountId, 10_000);
+
+        assertThrows(CurrencyChangeNotAllowedException.class,
+                () -> accountService.patchAccount(accountId, PatchAccountRequest.builder().currency(Currency.USD).build()));
+
+        Account stored = accountRepository.findById(accountId).get();
+        assertEquals(Currency.EUR, stored.getCurrency());
+        assertEquals(10_000, stored.getBalance());
+    }
+
+    @Test
+    void whenAnAccountIsReplacedWhileDepositsAreBuffered_theyShouldNotBeAddedOnTopOfTheNewBalance() {
+        customerRepository.save(Customer.builder().id("buffered-customer").name("Buffered").city(City.KOCAELI).build());
+        try {
+            createAccount(0);
+            accountService.bufferDeposit(accountId, 10_000);
+            UpdateAccountRequest update = new UpdateAccountRequest();
+            update.setCustomerId("buffered-customer");
+            update.setBalance(500);
+            update.setCity(City.KOCAELI);
+            update.setCurrency(Currency.EUR);
+
+            assertEquals(500, accountService.updateAccount(accountId, update).getBalance());
+            accountService.flushDeposits();
+
+            assertEquals(500, accountRepository.findById(accountId).get().getBalance());
+            assertEquals(500, ledgerService.rebuildBalance(accountId));
+        } finally {
+            customerRepository.deleteById("buffered-customer");
+        }
+    }
+
+    @Test
+    void whenTheBufferIsStopped_laterDepositsShouldBeWrittenStraightAway() throws InterruptedException {
+        createAccount(1_000);
+        DepositBuffer buffer = new DepositBuffer(accountRepository, ledgerService, statistics, accountCache, transactionManager,
+                true, Duration.ofHours(1), 1);
+        buffer.start();
+        buffer.stop();
+
+        buffer.add(accountId, 100);
+        buffer.add(accountId, 100);
+
+        assertEquals(1_200, accountRepository.findById(accountId).get().getBalance());
+        assertEquals(2, ledgerService.getHistory(accountId, null, 10).getItems().size());
+    }
+
+    @Test
+    void whenAccountDoesNotExist_itShouldNotBufferTheDeposit() {
+        assertNull(accountService.bufferDeposit("buffered-missing", 100).getId());
+    }
+
+    @Test
+    void whenDepositsAndReadsRunConcurrently_readsShouldNeverDoubleCountOrLoseADeposit() throws Exception {
+        createAccount(0);
+        long expected = (long) THREADS * DEPOSITS_PER_THREAD;
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Callable<Void> task = () -> {
+                start.await();
+                long lastSeen = 0;
+                for (int i = 0; i < DEPOSITS_PER_THREAD; i++) {
+                    accountService.bufferDeposit(accountId, 1);
+                    long seen = accountService.getAccountById(accountId).getBalance();
+                    assertTrue(seen >= lastSeen && seen <= expected, "read " + seen + " after " + lastSeen);
+                    long seenReactively = reactiveAccountService.getAccountById(accountId).block().getBalance();
+                    assertTrue(seenReactively >= seen && seenReactively <= expected, "read reactively " + seenReactively + " after " + seen);
+                    lastSeen = seenReactively;
+                }
+                return null;
+            };
+            futures.add(executor.submit(task));
+        }
+        start.countDown();
+        try {
+            for (Future<Void> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        accountService.flushDeposits();
+
+        assertEquals(expected, accountRepository.findById(accountId).get().getBalance());
+        assertEquals(expected, ledgerService.rebuildBalance(accountId));
+    }
+
+    private void createAccount(long balance) {
+        accountRepository.save(Account.builder().id(accountId).customerId("buffered-customer").balance(balance)
+                .city(City.KOCAELI).currency(Currency.EUR).build());
+    }
+}
@@ -0,0 +1,133 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.CreateAccountRequest;
+import com.bankwebapp.dtos.CreateCustomerRequest;
+import com.bankwebapp.dtos.CityDto;
+import com.bankwebapp.dtos.KeysetPageDto;
+import com.bankwebapp.dtos.LedgerEntryDto;
+import com.bankwebapp.dtos.TransactionRequest;
+import com.bankwebapp.dtos.TransactionType;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.repositories.AccountRepository;
+import com.bankwebapp.repositories.BalanceSnapshotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "bankwebapp.ledger.settle-lag=0s")
+class LedgerRecoveryTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    // Ledger entries outlive their account, so every test starts a fresh history
+    private final String accountId = "ledger-" + UUID.randomUUID();
+
+    @BeforeEach
+    void createAccount() {
+        CreateCustomerRequest customer = new CreateCustomerRequest();
+        customer.setId("ledger-customer");
+        customer.setName("Ledger");
+        customer.setCity(CityDto.IZMIR);
+        customerService.createCustomer(customer);
+
+        CreateAccountRequest account = new CreateAccountRequest();
+        account.setId(accountId);
+        account.setCustomerId("ledger-customer");
+        account.setBalance(10_000);
+        account.setCity(City.IZMIR);
+        account.setCurrency(Currency.EUR);
+        accountService.createAccount(account);
+    }
+
+    @AfterEach
+    void deleteAccount() {
+        accountService.deleteAccountById(accountId);
+        customerService.deleteCustomerById("ledger-customer");
+    }
+
+    @Test
+    void whenBalanceChangesAroundSnapshots_itShouldRebuildTheBalanceFromTheLedger() {
+        Random random = new Random(7);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 20; i++) {
+                long amount = 1 + random.nextInt(5_000);
+                if (random.nextBoolean()) {
+                    accountService.depositMoney(accountId, amount);
+                } else {
+                    accountService.withdrawMoney(accountId, amount);
+                }
+            }
+            accountService.applyTransactions(List.of(
+                    new TransactionRequest(accountId, TransactionType.DEPOSIT, 300),
+                    new TransactionRequest(accountId, TransactionType.WITHDRAW, 100)));
+            ledgerService.takeSnapshot();
+            accountService.depositMoney(accountId, 1);
+
+            long balance = accountRepository.findById(accountId).get().getBalance();
+            assertEquals(balance, ledgerService.rebuildBalance(accountId));
+            assertEquals(balance - 1, balanceSnapshotRepository.findById(accountId).get().getBalance());
+        }
+    }
+
+    @Test
+    void whenADeletedAccountIdIsCreatedAgain_itShouldBeRefusedAndKeepItsHistory() {
+        accountService.depositMoney(accountId, 500);
+        ledgerService.takeSnapshot();
+        accountService.deleteAccountById(accountId);
+
+        CreateAccountRequest again = new CreateAccountRequest();
+        again.setId(accountId);
+        again.setCustomerId("ledger-customer");
+        again.setBalance(1_000);
+        again.setCity(City.IZMIR);
+        again.setCurrency(Currency.EUR);
+
+        assertThrows(AccountAlreadyExistsException.class, () -> accountService.createAccount(again));
+        assertFalse(accountRepository.existsById(accountId));
+        assertEquals(10_500, ledgerService.rebuildBalance(accountId));
+        assertEquals(2, ledgerService.getHistory(accountId, null, 10).getItems().size());
+    }
+
+    @Test
+    void whenHistoryIsPaged_itShouldReturnEveryEntryOnceInSequenceOrder() {
+        for (int i = 1; i <= 5; i++) {
+            accountService.depositMoney(accountId, i);
+        }
+
+        List<LedgerEntryDto> entries = new ArrayList<>();
+        KeysetPageDto<LedgerEntryDto> page = ledgerService.getHistory(accountId, null, 2);
+        entries.addAll(page.getItems());
+        while (page.getNextAfter() != null) {
+            page = ledgerService.getHistory(accountId, Long.valueOf(page.getNextAfter()), 2);
+            entries.addAll(page.getItems());
+        }
+
+        assertEquals(List.of(10_000L, 1L, 2L, 3L, 4L, 5L), entries.stream().map(LedgerEntryDto::getDelta).toList());
+        for (int i = 1; i < entries.size(); i++) {
+            assertTrue(entries.get(i - 1).getSequence() < entries.get(i).getSequence());
+        }
+    }
+}
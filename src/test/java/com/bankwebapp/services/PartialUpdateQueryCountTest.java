@@ -0,0 +1,204 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.CityDto;
+import com.bankwebapp.dtos.CustomerDto;
+import com.bankwebapp.dtos.PatchAccountRequest;
+import com.bankwebapp.dtos.PatchCustomerRequest;
+import com.bankwebapp.dtos.UpdateAccountRequest;
+import com.bankwebapp.dtos.UpdateCustomerRequest;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.AccountRepository;
+import com.bankwebapp.repositories.CustomerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "bankwebapp.cache.enabled=false"
+})
+class PartialUpdateQueryCountTest {
+
+    private static final int ITERATIONS = 500;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        customerRepository.save(Customer.builder().id("patch-customer").name("Patch").dateofBirth(1990).addres("Old street").city(City.IZMIR).build());
+        customerRepository.save(Customer.builder().id("patch-customer-2").name("Patch Two").city(City.ANKARA).build());
+        accountRepository.save(Account.builder().id("patch-account").customerId("patch-customer").balance(10000)
+                .city(City.IZMIR).currency(Currency.TRY).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountRepository.deleteById("patch-account");
+        customerRepository.deleteById("patch-customer");
+        customerRepository.deleteById("patch-customer-2");
+    }
+
+    @Test
+    void whenAccountPatched_itShouldUpdateOnlyTheSuppliedFieldsInOneStatement() {
+        PatchAccountRequest patch = PatchAccountRequest.builder().customerId("patch-customer-2").city(City.ANKARA).build();
+
+        statistics.clear();
+        AccountDto result = accountService.patchAccount("patch-account", patch);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals("patch-customer-2", result.getCustomerId());
+        assertEquals(Currency.TRY, result.getCurrency());
+        assertEquals(10000, result.getBalance());
+        Account stored = accountRepository.findById("patch-account").get();
+        assertEquals("patch-customer-2", stored.getCustomerId());
+        assertEquals(City.ANKARA, stored.getCity());
+        assertEquals(Currency.TRY, stored.getCurrency());
+        assertEquals(10000, stored.getBalance());
+    }
+
+    @Test
+    void whenAccountPatchedToAnUnknownCustomer_itShouldChangeNothing() {
+        PatchAccountRequest patch = PatchAccountRequest.builder().customerId("no-such-customer").city(City.ANKARA).build();
+
+        statistics.clear();
+        AccountDto result = accountService.patchAccount("patch-account", patch);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertNull(result.getId());
+        Account stored = accountRepository.findById("patch-account").get();
+        assertEquals("patch-customer", stored.getCustomerId());
+        assertEquals(City.IZMIR, stored.getCity());
+    }
+
+    @Test
+    void whenTheCurrencyOfAFundedAccountIsPatched_itShouldChangeNothing() {
+        PatchAccountRequest patch = PatchAccountRequest.builder().city(City.ANKARA).currency(Currency.USD).build();
+
+        assertThrows(CurrencyChangeNotAllowedException.class, () -> accountService.patchAccount("patch-account", patch));
+
+        Account stored = accountRepository.findById("patch-account").get();
+        assertEquals(Currency.TRY, stored.getCurrency());
+        assertEquals(City.IZMIR, stored.getCity());
+        assertEquals(10000, stored.getBalance());
+    }
+
+    @Test
+    void whenUnknownAccountPatched_itShouldReturnAnEmptyAccount() {
+        assertNull(accountService.patchAccount("no-such-account", PatchAccountRequest.builder().currency(Currency.USD).build()).getId());
+    }
+
+    @Test
+    void whenCustomerPatched_itShouldUpdateOnlyTheSuppliedFieldsInOneStatement() {
+        PatchCustomerRequest patch = PatchCustomerRequest.builder().addres("New street").city(CityDto.ISTANBUL).build();
+
+        statistics.clear();
+        CustomerDto result = customerService.patchCustomer("patch-customer", patch);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals("Patch", result.getName());
+        assertEquals(1990, result.getDateofBirth());
+        assertEquals("New street", result.getAddres());
+        assertEquals(CityDto.ISTANBUL, result.getCity());
+        Customer stored = customerRepository.findById("patch-customer").get();
+        assertEquals("Patch", stored.getName());
+        assertEquals("New street", stored.getAddres());
+        assertEquals(City.ISTANBUL, stored.getCity());
+    }
+
+    @Test
+    void whenUnknownCustomerPatched_itShouldReturnAnEmptyCustomer() {
+        assertNull(customerService.patchCustomer("no-such-customer", PatchCustomerRequest.builder().name("Nobody").build()).getId());
+    }
+
+    @Test
+    void whenPatchComparedToPut_itShouldRunFewerStatements() {
+        UpdateAccountRequest accountPut = new UpdateAccountRequest();
+        accountPut.setCustomerId("patch-customer");
+        accountPut.setBalance(10000);
+        accountPut.setCurrency(Currency.TRY);
+        UpdateCustomerRequest customerPut = new UpdateCustomerRequest();
+        customerPut.setName("Patch");
+        customerPut.setDateofBirth(1990);
+        customerPut.setAddres("Old street");
+        for (int i = 0; i < ITERATIONS; i++) {
+            accountPut.setCity(i % 2 == 0 ? City.ANKARA : City.IZMIR);
+            customerPut.setCity(i % 2 == 0 ? CityDto.ANKARA : CityDto.IZMIR);
+            accountService.updateAccount("patch-account", accountPut);
+            accountService.patchAccount("patch-account", PatchAccountRequest.builder().city(accountPut.getCity()).build());
+            customerService.updateCustomer("patch-customer", customerPut);
+            customerService.patchCustomer("patch-customer", PatchCustomerRequest.builder().city(customerPut.getCity()).build());
+        }
+
+        statistics.clear();
+        long accountPutStartedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            accountPut.setCity(i % 2 == 0 ? City.ANKARA : City.IZMIR);
+            accountService.updateAccount("patch-account", accountPut);
+        }
+        long accountPutNanos = System.nanoTime() - accountPutStartedAt;
+        long accountPutStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        long accountPatchStartedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            accountService.patchAccount("patch-account", PatchAccountRequest.builder().city(i % 2 == 0 ? City.ANKARA : City.IZMIR).build());
+        }
+        long accountPatchNanos = System.nanoTime() - accountPatchStartedAt;
+        long accountPatchStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        long customerPutStartedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            customerPut.setCity(i % 2 == 0 ? CityDto.ANKARA : CityDto.IZMIR);
+            customerService.updateCustomer("patch-customer", customerPut);
+        }
+        long customerPutNanos = System.nanoTime() - customerPutStartedAt;
+        long customerPutStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        long customerPatchStartedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            customerService.patchCustomer("patch-customer", PatchCustomerRequest.builder().city(i % 2 == 0 ? CityDto.ANKARA : CityDto.IZMIR).build());
+        }
+        long customerPatchNanos = System.nanoTime() - customerPatchStartedAt;
+        long customerPatchStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(ITERATIONS, accountPatchStatements);
+        assertEquals(ITERATIONS, customerPatchStatements);
+        assertTrue(accountPutStatements > accountPatchStatements);
+        assertTrue(customerPutStatements > customerPatchStatements);
+        System.out.printf("account update: PUT %d us/op (%d statements/op), PATCH %d us/op (%d statements/op)%n",
+                accountPutNanos / ITERATIONS / 1000, accountPutStatements / ITERATIONS,
+                accountPatchNanos / ITERATIONS / 1000, accountPatchStatements / ITERATIONS);
+        System.out.printf("customer update: PUT %d us/op (%d statements/op), PATCH %d us/op (%d statements/op)%n",
+                customerPutNanos / ITERATIONS / 1000, customerPutStatements / ITERATIONS,
+                customerPatchNanos / ITERATIONS / 1000, customerPatchStatements / ITERATIONS);
+    }
+}
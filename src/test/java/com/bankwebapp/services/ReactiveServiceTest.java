@@ -0,0 +1,132 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.CityDto;
+import com.bankwebapp.dtos.CreateCustomerRequest;
+import com.bankwebapp.dtos.CustomerDto;
+import com.bankwebapp.dtos.CustomerWithAccountsDto;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.models.Customer;
+import com.bankwebapp.repositories.AccountRepository;
+import com.bankwebapp.repositories.CustomerRepository;
+import com.bankwebapp.repositories.ReactiveAccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The reactive services read the same database as the JPA ones and must give the same answers.
+ */
+@SpringBootTest(properties = "bankwebapp.cache.enabled=false")
+class ReactiveServiceTest {
+
+    private static final String PREFIX = "rx-";
+    private static final int ACCOUNTS = 4 * ReactiveAccountService.STREAM_CHUNK_SIZE;
+
+    @Autowired
+    private ReactiveAccountService reactiveAccountService;
+
+    @Autowired
+    private ReactiveCustomerService reactiveCustomerService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @SpyBean
+    private ReactiveAccountRepository reactiveAccountRepository;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.save(Customer.builder().id(PREFIX + "customer").name("Reactive").dateofBirth(1990).city(City.IZMIR).build());
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(Account.builder().id(String.format(PREFIX + "%05d", i)).customerId(PREFIX + "customer")
+                    .balance(i).city(City.IZMIR).currency(Currency.values()[i % Currency.values().length]).build());
+        }
+        accountRepository.saveAll(accounts);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountRepository.deleteAllInBatch(accountRepository.findAll().stream().filter(a -> a.getId().startsWith(PREFIX)).toList());
+        customerRepository.deleteAllInBatch(customerRepository.findAll().stream().filter(c -> c.getId().startsWith(PREFIX)).toList());
+    }
+
+    @Test
+    void whenAccountsAreReadReactively_theyShouldMatchTheBlockingService() {
+        assertEquals(accountService.getAccountById(PREFIX + "00042"), reactiveAccountService.getAccountById(PREFIX + "00042").block());
+        assertEquals(new AccountDto(), reactiveAccountService.getAccountById(PREFIX + "missing").block());
+        assertEquals(accountService.getAccountsPage(PREFIX + "00100", 50), reactiveAccountService.getAccountsPage(PREFIX + "00100", 50).block());
+        assertEquals(accountService.getAccountsByCustomerId(PREFIX + "customer", null, 100),
+                reactiveAccountService.getAccountsByCustomerId(PREFIX + "customer", null, 100).block());
+
+        List<AccountDto> streamed = new ArrayList<>();
+        accountService.streamAllAccounts(streamed::add);
+        assertEquals(streamed, reactiveAccountService.streamAllAccounts().collectList().block());
+    }
+
+    @Test
+    void whenTheStreamIsConsumedSlowly_itShouldOnlyReadTheChunksAskedFor() {
+        clearInvocations(reactiveAccountRepository);
+
+        StepVerifier.create(reactiveAccountService.streamAllAccounts(), 1)
+                .expectNextCount(1)
+                .then(() -> verify(reactiveAccountRepository, atMost(2)).findByIdGreaterThanOrderByIdAsc(anyString(), anyInt()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void whenACustomerIsCreatedReactively_theBlockingServiceShouldSeeIt() {
+        CreateCustomerRequest request = new CreateCustomerRequest();
+        request.setId(PREFIX + "created");
+        request.setName("Created");
+        request.setAddres("Street");
+        request.setCity(CityDto.ANKARA);
+
+        CustomerDto created = reactiveCustomerService.createCustomer(request).block();
+
+        assertEquals(PREFIX + "created", created.getId());
+        CustomerDto stored = customerService.getCustomerById(PREFIX + "created");
+        assertEquals("Created", stored.getName());
+        assertEquals("Street", stored.getAddres());
+        assertNull(stored.getDateofBirth());
+        assertEquals(CityDto.ANKARA, stored.getCity());
+    }
+
+    @Test
+    void whenACustomerIsReadWithAccountsReactively_itShouldMatchTheBlockingService() {
+        CustomerWithAccountsDto expected = customerService.getCustomerWithAccounts(PREFIX + "customer");
+        CustomerWithAccountsDto actual = reactiveCustomerService.getCustomerWithAccounts(PREFIX + "customer").block();
+
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(ACCOUNTS, actual.getAccounts().size());
+        assertEquals(expected.getAccounts(), actual.getAccounts());
+        assertNull(reactiveCustomerService.getCustomerWithAccounts(PREFIX + "missing").block().getId());
+    }
+}
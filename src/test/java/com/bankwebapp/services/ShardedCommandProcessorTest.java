@@ -0,0 +1,138 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.TransactionStatus;
+import com.bankwebapp.dtos.TransferRequest;
+import com.bankwebapp.models.Account;
+import com.bankwebapp.models.City;
+import com.bankwebapp.models.Currency;
+import com.bankwebapp.repositories.AccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "bankwebapp.shards.enabled=true",
+        "bankwebapp.shards.count=4",
+        "bankwebapp.shards.max-batch=16"
+})
+class ShardedCommandProcessorTest {
+
+    private static final List<String> ACCOUNT_IDS = List.of("shard-1", "shard-2", "shard-3");
+
+    @Autowired
+    private ShardedCommandProcessor commandProcessor;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @AfterEach
+    void cleanUp() {
+        ACCOUNT_IDS.forEach(accountRepository::deleteById);
+    }
+
+    @Test
+    void whenCommandsForOneAccountAreQueued_theyShouldRunInArrivalOrder() throws Exception {
+        createAccount("shard-1", 0);
+
+        CompletableFuture<AccountDto> overdraw = commandProcessor.withdraw("shard-1", 100);
+        CompletableFuture<AccountDto> deposit = commandProcessor.deposit("shard-1", 150);
+        CompletableFuture<AccountDto> withdraw = commandProcessor.withdraw("shard-1", 100);
+
+        assertNull(overdraw.get(10, TimeUnit.SECONDS).getId());
+        assertEquals(150, deposit.get(10, TimeUnit.SECONDS).getBalance());
+        assertEquals(50, withdraw.get(10, TimeUnit.SECONDS).getBalance());
+        assertEquals(50, accountRepository.findById("shard-1").get().getBalance());
+    }
+
+    @Test
+    void whenManyClientsSubmitConcurrently_noUpdateShouldBeLostAndNoAccountOverdrawn() throws Exception {
+        for (String id : ACCOUNT_IDS) {
+            createAccount(id, 10_000);
+        }
+        List<CompletableFuture<AccountDto>> results = new ArrayList<>();
+        List<Thread> clients = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread client = new Thread(() -> {
+                for (int i = 0; i < 300; i++) {
+                    String id = ACCOUNT_IDS.get(i % ACCOUNT_IDS.size());
+                    CompletableFuture<AccountDto> result = i % 2 == 0 ? commandProcessor.deposit(id, 10) : commandProcessor.withdraw(id, 30);
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                }
+            });
+            clients.add(client);
+            client.start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+
+        for (CompletableFuture<AccountDto> result : results) {
+            assertNotNull(result.get(30, TimeUnit.SECONDS));
+        }
+        for (String id : ACCOUNT_IDS) {
+            assertTrue(accountRepository.findById(id).get().getBalance() >= 0);
+        }
+        long total = ACCOUNT_IDS.stream().mapToLong(id -> accountRepository.findById(id).get().getBalance()).sum();
+        long withdrawn = 3 * 10_000 + 8 * 150 * 10L - total;
+        // Every withdrawal took either all of its 30 or nothing
+        assertEquals(0, withdrawn % 30);
+        assertTrue(withdrawn <= 8 * 150 * 30L);
+    }
+
+    @Test
+    void whenTransferIsRoutedToTheSourceShard_itShouldMoveTheMoney() throws Exception {
+        createAccount("shard-1", 1_000);
+        createAccount("shard-2", 0);
+
+        assertEquals(TransactionStatus.OK,
+                commandProcessor.transfer(new TransferRequest("shard-1", "shard-2", 400)).get(10, TimeUnit.SECONDS).getStatus());
+        assertEquals(600, accountRepository.findById("shard-1").get().getBalance());
+        assertEquals(400, accountRepository.findById("shard-2").get().getBalance());
+
+        CompletableFuture<?> invalid = commandProcessor.transfer(new TransferRequest("shard-1", "shard-1", 1));
+        assertThrows(Exception.class, () -> invalid.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void whenOneOperationOfABatchFails_theOthersShouldStillBeApplied() throws Exception {
+        createAccount("shard-1", 1);
+
+        CompletableFuture<AccountDto> before = commandProcessor.deposit("shard-1", 100);
+        CompletableFuture<AccountDto> overflow = commandProcessor.deposit("shard-1", Long.MAX_VALUE);
+        CompletableFuture<AccountDto> after = commandProcessor.withdraw("shard-1", 50);
+
+        assertEquals(101, before.get(10, TimeUnit.SECONDS).getBalance());
+        assertThrows(Exception.class, () -> overflow.get(10, TimeUnit.SECONDS));
+        assertEquals(51, after.get(10, TimeUnit.SECONDS).getBalance());
+        assertEquals(51, accountRepository.findById("shard-1").get().getBalance());
+    }
+
+    @Test
+    void whenAnOperationIsInAnotherCurrency_itShouldRunOnTheShardInArrivalOrder() throws Exception {
+        createAccount("shard-1", 0);
+
+        CompletableFuture<AccountDto> deposit = commandProcessor.deposit("shard-1", 10_000, Currency.USD);
+        CompletableFuture<AccountDto> withdraw = commandProcessor.withdraw("shard-1", 100);
+
+        long converted = deposit.get(10, TimeUnit.SECONDS).getBalance();
+        assertTrue(converted > 0);
+        assertEquals(converted - 100, withdraw.get(10, TimeUnit.SECONDS).getBalance());
+        assertEquals(converted - 100, accountRepository.findById("shard-1").get().getBalance());
+    }
+
+    private void createAccount(String id, long balance) {
+        accountRepository.save(Account.builder().id(id).customerId("shard-customer").balance(balance)
+                .city(City.MARAS).currency(Currency.TRY).build());
+    }
+}
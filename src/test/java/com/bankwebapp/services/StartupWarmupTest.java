@@ -0,0 +1,107 @@
+package com.bankwebapp.services;
+
+import com.bankwebapp.dtos.AccountDto;
+import com.bankwebapp.dtos.AccountStatsDto;
+import com.bankwebapp.dtos.CustomerDto;
+import com.bankwebapp.dtos.CustomerWithAccountsDto;
+import com.bankwebapp.dtos.KeysetPageDto;
+import com.bankwebapp.models.Currency;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StartupWarmupTest {
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private CustomerService customerService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void whenWarmupIsDisabled_itShouldNotCallTheServices() {
+        assertEquals(0, warmup(false, 10, Duration.ofMinutes(1)).warmUp());
+
+        verifyNoInteractions(accountService, customerService);
+    }
+
+    @Test
+    void whenWarmupRuns_itShouldReadTheSampledRowsAndRollBackItsWrites() {
+        AccountDto account = AccountDto.builder().id("a1").customerId("c1").balance(100).currency(Currency.TRY).build();
+        CustomerDto customer = CustomerDto.builder().id("c1").name("John Doe").build();
+        when(accountService.getAccountsPage(any(), anyInt())).thenReturn(new KeysetPageDto<>(List.of(account), null));
+        when(customerService.getCustomersPage(any(), anyInt())).thenReturn(new KeysetPageDto<>(List.of(customer), null));
+        when(accountService.getAccountById("a1")).thenReturn(account);
+        when(accountService.getAccountsByCustomerId(eq("c1"), any(), anyInt())).thenReturn(new KeysetPageDto<>(List.of(account), null));
+        when(accountService.getStatistics()).thenReturn(new AccountStatsDto());
+        when(customerService.getCustomerById("c1")).thenReturn(customer);
+        when(customerService.getCustomerWithAccounts("c1")).thenReturn(new CustomerWithAccountsDto());
+        when(customerService.isSearchEnabled()).thenReturn(true);
+        when(customerService.searchCustomers(eq("John Doe"), anyInt())).thenReturn(List.of(customer));
+        when(customerService.getCustomersPageWithAccounts(any(), anyInt())).thenReturn(new KeysetPageDto<>(List.of(), null));
+        List<SimpleTransactionStatus> transactions = new ArrayList<>();
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            SimpleTransactionStatus status = new SimpleTransactionStatus();
+            transactions.add(status);
+            return status;
+        });
+
+        assertEquals(25, warmup(true, 25, Duration.ofMinutes(1)).warmUp());
+
+        verify(accountService, times(25)).getAccountById("a1");
+        verify(customerService, times(25)).searchCustomers(eq("John Doe"), anyInt());
+        verify(accountService, times(25)).depositMoney("a1", 1);
+        verify(accountService, times(25)).withdrawMoney("a1", 1);
+        assertEquals(25, transactions.size());
+        assertTrue(transactions.stream().allMatch(SimpleTransactionStatus::isRollbackOnly));
+    }
+
+    @Test
+    void whenTheTablesAreEmpty_itShouldNeitherReadNorWriteAMissingAccount() {
+        when(accountService.getAccountsPage(any(), anyInt())).thenReturn(new KeysetPageDto<>(List.of(), null));
+        when(customerService.getCustomersPage(any(), anyInt())).thenReturn(new KeysetPageDto<>(List.of(), null));
+
+        assertEquals(5, warmup(true, 5, Duration.ofMinutes(1)).warmUp());
+
+        verify(accountService, never()).getAccountById(anyString());
+        verify(accountService, never()).depositMoney(anyString(), anyLong());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void whenTheMaxDurationIsOver_itShouldStopBeforeAllIterations() {
+        when(accountService.getAccountsPage(any(), anyInt())).thenReturn(new KeysetPageDto<>(List.of(), null));
+        when(customerService.getCustomersPage(any(), anyInt())).thenReturn(new KeysetPageDto<>(List.of(), null));
+
+        assertEquals(0, warmup(true, 1_000_000, Duration.ZERO).warmUp());
+    }
+
+    @Test
+    void whenAServiceFails_itShouldStopWithoutFailingTheStartup() {
+        when(accountService.getAccountsPage(any(), anyInt())).thenThrow(new IllegalStateException("database unavailable"));
+
+        assertEquals(0, warmup(true, 10, Duration.ofMinutes(1)).warmUp());
+    }
+
+    private StartupWarmup warmup(boolean enabled, int iterations, Duration maxDuration) {
+        return new StartupWarmup(accountService, customerService, objectMapper, transactionManager, enabled, iterations, maxDuration);
+    }
+}